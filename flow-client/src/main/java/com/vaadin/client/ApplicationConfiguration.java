@@ -40,6 +40,7 @@ public class ApplicationConfiguration {
     private String servletVersion;
     private String atmosphereVersion;
     private String atmosphereJSVersion;
+    private String constantPoolId;
 
     /**
      * Gets the id generated for the application.
@@ -293,4 +294,27 @@ public class ApplicationConfiguration {
         this.frontendRootUrl = frontendRootUrl;
     }
 
+    /**
+     * Gets the id of the session constant pool that constants should be cached
+     * for.
+     *
+     * @return the constant pool id, or <code>null</code> if constants should
+     *         not be cached
+     */
+    public String getConstantPoolId() {
+        return constantPoolId;
+    }
+
+    /**
+     * Sets the id of the session constant pool that constants should be cached
+     * for.
+     *
+     * @param constantPoolId
+     *            the constant pool id, or <code>null</code> if constants should
+     *            not be cached
+     */
+    public void setConstantPoolId(String constantPoolId) {
+        this.constantPoolId = constantPoolId;
+    }
+
 }
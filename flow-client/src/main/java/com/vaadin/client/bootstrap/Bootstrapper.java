@@ -154,6 +154,9 @@ public class Bootstrapper implements EntryPoint {
         conf.setRequestTiming(
                 jsoConfiguration.getConfigBoolean("requestTiming"));
 
+        conf.setConstantPoolId(jsoConfiguration
+                .getConfigString(ApplicationConstants.CONSTANT_POOL_ID));
+
     }
 
     private static void doStartApplication(final String applicationId) {
@@ -26,6 +26,7 @@ import com.vaadin.client.Registry;
 import com.vaadin.client.UILifecycle.UIState;
 import com.vaadin.client.ValueMap;
 import com.vaadin.client.WidgetUtil;
+import com.vaadin.client.flow.ConstantCache;
 import com.vaadin.client.flow.ConstantPool;
 import com.vaadin.client.flow.StateNode;
 import com.vaadin.client.flow.StateTree;
@@ -146,6 +147,14 @@ public class MessageHandler {
     };
     private Command nextResponseSessionExpiredHandler;
 
+    private ConstantCache constantCache;
+
+    /**
+     * The id of the latest constants stored in the constant cache, or -1 if
+     * no constants have been stored.
+     */
+    private int storedConstantsId = -1;
+
     /**
      * Data structure holding information about pending UIDL messages.
      */
@@ -366,10 +375,40 @@ public class MessageHandler {
 
             JsonObject json = valueMap.cast();
 
+            if (json.hasKey(ApplicationConstants.CACHED_CONSTANTS)) {
+                ConstantCache constantCache = getConstantCache();
+                JsonObject constants = constantCache == null ? null
+                        : constantCache.load(json
+                                .getArray(ApplicationConstants.CACHED_CONSTANTS));
+                if (constants == null) {
+                    Console.warn(
+                            "Cached constants are not available, reloading the page");
+                    if (constantCache != null) {
+                        constantCache.clear();
+                    }
+                    WidgetUtil.refresh();
+                    return;
+                }
+                registry.getConstantPool().importFromJson(constants);
+            }
+
             if (json.hasKey("constants")) {
                 ConstantPool constantPool = registry.getConstantPool();
                 JsonObject constants = json.getObject("constants");
                 constantPool.importFromJson(constants);
+
+                ConstantCache constantCache = getConstantCache();
+                if (constantCache != null && constantCache.store(constants)
+                        && json.hasKey(
+                                ApplicationConstants.STORED_CONSTANTS_ID)) {
+                    storedConstantsId = (int) json.getNumber(
+                            ApplicationConstants.STORED_CONSTANTS_ID);
+                }
+            }
+
+            if (isResynchronize(valueMap)) {
+                // The server sends the full state tree again
+                registry.getStateTree().prepareForResync();
             }
 
             if (json.hasKey("changes")) {
@@ -451,6 +490,19 @@ public class MessageHandler {
 
     }
 
+    private ConstantCache getConstantCache() {
+        if (constantCache == null) {
+            String poolId = registry.getApplicationConfiguration()
+                    .getConstantPoolId();
+            if (poolId != null) {
+                constantCache = new ConstantCache(poolId,
+                        registry.getApplicationConfiguration()
+                                .getContextRootUrl());
+            }
+        }
+        return constantCache;
+    }
+
     private void processChanges(JsonObject json) {
         StateTree tree = registry.getStateTree();
         JsSet<StateNode> updatedNodes = TreeChangeProcessor.processChanges(tree,
@@ -666,6 +718,18 @@ public class MessageHandler {
         return lastSeenServerSyncId;
     }
 
+    /**
+     * Gets the id of the latest constants that have been stored in the
+     * constant cache. The server only lets other UIs refer to cached constants
+     * once their storage has been confirmed with this id.
+     *
+     * @return the id of the latest stored constants, or -1 if no constants
+     *         have been stored
+     */
+    public int getStoredConstantsId() {
+        return storedConstantsId;
+    }
+
     /**
      * Gets the token (aka double submit cookie) that the server uses to protect
      * against Cross Site Request Forgery attacks.
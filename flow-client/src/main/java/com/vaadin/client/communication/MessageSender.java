@@ -132,6 +132,12 @@ public class MessageSender {
                 registry.getMessageHandler().getLastSeenServerSyncId());
         payload.put(ApplicationConstants.CLIENT_TO_SERVER_ID,
                 clientToServerMessageId++);
+        int storedConstantsId = registry.getMessageHandler()
+                .getStoredConstantsId();
+        if (storedConstantsId != -1) {
+            payload.put(ApplicationConstants.STORED_CONSTANTS_ID,
+                    storedConstantsId);
+        }
 
         if (extraJson != null) {
             for (String key : extraJson.keys()) {
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.client.flow;
+
+import com.vaadin.flow.shared.ApplicationConstants;
+
+import elemental.json.JsonArray;
+import elemental.json.JsonObject;
+
+/**
+ * Caches constants received from the server in the local storage of the
+ * browser, so that they can be reused by other UIs in the same session.
+ * <p>
+ * The cache is tied to the id of a session constant pool on the server. A
+ * cookie tells the server which pool the browser has cached constants for, so
+ * that the server only sends the ids of constants that have already been
+ * delivered. Both the storage and the cookie are scoped to the context root of
+ * the application so that applications on the same origin do not share them.
+ *
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public class ConstantCache {
+    private static final String STORAGE_KEY = "vaadin.constants";
+
+    private final String poolId;
+    private final String storageKey;
+    private final String cookiePath;
+
+    /**
+     * Creates a new cache for the given session constant pool.
+     *
+     * @param poolId
+     *            the id of the session constant pool, not <code>null</code>
+     * @param contextRootUrl
+     *            the absolute URL of the context root of the application, not
+     *            <code>null</code>
+     */
+    public ConstantCache(String poolId, String contextRootUrl) {
+        assert poolId != null;
+        assert contextRootUrl != null;
+        this.poolId = poolId;
+        cookiePath = getPath(contextRootUrl);
+        storageKey = STORAGE_KEY + ":" + cookiePath;
+    }
+
+    /**
+     * Stores the given constants in the cache. Constants cached for another
+     * session constant pool are discarded. If the constants cannot be stored,
+     * the whole cache is cleared so that the server will send all constants
+     * the next time.
+     *
+     * @param constants
+     *            a JSON object mapping constant keys to constant values, not
+     *            <code>null</code>
+     * @return <code>true</code> if the constants were stored,
+     *         <code>false</code> otherwise
+     */
+    public boolean store(JsonObject constants) {
+        assert constants != null;
+        if (!doStore(storageKey, poolId, constants)) {
+            clear();
+            return false;
+        }
+        setCookie(ApplicationConstants.CONSTANT_POOL_COOKIE + "=" + poolId
+                + "; path=" + cookiePath);
+        return true;
+    }
+
+    /**
+     * Reads the constants with the given keys from the cache.
+     *
+     * @param keys
+     *            the keys of the constants to read, not <code>null</code>
+     * @return a JSON object mapping the given keys to their constant values,
+     *         or <code>null</code> if any of the constants is not cached
+     */
+    public JsonObject load(JsonArray keys) {
+        assert keys != null;
+        return doLoad(storageKey, poolId, keys);
+    }
+
+    /**
+     * Removes all cached constants and tells the server that no constants are
+     * cached.
+     */
+    public void clear() {
+        removeStorageItem(storageKey);
+        setCookie(ApplicationConstants.CONSTANT_POOL_COOKIE + "=; path="
+                + cookiePath + "; expires=Thu, 01 Jan 1970 00:00:00 GMT");
+    }
+
+    private static native String getPath(String url)
+    /*-{
+        var link = $doc.createElement('a');
+        link.href = url;
+        var path = link.pathname;
+        return path.charAt(0) === '/' ? path : '/' + path;
+    }-*/;
+
+    private static native boolean doStore(String storageKey, String poolId,
+            JsonObject constants)
+    /*-{
+        try {
+            var stored = JSON.parse($wnd.localStorage.getItem(storageKey) || "null");
+            if (!stored || stored.pool !== poolId) {
+                stored = { pool: poolId, constants: {} };
+            }
+            for (var key in constants) {
+                if (constants.hasOwnProperty(key)) {
+                    stored.constants[key] = constants[key];
+                }
+            }
+            $wnd.localStorage.setItem(storageKey, JSON.stringify(stored));
+            return true;
+        } catch (e) {
+            return false;
+        }
+    }-*/;
+
+    private static native JsonObject doLoad(String storageKey, String poolId,
+            JsonArray keys)
+    /*-{
+        try {
+            var stored = JSON.parse($wnd.localStorage.getItem(storageKey) || "null");
+            if (!stored || stored.pool !== poolId) {
+                return null;
+            }
+            var result = {};
+            for (var i = 0; i < keys.length; i++) {
+                var value = stored.constants[keys[i]];
+                if (value === undefined || value === null) {
+                    return null;
+                }
+                result[keys[i]] = value;
+            }
+            return result;
+        } catch (e) {
+            return null;
+        }
+    }-*/;
+
+    private static native void removeStorageItem(String storageKey)
+    /*-{
+        try {
+            $wnd.localStorage.removeItem(storageKey);
+        } catch (e) {
+            // Storage not available, nothing to remove
+        }
+    }-*/;
+
+    private static native void setCookie(String cookie)
+    /*-{
+        $doc.cookie = cookie;
+    }-*/;
+}
@@ -22,6 +22,7 @@ import com.vaadin.client.flow.collection.JsArray;
 import com.vaadin.client.flow.collection.JsCollections;
 import com.vaadin.client.flow.collection.JsMap;
 import com.vaadin.client.flow.nodefeature.MapProperty;
+import com.vaadin.client.flow.nodefeature.NodeList;
 import com.vaadin.client.flow.nodefeature.NodeMap;
 import com.vaadin.flow.internal.nodefeature.NodeFeatures;
 import com.vaadin.flow.internal.nodefeature.NodeProperties;
@@ -124,6 +125,28 @@ public class StateTree {
         node.unregister();
     }
 
+    /**
+     * Prepares this tree for receiving the full state from the server after a
+     * resynchronization. All nodes except the root node are unregistered and
+     * the lists of the root node are cleared, since the server sends all nodes
+     * and list contents again.
+     */
+    public void prepareForResync() {
+        rootNode.forEachFeature((feature, featureId) -> {
+            if (feature instanceof NodeList) {
+                ((NodeList) feature).clear();
+            }
+        });
+
+        JsArray<StateNode> nodes = JsCollections.array();
+        idToNode.forEach((node, id) -> {
+            if (node != rootNode) {
+                nodes.push(node);
+            }
+        });
+        nodes.forEach(this::unregisterNode);
+    }
+
     /**
      * Verifies that the provided node is not null and properly registered with
      * this state tree.
@@ -27,6 +27,7 @@ import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonType;
 import elemental.json.JsonValue;
 
 /**
@@ -61,10 +62,8 @@ public class TreeChangeProcessor {
 
             // Attach all nodes before doing anything else
             for (int i = 0; i < length; i++) {
-                JsonObject change = changes.getObject(i);
-                if (isAttach(change)) {
-                    int nodeId = (int) change
-                            .getNumber(JsonConstants.CHANGE_NODE);
+                if (isAttach(changes, i)) {
+                    int nodeId = getNodeId(changes, i);
 
                     StateNode node = new StateNode(nodeId, tree);
                     tree.registerNode(node);
@@ -74,9 +73,13 @@ public class TreeChangeProcessor {
 
             // Then process all non-attach changes
             for (int i = 0; i < length; i++) {
-                JsonObject change = changes.getObject(i);
-                if (!isAttach(change)) {
-                    nodes.add(processChange(tree, change));
+                if (isAttach(changes, i)) {
+                    continue;
+                }
+                if (isCompact(changes, i)) {
+                    nodes.add(processCompactChange(tree, changes.getArray(i)));
+                } else {
+                    nodes.add(processChange(tree, changes.getObject(i)));
                 }
             }
             return nodes;
@@ -86,9 +89,25 @@ public class TreeChangeProcessor {
 
     }
 
-    private static boolean isAttach(JsonObject change) {
-        return JsonConstants.CHANGE_TYPE_ATTACH
-                .equals(change.getString(JsonConstants.CHANGE_TYPE));
+    private static boolean isCompact(JsonArray changes, int index) {
+        return changes.get(index).getType() == JsonType.ARRAY;
+    }
+
+    private static boolean isAttach(JsonArray changes, int index) {
+        if (isCompact(changes, index)) {
+            return (int) changes.getArray(index)
+                    .getNumber(0) == JsonConstants.COMPACT_CHANGE_ATTACH;
+        }
+        return JsonConstants.CHANGE_TYPE_ATTACH.equals(changes.getObject(index)
+                .getString(JsonConstants.CHANGE_TYPE));
+    }
+
+    private static int getNodeId(JsonArray changes, int index) {
+        if (isCompact(changes, index)) {
+            return (int) changes.getArray(index).getNumber(1);
+        }
+        return (int) changes.getObject(index)
+                .getNumber(JsonConstants.CHANGE_NODE);
     }
 
     /**
@@ -133,6 +152,70 @@ public class TreeChangeProcessor {
         return node;
     }
 
+    /**
+     * Update a state tree based on a change in the compact JSON array format.
+     * This method is public for testing purposes.
+     *
+     * @param tree
+     *            the tree to update
+     * @param change
+     *            the compact JSON change
+     * @return the updated node addressed by the provided {@code change}
+     */
+    public static StateNode processCompactChange(StateTree tree,
+            JsonArray change) {
+        int type = (int) change.getNumber(0);
+        int nodeId = (int) change.getNumber(1);
+
+        StateNode node = tree.getNode(nodeId);
+        assert node != null;
+
+        switch (type) {
+        case JsonConstants.COMPACT_CHANGE_NOOP:
+            populateFeature(node, (int) change.getNumber(2),
+                    change.getBoolean(3));
+            break;
+        case JsonConstants.COMPACT_CHANGE_SPLICE:
+            if (change.length() > 5) {
+                splice(node, (int) change.getNumber(2),
+                        (int) change.getNumber(3), (int) change.getNumber(4),
+                        ClientJsonCodec
+                                .jsonArrayAsJsArray(change.getArray(5)));
+            } else {
+                splice(node, (int) change.getNumber(2),
+                        (int) change.getNumber(3), (int) change.getNumber(4),
+                        null);
+            }
+            break;
+        case JsonConstants.COMPACT_CHANGE_SPLICE_NODES:
+            splice(node, (int) change.getNumber(2), (int) change.getNumber(3),
+                    (int) change.getNumber(4),
+                    getChildNodes(node, change.getArray(5)));
+            break;
+        case JsonConstants.COMPACT_CHANGE_PUT:
+            putValue(getProperty(node, (int) change.getNumber(2),
+                    change.getString(3)), change.get(4));
+            break;
+        case JsonConstants.COMPACT_CHANGE_PUT_NODE:
+            putNode(getProperty(node, (int) change.getNumber(2),
+                    change.getString(3)), node, (int) change.getNumber(4));
+            break;
+        case JsonConstants.COMPACT_CHANGE_REMOVE:
+            getProperty(node, (int) change.getNumber(2), change.getString(3))
+                    .removeValue();
+            break;
+        case JsonConstants.COMPACT_CHANGE_DETACH:
+            processDetachChange(node);
+            break;
+        case JsonConstants.COMPACT_CHANGE_CLEAR:
+            node.getList((int) change.getNumber(2)).clear();
+            break;
+        default:
+            assert false : "Unsupported compact change type: " + type;
+        }
+        return node;
+    }
+
     private static void processDetachChange(StateNode node) {
         node.getTree().unregisterNode(node);
         node.setParent(null);
@@ -142,7 +225,13 @@ public class TreeChangeProcessor {
         assert change.hasKey(
                 JsonConstants.CHANGE_FEATURE_TYPE) : "Change doesn't contain feature type. Don't know how to populate feature";
         int featureId = (int) change.getNumber(JsonConstants.CHANGE_FEATURE);
-        if (change.getBoolean(JsonConstants.CHANGE_FEATURE_TYPE)) {
+        populateFeature(node, featureId,
+                change.getBoolean(JsonConstants.CHANGE_FEATURE_TYPE));
+    }
+
+    private static void populateFeature(StateNode node, int featureId,
+            boolean isList) {
+        if (isList) {
             // list feature
             node.getList(featureId);
         } else {
@@ -154,23 +243,31 @@ public class TreeChangeProcessor {
         MapProperty property = findProperty(change, node);
 
         if (change.hasKey(JsonConstants.CHANGE_PUT_VALUE)) {
-            JsonValue jsonValue = change.get(JsonConstants.CHANGE_PUT_VALUE);
-            Object value = ClientJsonCodec.decodeWithoutTypeInfo(jsonValue);
-            property.setValue(value);
+            putValue(property, change.get(JsonConstants.CHANGE_PUT_VALUE));
         } else if (change.hasKey(JsonConstants.CHANGE_PUT_NODE_VALUE)) {
             int childId = (int) change
                     .getNumber(JsonConstants.CHANGE_PUT_NODE_VALUE);
-            StateNode child = node.getTree().getNode(childId);
-            assert child != null;
-            child.setParent(node);
-
-            property.setValue(child);
+            putNode(property, node, childId);
         } else {
             assert false : "Change should have either value or nodeValue property: "
                     + WidgetUtil.stringify(change);
         }
     }
 
+    private static void putValue(MapProperty property, JsonValue jsonValue) {
+        Object value = ClientJsonCodec.decodeWithoutTypeInfo(jsonValue);
+        property.setValue(value);
+    }
+
+    private static void putNode(MapProperty property, StateNode node,
+            int childId) {
+        StateNode child = node.getTree().getNode(childId);
+        assert child != null;
+        child.setParent(node);
+
+        property.setValue(child);
+    }
+
     private static void processRemoveChange(JsonObject change, StateNode node) {
         MapProperty property = findProperty(change, node);
 
@@ -179,17 +276,21 @@ public class TreeChangeProcessor {
 
     private static MapProperty findProperty(JsonObject change, StateNode node) {
         int nsId = (int) change.getNumber(JsonConstants.CHANGE_FEATURE);
-        NodeMap map = node.getMap(nsId);
         String key = change.getString(JsonConstants.CHANGE_MAP_KEY);
 
+        return getProperty(node, nsId, key);
+    }
+
+    private static MapProperty getProperty(StateNode node, int nsId,
+            String key) {
+        NodeMap map = node.getMap(nsId);
+
         return map.getProperty(key);
     }
 
     private static void processSpliceChange(JsonObject change, StateNode node) {
         int nsId = (int) change.getNumber(JsonConstants.CHANGE_FEATURE);
 
-        NodeList list = node.getList(nsId);
-
         int index = (int) change.getNumber(JsonConstants.CHANGE_SPLICE_INDEX);
         int remove;
         if (change.hasKey(JsonConstants.CHANGE_SPLICE_REMOVE)) {
@@ -204,24 +305,40 @@ public class TreeChangeProcessor {
 
             JsArray<Object> add = ClientJsonCodec.jsonArrayAsJsArray(addJson);
 
-            list.splice(index, remove, add);
+            splice(node, nsId, index, remove, add);
         } else if (change.hasKey(JsonConstants.CHANGE_SPLICE_ADD_NODES)) {
             JsonArray addNodes = change
                     .getArray(JsonConstants.CHANGE_SPLICE_ADD_NODES);
-            int length = addNodes.length();
 
-            JsArray<StateNode> add = JsCollections.array();
+            splice(node, nsId, index, remove, getChildNodes(node, addNodes));
+        } else {
+            splice(node, nsId, index, remove, null);
+        }
+    }
 
-            StateTree tree = node.getTree();
-            for (int i = 0; i < length; i++) {
-                int childId = (int) addNodes.getNumber(i);
-                StateNode child = tree.getNode(childId);
-                assert child != null : "No child node found with id " + childId;
-                child.setParent(node);
+    private static JsArray<StateNode> getChildNodes(StateNode node,
+            JsonArray addNodes) {
+        int length = addNodes.length();
 
-                add.set(i, child);
-            }
+        JsArray<StateNode> add = JsCollections.array();
+
+        StateTree tree = node.getTree();
+        for (int i = 0; i < length; i++) {
+            int childId = (int) addNodes.getNumber(i);
+            StateNode child = tree.getNode(childId);
+            assert child != null : "No child node found with id " + childId;
+            child.setParent(node);
+
+            add.set(i, child);
+        }
+        return add;
+    }
+
+    private static void splice(StateNode node, int nsId, int index,
+            int remove, JsArray<?> add) {
+        NodeList list = node.getList(nsId);
 
+        if (add != null) {
             list.splice(index, remove, add);
         } else {
             list.splice(index, remove);
@@ -316,6 +316,107 @@ public class TreeChangeProcessorTest {
         Assert.assertNull(child.getParent());
     }
 
+    @Test
+    public void testCompactPutChange() {
+        JsonArray change = compactChange(JsonConstants.COMPACT_CHANGE_PUT,
+                rootId, Json.create(ns), Json.create(myKey),
+                Json.create(myValue));
+
+        StateNode node = TreeChangeProcessor.processCompactChange(tree,
+                change);
+
+        Object value = tree.getRootNode().getMap(ns).getProperty(myKey)
+                .getValue();
+
+        Assert.assertEquals(myValue, value);
+        Assert.assertEquals(tree.getRootNode(), node);
+    }
+
+    @Test
+    public void testCompactMapRemoveChange() {
+        MapProperty property = tree.getRootNode().getMap(ns).getProperty(myKey);
+        property.setValue(myValue);
+
+        JsonArray change = compactChange(JsonConstants.COMPACT_CHANGE_REMOVE,
+                rootId, Json.create(ns), Json.create(myKey));
+
+        TreeChangeProcessor.processCompactChange(tree, change);
+
+        Assert.assertFalse(property.hasValue());
+    }
+
+    @Test
+    public void testCompactChanges_attachAndSpliceNodes() {
+        int childId = 2;
+        JsonArray changes = toArray(
+                compactChange(JsonConstants.COMPACT_CHANGE_SPLICE_NODES, rootId,
+                        Json.create(ns), Json.create(0), Json.create(0),
+                        JsonUtils.createArray(Json.create(childId))),
+                compactChange(JsonConstants.COMPACT_CHANGE_ATTACH, childId),
+                compactChange(JsonConstants.COMPACT_CHANGE_PUT_NODE, rootId,
+                        Json.create(ns + 1), Json.create(myKey),
+                        Json.create(childId)));
+
+        JsSet<StateNode> updatedNodes = TreeChangeProcessor.processChanges(tree,
+                changes);
+
+        StateNode child = tree.getNode(childId);
+        Assert.assertNotNull(child);
+        Assert.assertSame(child, tree.getRootNode().getList(ns).get(0));
+        Assert.assertSame(child, tree.getRootNode().getMap(ns + 1)
+                .getProperty(myKey).getValue());
+        Assert.assertEquals(tree.getRootNode(), child.getParent());
+        Assert.assertTrue(updatedNodes.has(child));
+        Assert.assertTrue(updatedNodes.has(tree.getRootNode()));
+    }
+
+    @Test
+    public void testCompactPrimitiveSpliceAndClear() {
+        NodeList list = tree.getRootNode().getList(ns);
+        list.add(0, "zero");
+
+        TreeChangeProcessor.processCompactChange(tree,
+                compactChange(JsonConstants.COMPACT_CHANGE_SPLICE, rootId,
+                        Json.create(ns), Json.create(0), Json.create(1),
+                        JsonUtils.createArray(Json.create("foo"),
+                                Json.create("bar"))));
+
+        Assert.assertEquals(2, list.length());
+        Assert.assertEquals("foo", list.get(0));
+        Assert.assertEquals("bar", list.get(1));
+
+        TreeChangeProcessor.processCompactChange(tree,
+                compactChange(JsonConstants.COMPACT_CHANGE_SPLICE, rootId,
+                        Json.create(ns), Json.create(1), Json.create(1)));
+        Assert.assertEquals(1, list.length());
+
+        TreeChangeProcessor.processCompactChange(tree, compactChange(
+                JsonConstants.COMPACT_CHANGE_CLEAR, rootId, Json.create(ns)));
+        Assert.assertEquals(0, list.length());
+    }
+
+    @Test
+    public void testCompactDetachRemovesNode() {
+        StateNode childNode = new StateNode(2, tree);
+        tree.registerNode(childNode);
+
+        TreeChangeProcessor.processChanges(tree, toArray(compactChange(
+                JsonConstants.COMPACT_CHANGE_DETACH, childNode.getId())));
+
+        Assert.assertNull(tree.getNode(childNode.getId()));
+    }
+
+    private static JsonArray compactChange(int type, int node,
+            JsonValue... items) {
+        JsonArray json = Json.createArray();
+        json.set(0, type);
+        json.set(1, node);
+        for (JsonValue item : items) {
+            json.set(json.length(), item);
+        }
+        return json;
+    }
+
     private static JsonArray toArray(JsonValue... changes) {
         return Arrays.stream(changes).collect(JsonUtils.asArray());
     }
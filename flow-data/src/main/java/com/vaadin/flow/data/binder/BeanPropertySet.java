@@ -19,6 +19,11 @@ import java.beans.IntrospectionException;
 import java.beans.PropertyDescriptor;
 import java.io.IOException;
 import java.io.Serializable;
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.HashMap;
@@ -28,6 +33,7 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -105,9 +111,69 @@ public class BeanPropertySet<T> implements PropertySet<T> {
         }
     }
 
+    /**
+     * Invokes a property read or write method. Exceptions thrown by the method
+     * are thrown as such, without wrapping.
+     */
+    @FunctionalInterface
+    private interface MethodInvoker extends Serializable {
+        Object invoke(Object target, Object value) throws Throwable;
+    }
+
+    /**
+     * Reads or writes a property using a {@link MethodInvoker}, with the same
+     * argument checks and exception wrapping as when invoking the method using
+     * reflection.
+     */
+    private static final class PropertyAccessor implements Serializable {
+        private final Class<?> targetType;
+        private final Class<?> valueType;
+        private final boolean primitiveValue;
+        private final MethodInvoker invoker;
+
+        private PropertyAccessor(Method method, MethodInvoker invoker) {
+            targetType = method.getDeclaringClass();
+            if (method.getParameterCount() == 1) {
+                Class<?> parameterType = method.getParameterTypes()[0];
+                valueType = MethodType.methodType(parameterType).wrap()
+                        .returnType();
+                primitiveValue = parameterType.isPrimitive();
+            } else {
+                valueType = null;
+                primitiveValue = false;
+            }
+            this.invoker = invoker;
+        }
+
+        private Object invoke(Object target, Object value) {
+            if (target == null) {
+                throw new NullPointerException();
+            }
+            if (!targetType.isInstance(target)) {
+                throw new IllegalArgumentException(
+                        "object is not an instance of declaring class");
+            }
+            if (valueType != null && (value == null ? primitiveValue
+                    : !valueType.isInstance(value))) {
+                throw new IllegalArgumentException("argument type mismatch");
+            }
+            try {
+                return invoker.invoke(target, value);
+            } catch (IllegalAccessException e) {
+                throw new RuntimeException(e);
+            } catch (Throwable e) {
+                // Same exception as when invoking the method using reflection
+                throw new RuntimeException(new InvocationTargetException(e));
+            }
+        }
+    }
+
     private static class BeanPropertyDefinition<T, V>
             extends AbstractBeanPropertyDefinition<T, V> {
 
+        private transient PropertyAccessor readAccessor;
+        private transient PropertyAccessor writeAccessor;
+
         public BeanPropertyDefinition(BeanPropertySet<T> propertySet,
                 Class<T> propertyHolderType, PropertyDescriptor descriptor) {
             super(propertySet, propertyHolderType, descriptor);
@@ -116,8 +182,7 @@ public class BeanPropertySet<T> implements PropertySet<T> {
         @Override
         public ValueProvider<T, V> getGetter() {
             return bean -> {
-                Method readMethod = getDescriptor().getReadMethod();
-                Object value = invokeWrapExceptions(readMethod, bean);
+                Object value = getReadAccessor().invoke(bean, null);
                 return getType().cast(value);
             };
         }
@@ -128,17 +193,29 @@ public class BeanPropertySet<T> implements PropertySet<T> {
                 return Optional.empty();
             }
 
-            Setter<T, V> setter = (bean, value) -> {
-                // Do not "optimize" this getter call,
-                // if its done outside the code block, that will produce
-                // NotSerializableException because of some lambda compilation
-                // magic
-                Method innerSetter = getDescriptor().getWriteMethod();
-                invokeWrapExceptions(innerSetter, bean, value);
-            };
+            Setter<T, V> setter = (bean, value) -> getWriteAccessor()
+                    .invoke(bean, value);
             return Optional.of(setter);
         }
 
+        private PropertyAccessor getReadAccessor() {
+            if (readAccessor == null) {
+                Method method = getDescriptor().getReadMethod();
+                readAccessor = new PropertyAccessor(method,
+                        createReadInvoker(method));
+            }
+            return readAccessor;
+        }
+
+        private PropertyAccessor getWriteAccessor() {
+            if (writeAccessor == null) {
+                Method method = getDescriptor().getWriteMethod();
+                writeAccessor = new PropertyAccessor(method,
+                        createWriteInvoker(method));
+            }
+            return writeAccessor;
+        }
+
         private Object writeReplace() {
             /*
              * Instead of serializing this actual property definition, only
@@ -176,6 +253,9 @@ public class BeanPropertySet<T> implements PropertySet<T> {
 
         private final PropertyDefinition<T, ?> parent;
 
+        private transient PropertyAccessor readAccessor;
+        private transient PropertyAccessor writeAccessor;
+
         /**
          * Creates a new instance of a nested property definition.
          *
@@ -196,9 +276,8 @@ public class BeanPropertySet<T> implements PropertySet<T> {
         @Override
         public ValueProvider<T, V> getGetter() {
             return bean -> {
-                Method readMethod = getDescriptor().getReadMethod();
-                Object value = invokeWrapExceptions(readMethod,
-                        parent.getGetter().apply(bean));
+                Object value = getReadAccessor()
+                        .invoke(parent.getGetter().apply(bean), null);
                 return getType().cast(value);
             };
         }
@@ -209,18 +288,29 @@ public class BeanPropertySet<T> implements PropertySet<T> {
                 return Optional.empty();
             }
 
-            Setter<T, V> setter = (bean, value) -> {
-                // Do not "optimize" this getter call,
-                // if its done outside the code block, that will produce
-                // NotSerializableException because of some lambda compilation
-                // magic
-                Method innerSetter = getDescriptor().getWriteMethod();
-                invokeWrapExceptions(innerSetter,
-                        parent.getGetter().apply(bean), value);
-            };
+            Setter<T, V> setter = (bean, value) -> getWriteAccessor()
+                    .invoke(parent.getGetter().apply(bean), value);
             return Optional.of(setter);
         }
 
+        private PropertyAccessor getReadAccessor() {
+            if (readAccessor == null) {
+                Method method = getDescriptor().getReadMethod();
+                readAccessor = new PropertyAccessor(method,
+                        createReadInvoker(method));
+            }
+            return readAccessor;
+        }
+
+        private PropertyAccessor getWriteAccessor() {
+            if (writeAccessor == null) {
+                Method method = getDescriptor().getWriteMethod();
+                writeAccessor = new PropertyAccessor(method,
+                        createWriteInvoker(method));
+            }
+            return writeAccessor;
+        }
+
         @Override
         public String getName() {
             return parent.getName() + "." + super.getName();
@@ -510,12 +600,108 @@ public class BeanPropertySet<T> implements PropertySet<T> {
                 && readMethod.getDeclaringClass() != Object.class;
     }
 
-    private static Object invokeWrapExceptions(Method method, Object target,
-            Object... parameters) {
+    /**
+     * Creates an invoker for a property read method. The invoker uses a class
+     * generated with {@link LambdaMetafactory} if possible, a method handle if
+     * not, and reflection as a last resort e.g. when the method is not
+     * accessible from this class.
+     */
+    @SuppressWarnings("unchecked")
+    private static MethodInvoker createReadInvoker(Method method) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            return (target, value) -> invokeReflectively(method, target);
+        }
+
+        if (isVisible(method.getDeclaringClass())
+                && isVisible(method.getReturnType())) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "apply",
+                        MethodType.methodType(Function.class),
+                        MethodType.methodType(Object.class, Object.class),
+                        handle, handle.type().wrap());
+                Function<Object, Object> function = (Function<Object, Object>) site
+                        .getTarget().invoke();
+                return (target, value) -> function.apply(target);
+            } catch (Throwable e) {
+                // Fall back to using the method handle directly
+            }
+        }
+
+        MethodHandle generic = handle
+                .asType(MethodType.methodType(Object.class, Object.class));
+        return (target, value) -> generic.invokeExact(target);
+    }
+
+    /**
+     * Creates an invoker for a property write method, in the same way as
+     * {@link #createReadInvoker(Method)}.
+     */
+    @SuppressWarnings("unchecked")
+    private static MethodInvoker createWriteInvoker(Method method) {
+        MethodHandles.Lookup lookup = MethodHandles.lookup();
+        MethodHandle handle;
+        try {
+            handle = lookup.unreflect(method);
+        } catch (IllegalAccessException e) {
+            return (target, value) -> invokeReflectively(method, target,
+                    value);
+        }
+
+        if (isVisible(method.getDeclaringClass())
+                && isVisible(method.getParameterTypes()[0])) {
+            try {
+                CallSite site = LambdaMetafactory.metafactory(lookup, "accept",
+                        MethodType.methodType(BiConsumer.class),
+                        MethodType.methodType(void.class, Object.class,
+                                Object.class),
+                        handle,
+                        handle.type().wrap().changeReturnType(void.class));
+                BiConsumer<Object, Object> consumer = (BiConsumer<Object, Object>) site
+                        .getTarget().invoke();
+                return (target, value) -> {
+                    consumer.accept(target, value);
+                    return null;
+                };
+            } catch (Throwable e) {
+                // Fall back to using the method handle directly
+            }
+        }
+
+        MethodHandle generic = handle.asType(MethodType.methodType(void.class,
+                Object.class, Object.class));
+        return (target, value) -> {
+            generic.invokeExact(target, value);
+            return null;
+        };
+    }
+
+    /**
+     * Checks whether a generated class defined by this class can refer to the
+     * given type, i.e. whether the type is loaded by the class loader of this
+     * class or one of its parents.
+     */
+    private static boolean isVisible(Class<?> type) {
+        if (type.isPrimitive()) {
+            return true;
+        }
+        try {
+            return Class.forName(type.getName(), false,
+                    BeanPropertySet.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    private static Object invokeReflectively(Method method, Object target,
+            Object... parameters) throws Throwable {
         try {
             return method.invoke(target, parameters);
-        } catch (IllegalAccessException | InvocationTargetException e) {
-            throw new RuntimeException(e);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
         }
     }
 
@@ -21,11 +21,17 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -34,11 +40,13 @@ import org.slf4j.LoggerFactory;
 import com.vaadin.flow.data.provider.ArrayUpdater.Update;
 import com.vaadin.flow.data.provider.DataChangeEvent.DataRefreshEvent;
 import com.vaadin.flow.function.SerializableComparator;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.function.SerializableConsumer;
 import com.vaadin.flow.internal.ExecutionContext;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.Range;
 import com.vaadin.flow.internal.StateNode;
+import com.vaadin.flow.internal.StateTree;
 import com.vaadin.flow.shared.Registration;
 
 import elemental.json.Json;
@@ -101,6 +109,60 @@ public class DataCommunicator<T> implements Serializable {
     private SerializableConsumer<ExecutionContext> flushRequest;
     private SerializableConsumer<ExecutionContext> flushUpdatedDataRequest;
 
+    private int pageSize = 50;
+    private int pageCacheSize;
+    private int prefetchPages;
+    private int previousRequestedStart;
+
+    // Serializability of cached items is up to the application
+    private PageCache<T> pageCache;
+
+    // Thread pools are not serializable, set again after deserialization
+    private transient Executor fetchExecutor;
+    private int fetchGeneration;
+    // A fetch in progress does not complete in a deserialized copy
+    private transient boolean fetchInProgress;
+    private Integer fetchedSize;
+    private Range fetchedRange = Range.withLength(0, 0);
+    // ArrayList or emptyList(), both are serializable
+    private List<T> fetchedItems = Collections.emptyList();
+
+    /**
+     * The result of fetching the size and items from the data provider in a
+     * background thread.
+     */
+    private static class FetchResult<T> implements Serializable {
+        private final Integer size;
+        private final Range range;
+        private final List<T> items;
+
+        private FetchResult(Integer size, Range range, List<T> items) {
+            this.size = size;
+            this.range = range;
+            this.items = items;
+        }
+    }
+
+    /**
+     * Items fetched from the data provider, by page index. The least recently
+     * used page is evicted when the cache is full.
+     */
+    private static class PageCache<T> extends LinkedHashMap<Integer, List<T>> {
+
+        private final int maxPages;
+
+        private PageCache(int maxPages) {
+            super(16, 0.75f, true);
+            this.maxPages = maxPages;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<Integer, List<T>> eldest) {
+            return size() > maxPages;
+        }
+    }
+
     private static class SizeVerifier<T> implements Consumer<T>, Serializable {
 
         private int size;
@@ -171,6 +233,8 @@ public class DataCommunicator<T> implements Serializable {
      */
     public void reset() {
         resendEntireRange = true;
+        clearPageCache();
+        clearFetchedItems();
         dataGenerator.destroyAllData();
         updatedData.clear();
         requestFlush();
@@ -187,6 +251,13 @@ public class DataCommunicator<T> implements Serializable {
                 "DataCommunicator can not refresh null object");
         getKeyMapper().refresh(data);
         dataGenerator.refreshData(data);
+        // Cached pages may contain an outdated instance of the item
+        clearPageCache();
+        if (fetchInProgress) {
+            // The discarded fetch would otherwise trigger the next flush
+            requestFlush();
+        }
+        discardFetchedItems();
         updatedData.add(data);
         requestFlushUpdatedData();
     }
@@ -313,6 +384,142 @@ public class DataCommunicator<T> implements Serializable {
         return Collections.unmodifiableList(backEndSorting);
     }
 
+    /**
+     * Sets the number of items in a page of the page cache. Items are fetched
+     * from the data provider one or more full pages at a time when the page
+     * cache is enabled. The default page size is 50.
+     *
+     * @param pageSize
+     *            the number of items in a page, greater than zero
+     * @see #setPageCacheSize(int)
+     */
+    public void setPageSize(int pageSize) {
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException(
+                    "Page size must be greater than zero");
+        }
+        this.pageSize = pageSize;
+        clearPageCache();
+    }
+
+    /**
+     * Gets the number of items in a page of the page cache.
+     *
+     * @return the number of items in a page
+     */
+    public int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Sets the maximum number of pages of items to keep in memory so that
+     * scrolling back to previously shown items does not fetch them from the
+     * data provider again. The cache is cleared whenever the filter, the
+     * sorting or the data provider changes, and when the data provider
+     * notifies about changed data. The page cache is disabled by default.
+     *
+     * @param pageCacheSize
+     *            the maximum number of cached pages, or zero to disable the
+     *            page cache
+     * @see #setPageSize(int)
+     * @see #setPrefetchPages(int)
+     */
+    public void setPageCacheSize(int pageCacheSize) {
+        if (pageCacheSize < 0) {
+            throw new IllegalArgumentException(
+                    "Page cache size cannot be negative");
+        }
+        this.pageCacheSize = pageCacheSize;
+        pageCache = null;
+    }
+
+    /**
+     * Gets the maximum number of pages of items to keep in memory.
+     *
+     * @return the maximum number of cached pages, zero if the page cache is
+     *         disabled
+     */
+    public int getPageCacheSize() {
+        return pageCacheSize;
+    }
+
+    /**
+     * Sets the number of pages to fetch ahead of the requested range, in the
+     * direction the requested range last moved.
+     * <p>
+     * When a fetch executor is set, the prefetched items are fetched in the
+     * background together with the requested range. Otherwise, the pages are
+     * fetched into the page cache while the session lock is held, right
+     * before the response is sent, so the time taken by the query is added to
+     * the latency of the response. In that case, prefetching has no effect
+     * unless the page cache is enabled and large enough to hold both the
+     * requested range and the prefetched pages.
+     *
+     * @param prefetchPages
+     *            the number of pages to fetch ahead, or zero to disable
+     *            prefetching
+     * @see #setPageCacheSize(int)
+     * @see #setFetchExecutor(Executor)
+     */
+    public void setPrefetchPages(int prefetchPages) {
+        if (prefetchPages < 0) {
+            throw new IllegalArgumentException(
+                    "The number of prefetched pages cannot be negative");
+        }
+        this.prefetchPages = prefetchPages;
+    }
+
+    /**
+     * Gets the number of pages to fetch into the page cache ahead of the
+     * requested range.
+     *
+     * @return the number of prefetched pages, zero if prefetching is disabled
+     */
+    public int getPrefetchPages() {
+        return prefetchPages;
+    }
+
+    /**
+     * Sets an executor for fetching items from the data provider outside of
+     * the session lock. When an executor is set, the item count and the items
+     * for the requested range are fetched in a background thread, so that a
+     * slow data provider does not block other requests to the same session.
+     * The changes are sent to the client once the data is available, which
+     * requires server push unless the client makes another request. Until
+     * then, the client keeps showing the previous items, or empty rows for
+     * items it has not received yet.
+     * <p>
+     * The data provider must support being called from threads other than
+     * the one holding the session lock. Subclasses overriding
+     * {@link #getDataProviderSize()} or {@link #fetchFromProvider(int, int)}
+     * should not use an executor since the background thread queries the data
+     * provider directly.
+     * <p>
+     * The executor is not serialized with the data communicator, so it must
+     * be set again after the session has been deserialized. Until then, items
+     * are fetched while holding the session lock. If the executor rejects a
+     * fetch, the items are fetched while holding the session lock as well.
+     *
+     * @param fetchExecutor
+     *            the executor to fetch items with, or <code>null</code> to
+     *            fetch items while holding the session lock
+     */
+    public void setFetchExecutor(Executor fetchExecutor) {
+        this.fetchExecutor = fetchExecutor;
+        reset();
+    }
+
+    /**
+     * Gets the executor used for fetching items from the data provider outside
+     * of the session lock.
+     *
+     * @return the executor, or <code>null</code> if items are fetched while
+     *         holding the session lock
+     */
+    public Executor getFetchExecutor() {
+        return fetchExecutor;
+    }
+
     /**
      * Getter method for finding the size of DataProvider. Can be overridden by
      * a subclass that uses a specific type of DataProvider and/or query.
@@ -343,16 +550,20 @@ public class DataCommunicator<T> implements Serializable {
      * @return the list of items in given range
      *
      */
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     protected Stream<T> fetchFromProvider(int offset, int limit) {
-        QueryTrace query = new QueryTrace(offset, limit, backEndSorting,
-                inMemorySorting, filter);
-        Stream<T> stream = getDataProvider().fetch(query);
+        return fetchFromProvider(getDataProvider(), new QueryTrace<>(offset,
+                limit, backEndSorting, inMemorySorting, filter), limit);
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static <T> Stream<T> fetchFromProvider(
+            DataProvider<T, ?> dataProvider, QueryTrace query, int limit) {
+        Stream<T> stream = dataProvider.fetch(query);
         if (stream.isParallel()) {
             LoggerFactory.getLogger(DataCommunicator.class)
                     .debug("Data provider {} has returned "
                             + "parallel stream on 'fetch' call",
-                            getDataProvider().getClass());
+                            dataProvider.getClass());
             stream = stream.collect(Collectors.toList()).stream();
             assert !stream.isParallel();
         }
@@ -370,7 +581,7 @@ public class DataCommunicator<T> implements Serializable {
         return stream;
     }
 
-    private String getInvalidContractMessage(String method) {
+    private static String getInvalidContractMessage(String method) {
         return String.format("The data provider hasn't ever called %s() "
                 + "method on the provided query. "
                 + "It means that the the data provider breaks the contract "
@@ -426,10 +637,17 @@ public class DataCommunicator<T> implements Serializable {
     }
 
     private void flush() {
+        if (fetchExecutor != null && !isFetchedDataAvailable()
+                && !fetchInBackground()) {
+            // Flush again once the data has been fetched
+            return;
+        }
+
         Set<String> oldActive = new HashSet<>(activeKeyOrder);
 
         if (resendEntireRange) {
-            assumedSize = getDataProviderSize();
+            assumedSize = fetchExecutor != null ? fetchedSize
+                    : getDataProviderSize();
         }
 
         final Range previousActive = Range.withLength(activeStart,
@@ -452,6 +670,10 @@ public class DataCommunicator<T> implements Serializable {
         boolean updated = collectChangesToSend(previousActive,
                 effectiveRequested, update);
 
+        if (updated && fetchExecutor == null) {
+            prefetch(effectiveRequested);
+        }
+
         resendEntireRange = false;
         assumeEmptyClient = false;
 
@@ -609,7 +831,7 @@ public class DataCommunicator<T> implements Serializable {
 
         // XXX Explicitly refresh anything that is updated
         List<String> activeKeys = new ArrayList<>(range.length());
-        fetchFromProvider(range.getStart(), range.length()).forEach(bean -> {
+        fetchItems(range.getStart(), range.length()).forEach(bean -> {
             boolean mapperHasKey = keyMapper.has(bean);
             String key = keyMapper.key(bean);
             if (mapperHasKey) {
@@ -621,6 +843,258 @@ public class DataCommunicator<T> implements Serializable {
         return activeKeys;
     }
 
+    private Stream<T> fetchItems(int offset, int limit) {
+        if (fetchExecutor != null) {
+            Range range = Range.withLength(offset, limit);
+            assert range.isSubsetOf(fetchedRange);
+            int start = offset - fetchedRange.getStart();
+            int end = Math.min(start + limit, fetchedItems.size());
+            return fetchedItems.subList(start, end).stream();
+        }
+
+        int firstPage = offset / pageSize;
+        int lastPage = (offset + limit - 1) / pageSize;
+        if (lastPage - firstPage + 1 > pageCacheSize) {
+            // Page cache is disabled or too small for the range
+            return fetchFromProvider(offset, limit);
+        }
+
+        loadPages(firstPage, lastPage);
+
+        List<T> items = new ArrayList<>();
+        for (int page = firstPage; page <= lastPage; page++) {
+            items.addAll(getPageCache().get(page));
+        }
+        int start = Math.min(offset - firstPage * pageSize, items.size());
+        return items.subList(start, Math.min(start + limit, items.size()))
+                .stream();
+    }
+
+    /**
+     * Fetches the pages in the given range that are not yet cached, using one
+     * query for each run of consecutive missing pages.
+     */
+    private void loadPages(int firstPage, int lastPage) {
+        PageCache<T> cache = getPageCache();
+        // Mark cached pages in the range as recently used so that loading the
+        // missing pages does not evict them
+        for (int page = firstPage; page <= lastPage; page++) {
+            cache.get(page);
+        }
+        int page = firstPage;
+        while (page <= lastPage) {
+            if (cache.containsKey(page)) {
+                page++;
+                continue;
+            }
+            int end = page;
+            while (end < lastPage && !cache.containsKey(end + 1)) {
+                end++;
+            }
+            List<T> items = fetchFromProvider(page * pageSize,
+                    (end - page + 1) * pageSize).collect(Collectors.toList());
+            for (int i = page; i <= end; i++) {
+                int start = Math.min((i - page) * pageSize, items.size());
+                int stop = Math.min(start + pageSize, items.size());
+                cache.put(i, new ArrayList<>(items.subList(start, stop)));
+            }
+            page = end + 1;
+        }
+    }
+
+    private void prefetch(Range requested) {
+        int direction = Integer.compare(requested.getStart(),
+                previousRequestedStart);
+        previousRequestedStart = requested.getStart();
+        if (prefetchPages == 0 || requested.isEmpty()) {
+            return;
+        }
+
+        int requestedPages = (requested.getEnd() - 1) / pageSize
+                - requested.getStart() / pageSize + 1;
+        if (requestedPages + prefetchPages > pageCacheSize) {
+            // Prefetching would evict the pages that are currently shown
+            return;
+        }
+
+        int firstPage;
+        int lastPage;
+        if (direction >= 0) {
+            firstPage = (requested.getEnd() - 1) / pageSize + 1;
+            lastPage = Math.min(firstPage + prefetchPages - 1,
+                    (assumedSize - 1) / pageSize);
+        } else {
+            lastPage = requested.getStart() / pageSize - 1;
+            firstPage = Math.max(0, lastPage - prefetchPages + 1);
+        }
+        if (firstPage <= lastPage) {
+            loadPages(firstPage, lastPage);
+        }
+    }
+
+    /**
+     * Gets the requested range extended with the items to prefetch in the
+     * direction the requested range last moved, for fetching them in the
+     * background.
+     */
+    private Range getRangeToFetch() {
+        int direction = Integer.compare(requestedRange.getStart(),
+                previousRequestedStart);
+        previousRequestedStart = requestedRange.getStart();
+        if (prefetchPages == 0 || requestedRange.isEmpty()) {
+            return requestedRange;
+        }
+
+        int prefetchSize = prefetchPages * pageSize;
+        if (direction >= 0) {
+            return Range.between(requestedRange.getStart(),
+                    requestedRange.getEnd() + prefetchSize);
+        }
+        return Range.between(
+                Math.max(0, requestedRange.getStart() - prefetchSize),
+                requestedRange.getEnd());
+    }
+
+    /**
+     * Checks whether the item count and the items that the next flush needs
+     * have been fetched in the background.
+     */
+    private boolean isFetchedDataAvailable() {
+        int size;
+        if (resendEntireRange) {
+            if (fetchedSize == null) {
+                return false;
+            }
+            size = fetchedSize.intValue();
+        } else {
+            size = assumedSize;
+        }
+
+        Range previousActive = Range.withLength(activeStart,
+                activeKeyOrder.size());
+        Range effectiveRequested = requestedRange
+                .restrictTo(Range.withLength(0, size));
+
+        if (resendEntireRange
+                || !previousActive.intersects(effectiveRequested)) {
+            return effectiveRequested.isEmpty()
+                    || effectiveRequested.isSubsetOf(fetchedRange);
+        }
+        Range[] partition = effectiveRequested.partitionWith(previousActive);
+        return (partition[0].isEmpty() || partition[0].isSubsetOf(fetchedRange))
+                && (partition[2].isEmpty()
+                        || partition[2].isSubsetOf(fetchedRange));
+    }
+
+    /**
+     * Fetches the item count, if needed, and the items in the requested range
+     * using the fetch executor. Once done, the results are stored and a new
+     * flush is requested while holding the session lock. Results of a fetch
+     * that was started before the latest {@link #reset()} are discarded. If
+     * the executor rejects the fetch, the items are fetched right away
+     * instead.
+     *
+     * @return <code>true</code> if the items were fetched right away,
+     *         <code>false</code> if they are being fetched in the background
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private boolean fetchInBackground() {
+        if (fetchInProgress) {
+            // The results of the ongoing fetch will trigger a new flush
+            return false;
+        }
+
+        int generation = fetchGeneration;
+        UI ui = ((StateTree) stateNode.getOwner()).getUI();
+        DataProvider<T, ?> provider = getDataProvider();
+        Object queryFilter = filter;
+        List<QuerySortOrder> sortOrders = new ArrayList<>(backEndSorting);
+        SerializableComparator<T> comparator = inMemorySorting;
+        boolean fetchSize = resendEntireRange;
+        int knownSize = assumedSize;
+        Range requested = getRangeToFetch();
+
+        Supplier<FetchResult<T>> fetch = () -> {
+            int size = fetchSize ? provider.size(new Query(queryFilter))
+                    : knownSize;
+            Range range = requested.restrictTo(Range.withLength(0, size));
+            List<T> items = Collections.emptyList();
+            if (!range.isEmpty()) {
+                items = fetchFromProvider(provider,
+                        new QueryTrace<>(range.getStart(), range.length(),
+                                sortOrders, comparator, queryFilter),
+                        range.length()).collect(Collectors.toList());
+            }
+            return new FetchResult<>(fetchSize ? Integer.valueOf(size) : null,
+                    range, items);
+        };
+
+        fetchInProgress = true;
+        CompletableFuture<FetchResult<T>> future;
+        try {
+            future = CompletableFuture.supplyAsync(fetch, fetchExecutor);
+        } catch (RejectedExecutionException e) {
+            fetchInProgress = false;
+            LoggerFactory.getLogger(DataCommunicator.class).warn(
+                    "The fetch executor rejected fetching items, fetching them while holding the session lock",
+                    e);
+            storeFetchResult(fetch.get());
+            return true;
+        }
+
+        future.whenComplete((result, error) -> ui.access(() -> {
+            if (generation != fetchGeneration) {
+                return;
+            }
+            fetchInProgress = false;
+            if (error != null) {
+                throw new IllegalStateException(
+                        "Fetching items from the data provider failed",
+                        error);
+            }
+            storeFetchResult(result);
+            requestFlush();
+        }));
+        return false;
+    }
+
+    private void storeFetchResult(FetchResult<T> result) {
+        if (result.size != null) {
+            fetchedSize = result.size;
+        }
+        fetchedRange = result.range;
+        fetchedItems = result.items;
+    }
+
+    private void clearFetchedItems() {
+        discardFetchedItems();
+        fetchedSize = null;
+    }
+
+    /**
+     * Discards the fetched items, including the results of any fetch that is
+     * in progress since they may contain outdated instances of the items.
+     */
+    private void discardFetchedItems() {
+        fetchGeneration++;
+        fetchInProgress = false;
+        fetchedRange = Range.withLength(0, 0);
+        fetchedItems = Collections.emptyList();
+    }
+
+    private PageCache<T> getPageCache() {
+        if (pageCache == null) {
+            pageCache = new PageCache<>(pageCacheSize);
+        }
+        return pageCache;
+    }
+
+    private void clearPageCache() {
+        if (pageCache != null) {
+            pageCache.clear();
+        }
+    }
+
     private JsonValue generateJson(T item) {
         JsonObject json = Json.createObject();
         json.put("key", getKeyMapper().key(item));
@@ -15,10 +15,13 @@
  */
 package com.vaadin.flow.data.provider;
 
+import java.io.Serializable;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import com.vaadin.flow.function.SerializableComparator;
@@ -40,12 +43,64 @@ public class ListDataProvider<T>
 
     private final Collection<T> backend;
 
+    private transient volatile MaterializedView<T> materializedView;
+
+    /**
+     * The filtered and sorted items of the latest query. Instances are
+     * immutable so that a data provider shared between sessions can replace
+     * the view without locking.
+     */
+    private static final class MaterializedView<T> implements Serializable {
+        private final Object queryFilter;
+        private final Comparator<T> inMemorySorting;
+        private final Object[] backendItems;
+        private final List<T> items;
+
+        private MaterializedView(Object queryFilter,
+                Comparator<T> inMemorySorting, Object[] backendItems,
+                List<T> items) {
+            this.queryFilter = queryFilter;
+            this.inMemorySorting = inMemorySorting;
+            this.backendItems = backendItems;
+            this.items = items;
+        }
+
+        /**
+         * Checks whether the backing collection still contains the same
+         * item instances in the same order as when the view was created.
+         * This only compares references, which is much cheaper than filtering
+         * and sorting the items again.
+         */
+        private boolean hasSameItems(Collection<?> backend) {
+            if (backend.size() != backendItems.length) {
+                return false;
+            }
+            int index = 0;
+            for (Object item : backend) {
+                if (index >= backendItems.length
+                        || item != backendItems[index++]) {
+                    return false;
+                }
+            }
+            return index == backendItems.length;
+        }
+    }
+
     /**
      * Constructs a new ListDataProvider.
      * <p>
      * No protective copy is made of the list, and changes in the provided
      * backing Collection will be visible via this data provider. The caller
      * should copy the list if necessary.
+     * <p>
+     * The filtered and sorted items of the latest query are kept in memory so
+     * that subsequent pages and size queries do not need to filter and sort the
+     * whole collection again. Items that are added to, removed from or
+     * replaced in the backing collection are detected by comparing the item
+     * instances to those of the latest query. Changes to the properties of an
+     * item are not detected, so {@link #refreshItem(Object)} or
+     * {@link #refreshAll()} must be called when an item is changed in a way
+     * that affects filtering or sorting.
      *
      * @param items
      *            the initial data, not null
@@ -67,28 +122,74 @@ public class ListDataProvider<T>
 
     @Override
     public Stream<T> fetch(Query<T, SerializablePredicate<T>> query) {
-        Stream<T> stream = getFilteredStream(query);
+        List<T> items = getMaterializedView(query, true).items;
+
+        int from = Math.min(query.getOffset(), items.size());
+        int to = (int) Math.min((long) from + query.getLimit(),
+                items.size());
+        return items.subList(from, to).stream();
+    }
+
+    @Override
+    public int size(Query<T, SerializablePredicate<T>> query) {
+        return getMaterializedView(query, false).items.size();
+    }
+
+    @Override
+    public void refreshAll() {
+        materializedView = null;
+        super.refreshAll();
+    }
+
+    @Override
+    public void refreshItem(T item) {
+        // The item may now be sorted differently or no longer pass the filter
+        materializedView = null;
+        super.refreshItem(item);
+    }
+
+    /**
+     * Gets the filtered and sorted items for the given query, reusing the
+     * items materialized for the previous query if the query has the same
+     * filter and in-memory sorting. A size query can reuse the items of any
+     * query with the same filter since the sorting does not affect the count.
+     */
+    private MaterializedView<T> getMaterializedView(
+            Query<T, SerializablePredicate<T>> query, boolean sorted) {
+        Object queryFilter = query.getFilter().orElse(null);
+        Comparator<T> inMemorySorting = sorted ? query.getInMemorySorting()
+                : null;
+
+        MaterializedView<T> view = materializedView;
+        if (view != null && Objects.equals(view.queryFilter, queryFilter)
+                && (!sorted || view.inMemorySorting == inMemorySorting)
+                && view.hasSameItems(backend)) {
+            return view;
+        }
+
+        // Filter the same items that are compared by later queries
+        Object[] backendItems = backend.toArray();
+        @SuppressWarnings("unchecked")
+        Stream<T> stream = getFilteredStream(
+                Stream.of(backendItems).map(item -> (T) item), query);
 
         Optional<Comparator<T>> comparing = Stream
-                .of(query.getInMemorySorting(), sortOrder)
-                .filter(Objects::nonNull)
+                .of(inMemorySorting, sortOrder).filter(Objects::nonNull)
                 .reduce((c1, c2) -> c1.thenComparing(c2));
 
         if (comparing.isPresent()) {
             stream = stream.sorted(comparing.get());
         }
 
-        return stream.skip(query.getOffset()).limit(query.getLimit());
-    }
-
-    @Override
-    public int size(Query<T, SerializablePredicate<T>> query) {
-        return (int) getFilteredStream(query).count();
+        view = new MaterializedView<>(queryFilter, inMemorySorting,
+                backendItems, stream.collect(Collectors.toList()));
+        materializedView = view;
+        return view;
     }
 
-    private Stream<T> getFilteredStream(
+    private Stream<T> getFilteredStream(Stream<T> items,
             Query<T, SerializablePredicate<T>> query) {
-        Stream<T> stream = backend.stream();
+        Stream<T> stream = items;
 
         // Apply our own filters first so that query filters never see the items
         // that would already have been filtered out
@@ -21,6 +21,7 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashSet;
@@ -283,4 +284,74 @@ public class BeanPropertySetTest {
                 "father.son", propertySet.getProperty("father.son.father").get()
                         .getParent().getName());
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void getterAndSetter_primitiveProperty_valueReadAndWritten() {
+        PropertyDefinition<Counter, Integer> count = (PropertyDefinition<Counter, Integer>) BeanPropertySet
+                .get(Counter.class).getProperty("count").get();
+        Counter counter = new Counter();
+
+        count.getSetter().get().accept(counter, 42);
+
+        Assert.assertEquals(42, counter.getCount());
+        Assert.assertEquals(Integer.valueOf(42),
+                count.getGetter().apply(counter));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    @SuppressWarnings("unchecked")
+    public void setter_nullForPrimitiveProperty_throws() {
+        PropertyDefinition<Counter, Integer> count = (PropertyDefinition<Counter, Integer>) BeanPropertySet
+                .get(Counter.class).getProperty("count").get();
+
+        count.getSetter().get().accept(new Counter(), null);
+    }
+
+    @Test
+    public void getter_throws_exceptionWrapped() {
+        PropertyDefinition<Counter, ?> broken = BeanPropertySet
+                .get(Counter.class).getProperty("broken").get();
+
+        try {
+            broken.getGetter().apply(new Counter());
+            Assert.fail();
+        } catch (RuntimeException e) {
+            Assert.assertTrue(
+                    e.getCause() instanceof InvocationTargetException);
+            Assert.assertTrue(e.getCause()
+                    .getCause() instanceof UnsupportedOperationException);
+        }
+    }
+
+    @Test
+    public void testSerializeDeserialize_propertyDefinitionUsed()
+            throws Exception {
+        PropertyDefinition<Person, ?> definition = BeanPropertySet
+                .get(Person.class).getProperty("born").get();
+        Assert.assertEquals(1990,
+                definition.getGetter().apply(new Person("Jon", 1990)));
+
+        PropertyDefinition<Person, ?> deserialized = ClassesSerializableUtils
+                .serializeAndDeserialize(definition);
+
+        Assert.assertEquals(1990,
+                deserialized.getGetter().apply(new Person("Jon", 1990)));
+    }
+
+    public static class Counter implements Serializable {
+        private int count;
+
+        public int getCount() {
+            return count;
+        }
+
+        public void setCount(int count) {
+            this.count = count;
+        }
+
+        public String getBroken() {
+            throw new UnsupportedOperationException();
+        }
+    }
 }
@@ -17,6 +17,9 @@ package com.vaadin.flow.data.provider;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.IntStream;
@@ -35,6 +38,7 @@ import org.mockito.MockitoAnnotations;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.dom.Element;
 import com.vaadin.flow.internal.Range;
+import com.vaadin.flow.server.Command;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
@@ -259,6 +263,238 @@ public class DataCommunicatorTest {
         });
     }
 
+    @Test
+    public void pageCache_scrollBack_itemsNotFetchedAgain() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        dataCommunicator.setDataProvider(createDataProvider(1000, queries),
+                null);
+        dataCommunicator.setPageCacheSize(10);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+        dataCommunicator.setRequestedRange(500, 50);
+        fakeClientCommunication();
+        Assert.assertEquals(2, queries.size());
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(2, queries.size());
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+    }
+
+    @Test
+    public void pageCache_rangeNotAlignedWithPages_fullPagesFetched() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        dataCommunicator.setDataProvider(createDataProvider(1000, queries),
+                null);
+        dataCommunicator.setPageCacheSize(10);
+
+        dataCommunicator.setRequestedRange(30, 40);
+        fakeClientCommunication();
+
+        Assert.assertEquals(1, queries.size());
+        Assert.assertEquals(0, queries.get(0).getOffset());
+        Assert.assertEquals(100, queries.get(0).getLimit());
+        Assert.assertEquals(Range.withLength(30, 40), lastSet);
+        Assert.assertEquals("30",
+                dataCommunicator.getKeyMapper().get("1"));
+    }
+
+    @Test
+    public void pageCache_dataProviderRefreshed_itemsFetchedAgain() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        AbstractDataProvider<String, Object> dataProvider = createDataProvider(
+                1000, queries);
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setPageCacheSize(10);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+        dataProvider.refreshAll();
+        fakeClientCommunication();
+
+        Assert.assertEquals(2, queries.size());
+    }
+
+    @Test
+    public void prefetch_scrollDown_nextPageFetchedAhead() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        dataCommunicator.setDataProvider(createDataProvider(1000, queries),
+                null);
+        dataCommunicator.setPageCacheSize(10);
+        dataCommunicator.setPrefetchPages(1);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(2, queries.size());
+        Assert.assertEquals(50, queries.get(1).getOffset());
+
+        dataCommunicator.setRequestedRange(50, 50);
+        fakeClientCommunication();
+
+        // Page 1 was prefetched, page 2 is prefetched now
+        Assert.assertEquals(3, queries.size());
+        Assert.assertEquals(100, queries.get(2).getOffset());
+    }
+
+    @Test
+    public void prefetch_scrollUp_previousPageFetchedAhead() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        dataCommunicator.setDataProvider(createDataProvider(1000, queries),
+                null);
+        dataCommunicator.setPageCacheSize(10);
+        dataCommunicator.setPrefetchPages(1);
+
+        dataCommunicator.setRequestedRange(500, 50);
+        fakeClientCommunication();
+        queries.clear();
+
+        dataCommunicator.setRequestedRange(450, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(2, queries.size());
+        Assert.assertEquals(450, queries.get(0).getOffset());
+        Assert.assertEquals(400, queries.get(1).getOffset());
+    }
+
+    @Test
+    public void fetchExecutor_itemsSentWhenFetched() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+        dataCommunicator.setDataProvider(createDataProvider(1000, queries),
+                null);
+        dataCommunicator.setFetchExecutor(tasks::add);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertNull(lastSet);
+        Assert.assertTrue(queries.isEmpty());
+        Assert.assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(1, queries.size());
+        Assert.assertTrue(tasks.isEmpty());
+
+        dataCommunicator.setRequestedRange(50, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(50, 50), lastSet);
+        Assert.assertEquals(50, queries.get(1).getOffset());
+    }
+
+    @Test
+    public void fetchExecutor_prefetch_nextPageFetchedInBackground() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+        dataCommunicator.setDataProvider(createDataProvider(1000, queries),
+                null);
+        dataCommunicator.setFetchExecutor(tasks::add);
+        dataCommunicator.setPrefetchPages(1);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertTrue(queries.isEmpty());
+        tasks.remove(0).run();
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(1, queries.size());
+        Assert.assertEquals(100, queries.get(0).getLimit());
+
+        // The next page is available without fetching
+        dataCommunicator.setRequestedRange(50, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(50, 50), lastSet);
+        Assert.assertTrue(tasks.isEmpty());
+        Assert.assertEquals(1, queries.size());
+    }
+
+    @Test
+    public void fetchExecutor_taskRejected_itemsFetchedRightAway() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        dataCommunicator.setDataProvider(createDataProvider(1000, queries),
+                null);
+        dataCommunicator.setFetchExecutor(task -> {
+            throw new RejectedExecutionException();
+        });
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(1, queries.size());
+
+        dataCommunicator.setRequestedRange(50, 50);
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(50, 50), lastSet);
+        Assert.assertEquals(2, queries.size());
+    }
+
+    @Test
+    public void fetchExecutor_resetWhileFetching_resultsDiscarded() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+        AbstractDataProvider<String, Object> dataProvider = createDataProvider(
+                1000, queries);
+        dataCommunicator.setDataProvider(dataProvider, null);
+        dataCommunicator.setFetchExecutor(tasks::add);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+        dataProvider.refreshAll();
+
+        tasks.remove(0).run();
+        fakeClientCommunication();
+
+        Assert.assertNull(lastSet);
+        Assert.assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+    }
+
+    @Test
+    public void fetchExecutor_itemRefreshedWhileFetching_resultsDiscarded() {
+        List<Query<String, Object>> queries = new ArrayList<>();
+        List<Runnable> tasks = new ArrayList<>();
+        dataCommunicator.setDataProvider(createDataProvider(1000, queries),
+                null);
+        dataCommunicator.setFetchExecutor(tasks::add);
+
+        dataCommunicator.setRequestedRange(0, 50);
+        fakeClientCommunication();
+        dataCommunicator.refresh("0");
+
+        tasks.remove(0).run();
+        fakeClientCommunication();
+
+        Assert.assertNull(lastSet);
+        Assert.assertEquals(1, tasks.size());
+
+        tasks.remove(0).run();
+        fakeClientCommunication();
+
+        Assert.assertEquals(Range.withLength(0, 50), lastSet);
+        Assert.assertEquals(2, queries.size());
+    }
+
     private void fakeClientCommunication() {
         ui.getInternals().getStateTree().runExecutionsBeforeClientResponse();
         ui.getInternals().getStateTree().collectChanges(ignore -> {
@@ -287,6 +523,31 @@ public class DataCommunicatorTest {
         };
     }
 
+    private AbstractDataProvider<String, Object> createDataProvider(int size,
+            List<Query<String, Object>> queries) {
+        return new AbstractDataProvider<String, Object>() {
+            @Override
+            public boolean isInMemory() {
+                return false;
+            }
+
+            @Override
+            public int size(Query<String, Object> query) {
+                return size;
+            }
+
+            @Override
+            public Stream<String> fetch(Query<String, Object> query) {
+                queries.add(query);
+                return IntStream
+                        .range(query.getOffset(),
+                                Math.min(size,
+                                        query.getOffset() + query.getLimit()))
+                        .mapToObj(Integer::toString);
+            }
+        };
+    }
+
     public static class MockUI extends UI {
 
         public MockUI() {
@@ -303,6 +564,12 @@ public class DataCommunicatorTest {
             // Do nothing
         }
 
+        @Override
+        public Future<Void> access(Command command) {
+            command.execute();
+            return CompletableFuture.completedFuture(null);
+        }
+
         private static VaadinSession findOrcreateSession() {
             VaadinSession session = VaadinSession.getCurrent();
             if (session == null) {
@@ -232,6 +232,81 @@ public class ListDataProviderTest
         assertSizeWithFilter(0, filteringBy, "oo");
     }
 
+    @Test
+    public void fetch_pagesOfSortedItems_sameAsFullFetch() {
+        ListDataProvider<StrBean> provider = getDataProvider();
+        provider.setSortOrder(StrBean::getRandomNumber,
+                SortDirection.ASCENDING);
+
+        List<StrBean> all = provider.fetch(new Query<>())
+                .collect(Collectors.toList());
+        List<StrBean> pages = provider.fetch(new Query<>(0, 40, null, null,
+                null)).collect(Collectors.toList());
+        pages.addAll(provider.fetch(new Query<>(40, 40, null, null, null))
+                .collect(Collectors.toList()));
+        pages.addAll(provider.fetch(new Query<>(80, 40, null, null, null))
+                .collect(Collectors.toList()));
+
+        Assert.assertEquals(100, provider.size(new Query<>()));
+        Assert.assertEquals(all, pages);
+    }
+
+    @Test
+    public void size_itemAddedToBackend_newItemCounted() {
+        ListDataProvider<StrBean> provider = getDataProvider();
+        Assert.assertEquals(100, provider.size(new Query<>()));
+
+        data.add(new StrBean("Bar", 100, 0));
+
+        Assert.assertEquals(101, provider.size(new Query<>()));
+    }
+
+    @Test
+    public void fetch_itemReplacedInBackend_newItemReturned() {
+        ListDataProvider<StrBean> provider = getDataProvider();
+        provider.setSortOrder(StrBean::getValue, SortDirection.ASCENDING);
+        StrBean first = provider.fetch(new Query<>()).findFirst().get();
+
+        StrBean replacement = new StrBean("", 100, 0);
+        data.set(data.indexOf(first), replacement);
+
+        Assert.assertEquals(100, provider.size(new Query<>()));
+        List<StrBean> items = provider.fetch(new Query<>())
+                .collect(Collectors.toList());
+        Assert.assertSame(replacement, items.get(0));
+        Assert.assertFalse(items.contains(first));
+    }
+
+    @Test
+    public void fetch_itemRemovedAndAnotherAdded_newItemReturned() {
+        ListDataProvider<StrBean> provider = getDataProvider();
+        StrBean removed = provider.fetch(new Query<>()).findFirst().get();
+
+        data.remove(removed);
+        StrBean added = new StrBean("Bar", 100, 0);
+        data.add(added);
+
+        List<StrBean> items = provider.fetch(new Query<>())
+                .collect(Collectors.toList());
+        Assert.assertEquals(100, items.size());
+        Assert.assertFalse(items.contains(removed));
+        Assert.assertTrue(items.contains(added));
+    }
+
+    @Test
+    public void fetch_itemModifiedAndRefreshed_itemSortedAgain() {
+        ListDataProvider<StrBean> provider = getDataProvider();
+        provider.setSortOrder(StrBean::getValue, SortDirection.ASCENDING);
+
+        StrBean last = provider.fetch(new Query<>()).reduce((a, b) -> b)
+                .get();
+        last.setValue("");
+        provider.refreshItem(last);
+
+        Assert.assertSame(last,
+                provider.fetch(new Query<>()).findFirst().get());
+    }
+
     @Override
     protected void setSortOrder(List<QuerySortOrder> sortOrder,
             Comparator<StrBean> comp) {
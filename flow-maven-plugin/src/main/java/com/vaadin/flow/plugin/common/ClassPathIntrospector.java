@@ -84,6 +84,19 @@ public abstract class ClassPathIntrospector {
                 annotatedByRepeatedAnnotation.stream());
     }
 
+    /**
+     * Gets the classes that extend or implement the given
+     * {@code typeInProjectContext} type.
+     *
+     * @param typeInProjectContext
+     *            the class or interface
+     * @return all subtypes of the given type
+     */
+    protected Stream<Class<?>> getSubtypes(Class<?> typeInProjectContext) {
+        return reflections.getSubTypesOf(typeInProjectContext).stream()
+                .map(type -> (Class<?>) type);
+    }
+
     /**
      * Returns the annotation class by its FQN.
      * <p>
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.plugin.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.apache.commons.io.FileUtils;
+
+import com.vaadin.flow.server.startup.StartupClassIndex;
+
+/**
+ * Generates the class index read by {@link StartupClassIndex}, containing the
+ * classes the Flow servlet container initializers handle.
+ *
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public class StartupClassIndexWriter extends ClassPathIntrospector {
+
+    // Referenced by name, the servlet API is not available for the plugin
+    private static final List<String> INDEXED_INITIALIZERS = Arrays.asList(
+            "com.vaadin.flow.server.startup.RouteRegistryInitializer",
+            "com.vaadin.flow.server.startup.ErrorNavigationTargetInitializer",
+            "com.vaadin.flow.server.startup.AnnotationValidator");
+
+    private static final String HANDLES_TYPES = "javax.servlet.annotation.HandlesTypes";
+
+    /**
+     * Prepares the class to index the project classes specified.
+     *
+     * @param projectClassesLocations
+     *            urls to project class locations (directories, jars etc.),
+     *            including the servlet API
+     */
+    public StartupClassIndexWriter(URL... projectClassesLocations) {
+        super(projectClassesLocations);
+    }
+
+    /**
+     * Collects the names of the classes for each type handled by the Flow
+     * servlet container initializers.
+     *
+     * @return a map from handled type names to the names of the classes
+     *         annotated with or extending that type, sorted by name
+     * @throws IllegalStateException
+     *             if the initializers cannot be loaded for the project classes
+     */
+    public Map<String, Set<String>> collectIndex() {
+        Class<? extends Annotation> handlesTypes = loadClassInProjectClassLoader(
+                HANDLES_TYPES);
+        return INDEXED_INITIALIZERS.stream()
+                .map(this::loadClassInProjectClassLoader)
+                .map(initializer -> initializer.getAnnotation(handlesTypes))
+                .map(annotation -> (Class<?>[]) doInvokeAnnotationMethod(
+                        annotation, "value"))
+                .flatMap(Stream::of).distinct()
+                .collect(Collectors.toMap(Class::getName,
+                        this::getHandledClassNames, (a, b) -> a,
+                        TreeMap::new));
+    }
+
+    /**
+     * Writes the index into the {@link StartupClassIndex#INDEX_RESOURCE} file
+     * in the given directory.
+     *
+     * @param outputDirectory
+     *            the class output directory of the project, not {@code null}
+     * @throws UncheckedIOException
+     *             if writing the index fails
+     */
+    public void writeIndex(File outputDirectory) {
+        String content = collectIndex().entrySet().stream()
+                .map(entry -> entry.getKey() + '='
+                        + String.join(",", entry.getValue()))
+                .collect(Collectors.joining("\n", "", "\n"));
+        File indexFile = new File(outputDirectory,
+                StartupClassIndex.INDEX_RESOURCE);
+        try {
+            FileUtils.write(indexFile, content, StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(String.format(
+                    "Failed to write the class index to '%s'", indexFile), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> getHandledClassNames(Class<?> handledType) {
+        Stream<Class<?>> classes;
+        if (handledType.isAnnotation()) {
+            classes = getAnnotatedClasses(
+                    (Class<? extends Annotation>) handledType);
+        } else {
+            classes = getSubtypes(handledType);
+        }
+        return classes.map(Class::getName)
+                .collect(Collectors.toCollection(TreeSet::new));
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.plugin.maven;
+
+import java.io.File;
+import java.net.URL;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+
+import com.vaadin.flow.plugin.common.FlowPluginFileUtils;
+import com.vaadin.flow.plugin.common.StartupClassIndexWriter;
+
+/**
+ * Goal that generates an index of the routes, error navigation targets and
+ * validated annotations of the project, which the servlet container
+ * initializers use in addition to the classes found by the container's class
+ * path scanning, so that the scanning can be disabled.
+ * <p>
+ * The index is not updated when classes are changed without running the goal,
+ * so it should only be generated for production builds.
+ */
+@Mojo(name = "generate-startup-class-index", requiresDependencyResolution = ResolutionScope.COMPILE_PLUS_RUNTIME, defaultPhase = LifecyclePhase.PROCESS_CLASSES)
+public class GenerateStartupClassIndexMojo extends AbstractMojo {
+
+    /**
+     * Directory where the index is written. The default is
+     * <code>${project.build.outputDirectory}</code>.
+     */
+    @Parameter(name = "indexOutputDirectory", defaultValue = "${project.build.outputDirectory}", required = true)
+    private File indexOutputDirectory;
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    @Override
+    public void execute() {
+        new StartupClassIndexWriter(getProjectClassPathUrls())
+                .writeIndex(indexOutputDirectory);
+    }
+
+    private URL[] getProjectClassPathUrls() {
+        // Compile class path includes the provided servlet API
+        Set<String> classpathElements = new LinkedHashSet<>();
+        try {
+            classpathElements.addAll(project.getCompileClasspathElements());
+            classpathElements.addAll(project.getRuntimeClasspathElements());
+        } catch (DependencyResolutionRequiredException e) {
+            throw new IllegalStateException(String.format(
+                    "Failed to retrieve classpath elements from project '%s'",
+                    project), e);
+        }
+        return classpathElements.stream().map(File::new)
+                .map(FlowPluginFileUtils::convertToUrl).toArray(URL[]::new);
+    }
+}
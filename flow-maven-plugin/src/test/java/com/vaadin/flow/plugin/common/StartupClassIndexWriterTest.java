@@ -0,0 +1,106 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.plugin.common;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.servlet.annotation.HandlesTypes;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.router.HasErrorParameter;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.router.RouteAlias;
+import com.vaadin.flow.router.RouteNotFoundError;
+import com.vaadin.flow.server.startup.StartupClassIndex;
+
+/**
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public class StartupClassIndexWriterTest {
+
+    @Route("foo")
+    @Tag(Tag.DIV)
+    public static class FooView extends Component {
+    }
+
+    @Route("bar")
+    @RouteAlias("baz")
+    @Tag(Tag.DIV)
+    public static class BarView extends Component {
+    }
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final StartupClassIndexWriter writer = new StartupClassIndexWriter(
+            getLocation(HandlesTypes.class),
+            getLocation(StartupClassIndex.class),
+            getLocation(StartupClassIndexWriterTest.class));
+
+    @Test
+    public void collectIndex_allHandledTypesIndexed() {
+        Map<String, Set<String>> index = writer.collectIndex();
+
+        Assert.assertTrue(index.get(Route.class.getName())
+                .contains(FooView.class.getName()));
+        Assert.assertTrue(index.get(Route.class.getName())
+                .contains(BarView.class.getName()));
+        Assert.assertTrue(index.get(RouteAlias.class.getName())
+                .contains(BarView.class.getName()));
+        Assert.assertFalse(index.get(RouteAlias.class.getName())
+                .contains(FooView.class.getName()));
+        Assert.assertTrue(index.get(HasErrorParameter.class.getName())
+                .contains(RouteNotFoundError.class.getName()));
+    }
+
+    @Test
+    public void writeIndex_indexWrittenAsProperties() throws IOException {
+        File outputDirectory = temporaryFolder.getRoot();
+
+        writer.writeIndex(outputDirectory);
+
+        Properties written = new Properties();
+        try (Reader reader = Files.newBufferedReader(
+                new File(outputDirectory, StartupClassIndex.INDEX_RESOURCE)
+                        .toPath(),
+                StandardCharsets.UTF_8)) {
+            written.load(reader);
+        }
+        Map<String, Set<String>> index = writer.collectIndex();
+        Assert.assertEquals(index.keySet(), written.stringPropertyNames());
+        index.forEach((type, classNames) -> Assert.assertEquals(
+                String.join(",", classNames), written.getProperty(type)));
+    }
+
+    private static URL getLocation(Class<?> type) {
+        return type.getProtectionDomain().getCodeSource().getLocation();
+    }
+}
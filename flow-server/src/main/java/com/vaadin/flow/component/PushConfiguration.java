@@ -210,7 +210,7 @@ class PushConfigurationImpl implements PushConfiguration {
                     "Cannot set the push mode for a detached UI");
         }
 
-        session.checkHasLock();
+        session.checkHasLock(ui);
 
         if (pushMode.isEnabled()
                 && !session.getService().ensurePushAvailable()) {
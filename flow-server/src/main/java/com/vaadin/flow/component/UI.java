@@ -379,7 +379,7 @@ public class UI extends Component
 
         VaadinService.verifyNoOtherSessionLocked(session);
 
-        session.lock();
+        session.lockUI(this);
         try {
             if (getSession() == null) {
                 // UI was detached after fetching the session but before we
@@ -389,7 +389,7 @@ public class UI extends Component
             old = CurrentInstance.setCurrent(this);
             command.execute();
         } finally {
-            session.unlock();
+            session.unlockUI(this);
             if (old != null) {
                 CurrentInstance.restoreInstances(old);
             }
@@ -447,7 +447,7 @@ public class UI extends Component
             throw new UIDetachedException();
         }
 
-        return session.access(new ErrorHandlingCommand() {
+        return session.getService().accessUI(this, new ErrorHandlingCommand() {
             @Override
             public void execute() {
                 accessSynchronously(command);
@@ -539,7 +539,7 @@ public class UI extends Component
         if (session == null) {
             throw new UIDetachedException("Cannot push a detached UI");
         }
-        session.checkHasLock();
+        session.checkHasLock(this);
 
         if (!getPushConfiguration().getPushMode().isEnabled()) {
             throw new IllegalStateException("Push not enabled");
@@ -15,6 +15,8 @@
  */
 package com.vaadin.flow.component.internal;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -23,6 +25,9 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -62,6 +67,7 @@ import com.vaadin.flow.router.BeforeLeaveEvent.ContinueNavigationAction;
 import com.vaadin.flow.router.internal.AfterNavigationHandler;
 import com.vaadin.flow.router.internal.BeforeEnterHandler;
 import com.vaadin.flow.router.internal.BeforeLeaveHandler;
+import com.vaadin.flow.server.FutureAccess;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.WebBrowser;
@@ -131,6 +137,14 @@ public class UIInternals implements Serializable {
 
     private int serverSyncId = 0;
 
+    private boolean resynchronizationPending;
+
+    /**
+     * Whether the UI has been modified since it was last included in a
+     * session delta.
+     */
+    private boolean modified = true;
+
     private final StateTree stateTree;
 
     private PushConnection pushConnection = null;
@@ -182,6 +196,18 @@ public class UIInternals implements Serializable {
 
     private String appId;
 
+    /**
+     * Lock used for the UI when UI locking is enabled for the session.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /*
+     * Pending tasks can't be serialized and the queue should be empty when the
+     * UI is serialized as long as it doesn't happen while some other thread
+     * has the lock.
+     */
+    private transient ConcurrentLinkedQueue<FutureAccess> pendingAccessQueue = new ConcurrentLinkedQueue<>();
+
     /**
      * Creates a new instance for the given UI.
      *
@@ -244,6 +270,7 @@ public class UIInternals implements Serializable {
             byte[] lastProcessedMessageHash) {
         this.lastProcessedClientToServerId = lastProcessedClientToServerId;
         this.lastProcessedMessageHash = lastProcessedMessageHash;
+        modified = true;
     }
 
     /**
@@ -273,6 +300,69 @@ public class UIInternals implements Serializable {
      */
     public void incrementServerId() {
         serverSyncId++;
+        modified = true;
+    }
+
+    /**
+     * Requests a full resynchronization of the client side. The next response
+     * to the client will contain the complete state tree, and the client will
+     * discard its current state before applying it.
+     * <p>
+     * Used internally for communication tracking.
+     */
+    public void requestResynchronization() {
+        stateTree.prepareForResync();
+        // A response with constants may have been lost
+        constantPool.discardPendingDeliveries();
+        resynchronizationPending = true;
+    }
+
+    /**
+     * Checks whether a resynchronization has been requested since the last
+     * time this method was called, and clears the request. A resynchronization
+     * is also requested if the state tree has been deserialized with changes
+     * that had not yet been sent to the client.
+     * <p>
+     * Used internally for communication tracking.
+     *
+     * @return <code>true</code> if the next response should resynchronize the
+     *         client, <code>false</code> otherwise
+     */
+    public boolean clearResynchronizationRequest() {
+        if (stateTree.isResyncRequired()) {
+            requestResynchronization();
+        }
+        boolean pending = resynchronizationPending;
+        resynchronizationPending = false;
+        return pending;
+    }
+
+    /**
+     * Marks the UI as modified so that it is included in the next session
+     * delta. Changes to the state tree and to the communication state of the
+     * UI are tracked automatically, so this only needs to be called when
+     * other state of the UI, such as a field of a component, is changed
+     * without changing the state tree.
+     *
+     * @see VaadinSession#collectDelta()
+     */
+    public void markAsModified() {
+        modified = true;
+    }
+
+    /**
+     * Checks whether the UI has been modified since the last time this method
+     * was called, and clears the modification flag.
+     * <p>
+     * Used internally for session replication.
+     *
+     * @return <code>true</code> if the UI has been modified,
+     *         <code>false</code> otherwise
+     */
+    public boolean clearModified() {
+        boolean wasModified = modified;
+        modified = false;
+        return wasModified;
     }
 
     /**
@@ -306,6 +396,7 @@ public class UIInternals implements Serializable {
      */
     public void setLastHeartbeatTimestamp(long lastHeartbeat) {
         lastHeartbeatTimestamp = lastHeartbeat;
+        modified = true;
     }
 
     @SuppressWarnings("unchecked")
@@ -463,7 +554,7 @@ public class UIInternals implements Serializable {
 
     private <E> Registration addNavigationListener(Class<E> navigationHandler,
             E listener) {
-        session.checkHasLock();
+        session.checkHasLock(ui);
         List<E> list = (List<E>) listeners.computeIfAbsent(navigationHandler,
                 key -> new ArrayList<>());
         list.add(listener);
@@ -510,7 +601,7 @@ public class UIInternals implements Serializable {
      */
     public ExecutionCanceler addJavaScriptInvocation(
             JavaScriptInvocation invocation) {
-        session.checkHasLock();
+        session.checkHasLock(ui);
         pendingJsInvocations.add(invocation);
         return () -> pendingJsInvocations.remove(invocation);
     }
@@ -947,4 +1038,38 @@ public class UIInternals implements Serializable {
     public UI getUI() {
         return ui;
     }
+
+    /**
+     * Gets the lock used for the UI when UI locking is enabled for the
+     * session.
+     * <p>
+     * The lock should not be used directly, use
+     * {@link VaadinSession#lockUI(UI)} and {@link VaadinSession#unlockUI(UI)}
+     * instead.
+     *
+     * @return the UI lock, not <code>null</code>
+     * @see VaadinSession#isUILockingEnabled()
+     */
+    public ReentrantLock getLock() {
+        return lock;
+    }
+
+    /**
+     * Gets the queue of tasks submitted using
+     * {@link UI#access(com.vaadin.flow.server.Command)} when
+     * UI locking is enabled for the session. It is safe to call this method
+     * and access the returned queue without holding the lock.
+     *
+     * @return the queue of pending access tasks
+     * @see VaadinSession#isUILockingEnabled()
+     */
+    public Queue<FutureAccess> getPendingAccessQueue() {
+        return pendingAccessQueue;
+    }
+
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        pendingAccessQueue = new ConcurrentLinkedQueue<>();
+    }
 }
@@ -282,4 +282,141 @@ public interface DeploymentConfiguration extends Serializable {
     default boolean useCompiledFrontendResources() {
         return isProductionMode() && !getBooleanProperty(Constants.USE_ORIGINAL_FRONTEND_RESOURCES, false);
     }
+
+    /**
+     * Determines if each UI in a session should be locked separately while
+     * handling UIDL requests and {@link com.vaadin.flow.component.UI#access}
+     * tasks, so that different UIs in the same session can be accessed
+     * concurrently. The whole session is still locked for all other purposes.
+     * <p>
+     * UI locking is disabled by default and can be enabled by setting the
+     * {@link Constants#UI_LOCKING} property to {@code true}.
+     *
+     * @return {@code true} if UIs should be locked separately, {@code false}
+     *         to lock the whole session
+     * @see com.vaadin.flow.server.VaadinSession#lockUI(com.vaadin.flow.component.UI)
+     */
+    default boolean isUILockingEnabled() {
+        return getBooleanProperty(Constants.UI_LOCKING, false);
+    }
+
+    /**
+     * Gets the maximum number of inline resource contents to cache. The
+     * contents are only cached in production mode, where the resources are
+     * not expected to change.
+     *
+     * @return the maximum number of cached inline resources
+     * @see com.vaadin.flow.server.InlineResourceCache
+     */
+    default int getInlineResourceCacheSize() {
+        return getApplicationOrSystemProperty(
+                Constants.INLINE_RESOURCE_CACHE_SIZE,
+                Constants.DEFAULT_INLINE_RESOURCE_CACHE_SIZE,
+                Integer::parseInt);
+    }
+
+    /**
+     * Gets the maximum number of bytes of static resources to cache in memory,
+     * including precompressed variants. The resources are only cached in
+     * production mode, where they are not expected to change.
+     * <p>
+     * The cache is disabled by default and can be enabled by setting the
+     * {@link Constants#STATIC_RESOURCE_CACHE_SIZE} property to a positive
+     * number.
+     *
+     * @return the maximum number of cached bytes, or <code>0</code> if
+     *         resources are not cached
+     * @see com.vaadin.flow.server.StaticResourceCache
+     */
+    default long getStaticResourceCacheSize() {
+        return getApplicationOrSystemProperty(
+                Constants.STATIC_RESOURCE_CACHE_SIZE, 0L, Long::parseLong);
+    }
+
+    /**
+     * Determines if constants such as event data expressions should be shared
+     * between all UIs of a session. The browser caches delivered constants in
+     * its local storage, so that UIs created later in the same session only
+     * need to receive the ids of the constants.
+     * <p>
+     * Sharing is disabled by default and can be enabled by setting the
+     * {@link Constants#SESSION_CONSTANT_POOL} property to {@code true}.
+     *
+     * @return {@code true} if constants should be shared in the session,
+     *         {@code false} otherwise
+     * @see com.vaadin.flow.internal.SessionConstantPool
+     */
+    default boolean isSessionConstantPoolEnabled() {
+        return getBooleanProperty(Constants.SESSION_CONSTANT_POOL, false);
+    }
+
+    /**
+     * Determines if state tree changes should be sent to the client as compact
+     * JSON arrays instead of JSON objects with named keys. The compact format
+     * uses positional items and integer change types, which makes responses
+     * with many changes considerably smaller.
+     * <p>
+     * The compact format is disabled by default and can be enabled by setting
+     * the {@link Constants#COMPACT_CHANGE_FORMAT} property to {@code true}.
+     *
+     * @return {@code true} if changes should be sent in the compact format,
+     *         {@code false} otherwise
+     * @see com.vaadin.flow.internal.change.NodeChange#toCompactJson(com.vaadin.flow.internal.ConstantPool)
+     */
+    default boolean isCompactChangeFormat() {
+        return getBooleanProperty(Constants.COMPACT_CHANGE_FORMAT, false);
+    }
+
+    /**
+     * Gets the minimum interval between automatic pushes of a UI. When the
+     * interval is positive, changes to UIs using
+     * {@link com.vaadin.flow.shared.communication.PushMode#AUTOMATIC} are
+     * collected and pushed at most once per interval instead of every time the
+     * session lock is released.
+     * <p>
+     * The interval is <code>0</code> by default and can be changed by setting
+     * the {@link Constants#PUSH_INTERVAL} property.
+     *
+     * @return the minimum push interval in milliseconds, or <code>0</code> to
+     *         push immediately
+     * @see com.vaadin.flow.server.communication.PushScheduler
+     */
+    default long getPushInterval() {
+        return getApplicationOrSystemProperty(Constants.PUSH_INTERVAL, 0L,
+                Long::parseLong);
+    }
+
+    /**
+     * Gets the number of pushed messages that may wait to be sent to a client
+     * before its push connection is considered too slow. The connection of a
+     * client that doesn't keep up is closed, and the client resynchronizes its
+     * state after reconnecting.
+     *
+     * @return the maximum number of unsent messages per push connection, or
+     *         <code>0</code> for no limit
+     * @see Constants#PUSH_MAX_PENDING_MESSAGES
+     */
+    default int getPushMaxPendingMessages() {
+        return getApplicationOrSystemProperty(
+                Constants.PUSH_MAX_PENDING_MESSAGES,
+                Constants.DEFAULT_PUSH_MAX_PENDING_MESSAGES, Integer::parseInt);
+    }
+
+    /**
+     * Gets the interval between background cleanups of sessions. When the
+     * interval is positive, inactive UIs and sessions are closed and closed
+     * UIs are removed by a background thread instead of locking the session
+     * again at the end of every request.
+     * <p>
+     * The interval is <code>0</code> by default and can be changed by setting
+     * the {@link Constants#SESSION_CLEANUP_INTERVAL} property.
+     *
+     * @return the cleanup interval in seconds, or <code>0</code> to clean up
+     *         sessions at the end of each request
+     * @see com.vaadin.flow.server.SessionSweeper
+     */
+    default long getSessionCleanupInterval() {
+        return getApplicationOrSystemProperty(
+                Constants.SESSION_CLEANUP_INTERVAL, 0L, Long::parseLong);
+    }
 }
@@ -0,0 +1,180 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+/**
+ * A byte range of a resource requested using the HTTP <code>Range</code>
+ * header.
+ * <p>
+ * Only a single range of the form <code>bytes=first-last</code>,
+ * <code>bytes=first-</code> or <code>bytes=-suffixLength</code> is supported.
+ * Multiple ranges are ignored, in which case the whole resource should be
+ * sent.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public final class ByteRange implements Serializable {
+
+    private static final String BYTES_UNIT = "bytes=";
+
+    private final long first;
+    private final long last;
+    private final long resourceLength;
+
+    private ByteRange(long first, long last, long resourceLength) {
+        this.first = first;
+        this.last = last;
+        this.resourceLength = resourceLength;
+    }
+
+    /**
+     * Parses the value of a <code>Range</code> header for a resource of the
+     * given length.
+     *
+     * @param rangeHeader
+     *            the header value, or <code>null</code> if there is no header
+     * @param resourceLength
+     *            the length of the resource in bytes
+     * @return the requested range, possibly unsatisfiable, or an empty
+     *         optional if the whole resource should be sent
+     */
+    public static Optional<ByteRange> parse(String rangeHeader,
+            long resourceLength) {
+        if (rangeHeader == null || resourceLength < 0
+                || !rangeHeader.startsWith(BYTES_UNIT)) {
+            return Optional.empty();
+        }
+        String range = rangeHeader.substring(BYTES_UNIT.length()).trim();
+        int dash = range.indexOf('-');
+        if (dash < 0 || range.indexOf(',') >= 0) {
+            return Optional.empty();
+        }
+        try {
+            String firstValue = range.substring(0, dash).trim();
+            String lastValue = range.substring(dash + 1).trim();
+            if (firstValue.isEmpty()) {
+                long suffixLength = Long.parseLong(lastValue);
+                if (suffixLength <= 0 || resourceLength == 0) {
+                    return Optional.of(unsatisfiable(resourceLength));
+                }
+                return Optional.of(new ByteRange(
+                        Math.max(0, resourceLength - suffixLength),
+                        resourceLength - 1, resourceLength));
+            }
+            long first = Long.parseLong(firstValue);
+            long last = lastValue.isEmpty() ? resourceLength - 1
+                    : Long.parseLong(lastValue);
+            if (first >= resourceLength) {
+                return Optional.of(unsatisfiable(resourceLength));
+            }
+            if (first < 0 || last < first) {
+                return Optional.empty();
+            }
+            return Optional.of(new ByteRange(first,
+                    Math.min(last, resourceLength - 1), resourceLength));
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Parses the value of a <code>Range</code> header for a resource of the
+     * given length, taking the <code>If-Range</code> header into account. If
+     * the <code>If-Range</code> value doesn't match the current entity tag of
+     * the resource, the resource has changed and the whole resource should be
+     * sent.
+     *
+     * @param rangeHeader
+     *            the header value, or <code>null</code> if there is no header
+     * @param ifRangeHeader
+     *            the <code>If-Range</code> header value, or <code>null</code>
+     *            if there is no header
+     * @param eTag
+     *            the quoted entity tag of the resource, or <code>null</code>
+     *            if not known
+     * @param resourceLength
+     *            the length of the resource in bytes
+     * @return the requested range, possibly unsatisfiable, or an empty
+     *         optional if the whole resource should be sent
+     */
+    public static Optional<ByteRange> parse(String rangeHeader,
+            String ifRangeHeader, String eTag, long resourceLength) {
+        if (ifRangeHeader != null && !ifRangeHeader.trim().equals(eTag)) {
+            return Optional.empty();
+        }
+        return parse(rangeHeader, resourceLength);
+    }
+
+    private static ByteRange unsatisfiable(long resourceLength) {
+        return new ByteRange(-1, -1, resourceLength);
+    }
+
+    /**
+     * Checks whether the range overlaps the resource. An unsatisfiable range
+     * should be responded to with status 416.
+     *
+     * @return <code>true</code> if the range can be served, otherwise
+     *         <code>false</code>
+     */
+    public boolean isSatisfiable() {
+        return first >= 0;
+    }
+
+    /**
+     * Gets the position of the first byte in the range.
+     *
+     * @return the first byte position
+     */
+    public long getFirst() {
+        return first;
+    }
+
+    /**
+     * Gets the position of the last byte in the range, inclusive.
+     *
+     * @return the last byte position
+     */
+    public long getLast() {
+        return last;
+    }
+
+    /**
+     * Gets the number of bytes in the range.
+     *
+     * @return the range length
+     */
+    public long getLength() {
+        return last - first + 1;
+    }
+
+    /**
+     * Gets the value of the <code>Content-Range</code> header for this range.
+     *
+     * @return the content range header value
+     */
+    public String getContentRange() {
+        if (!isSatisfiable()) {
+            return "bytes */" + resourceLength;
+        }
+        return "bytes " + first + "-" + last + "/" + resourceLength;
+    }
+}
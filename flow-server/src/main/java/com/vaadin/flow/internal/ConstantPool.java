@@ -17,9 +17,16 @@ package com.vaadin.flow.internal;
 
 import java.io.Serializable;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -35,6 +42,45 @@ public class ConstantPool implements Serializable {
 
     private Set<ConstantPoolKey> newKeys = new HashSet<>();
 
+    private Set<String> newCachedIds = new HashSet<>();
+
+    private SessionConstantPool sessionConstantPool;
+
+    private boolean clientCacheAvailable;
+
+    private int lastDeliveryId;
+
+    /**
+     * Ids of the constants sent to the client that the client has not yet
+     * confirmed to have stored, by delivery id.
+     */
+    private Map<Integer, List<String>> pendingDeliveries = new LinkedHashMap<>();
+
+    /**
+     * Makes this constant pool share constants with other constant pools
+     * through the given session constant pool. Constants sent to the client
+     * are marked as delivered in the session constant pool once the client
+     * has confirmed that it has stored them, see
+     * {@link #confirmDelivery(int)}. If the
+     * client has cached the constants delivered in the session, constants that
+     * have already been delivered are only sent as ids.
+     *
+     * @param sessionConstantPool
+     *            the session constant pool to use, or <code>null</code> to not
+     *            share constants
+     * @param clientCacheAvailable
+     *            <code>true</code> if the client has cached all constants that
+     *            have been delivered in the session, <code>false</code>
+     *            otherwise
+     */
+    public void setSessionConstantPool(SessionConstantPool sessionConstantPool,
+            boolean clientCacheAvailable) {
+        assert sessionConstantPool != null
+                || !clientCacheAvailable : "Client cache cannot be used without a session constant pool";
+        this.sessionConstantPool = sessionConstantPool;
+        this.clientCacheAvailable = clientCacheAvailable;
+    }
+
     /**
      * Gets the id of a given constant, registering the constant with this
      * constant pool if it hasn't already been encountered.
@@ -51,7 +97,11 @@ public class ConstantPool implements Serializable {
         String id = constant.getId();
 
         if (knownValues.add(id)) {
-            newKeys.add(constant);
+            if (clientCacheAvailable && sessionConstantPool.isDelivered(id)) {
+                newCachedIds.add(id);
+            } else {
+                newKeys.add(constant);
+            }
         }
 
         return id;
@@ -68,19 +118,109 @@ public class ConstantPool implements Serializable {
         return !newKeys.isEmpty();
     }
 
+    /**
+     * Checks if any constants that the client has already cached have been
+     * added to this constant pool since the last time
+     * {@link #dumpCachedConstantIds()} was called.
+     *
+     * @return <code>true</code> if there are new cached constants,
+     *         <code>false</code> otherwise
+     */
+    public boolean hasNewCachedConstants() {
+        return !newCachedIds.isEmpty();
+    }
+
     /**
      * Encodes all new constants to a JSON object and marks those constants as
-     * non-new.
+     * non-new. If a session constant pool is used, the constants are
+     * delivered with a new delivery id, see {@link #getLastDeliveryId()}.
      *
      * @return a JSON object describing all new constants
      */
     public JsonObject dumpConstants() {
         JsonObject json = Json.createObject();
 
+        if (sessionConstantPool != null && !newKeys.isEmpty()) {
+            List<String> ids = newKeys.stream().map(ConstantPoolKey::getId)
+                    .collect(Collectors.toList());
+            pendingDeliveries.put(Integer.valueOf(++lastDeliveryId), ids);
+        }
+
         newKeys.forEach(key -> key.export(json));
         newKeys.clear();
 
         return json;
     }
 
+    /**
+     * Encodes the ids of all new constants that the client has already cached
+     * to a JSON array and marks those constants as non-new.
+     *
+     * @return a JSON array of the ids of all new cached constants
+     */
+    public JsonArray dumpCachedConstantIds() {
+        JsonArray json = Json.createArray();
+
+        newCachedIds.forEach(id -> json.set(json.length(), id));
+        newCachedIds.clear();
+
+        return json;
+    }
+
+    /**
+     * Checks whether the constants sent to the client are tracked for
+     * delivery to the constant cache of the client, which is the case when a
+     * session constant pool is used.
+     *
+     * @return <code>true</code> if deliveries are tracked, <code>false</code>
+     *         otherwise
+     */
+    public boolean isDeliveryTracked() {
+        return sessionConstantPool != null;
+    }
+
+    /**
+     * Gets the id of the constants most recently returned by
+     * {@link #dumpConstants()}, which the client uses for confirming that it
+     * has stored the constants.
+     *
+     * @return the last delivery id, or <code>0</code> if no constants have
+     *         been delivered
+     */
+    public int getLastDeliveryId() {
+        return lastDeliveryId;
+    }
+
+    /**
+     * Marks the constants with the given delivery id and all earlier ids as
+     * delivered in the session constant pool, after the client has confirmed
+     * that it has stored them in its constant cache. Constants are not marked
+     * as delivered when they are sent since another UI of the session could
+     * otherwise refer to constants that the client has not yet stored.
+     *
+     * @param deliveryId
+     *            the id of the latest delivery stored by the client
+     */
+    public void confirmDelivery(int deliveryId) {
+        Iterator<Entry<Integer, List<String>>> iterator = pendingDeliveries
+                .entrySet().iterator();
+        while (iterator.hasNext()) {
+            Entry<Integer, List<String>> delivery = iterator.next();
+            if (delivery.getKey().intValue() > deliveryId) {
+                break;
+            }
+            sessionConstantPool.markDelivered(delivery.getValue());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Discards the deliveries that the client has not confirmed, for instance
+     * when the client is resynchronized since a response may have been lost.
+     * The discarded constants are not marked as delivered in the session
+     * constant pool.
+     */
+    public void discardPendingDeliveries() {
+        pendingDeliveries.clear();
+    }
 }
@@ -15,6 +15,8 @@
  */
 package com.vaadin.flow.internal;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
@@ -44,6 +46,26 @@ public class MessageDigestUtil {
         return getSha256().digest(string.getBytes(StandardCharsets.UTF_16));
     }
 
+    /**
+     * Calculates the SHA-256 hash of the remaining contents of the given
+     * stream. The stream is not closed.
+     *
+     * @param inputStream
+     *            the stream to hash
+     * @return 32 bytes making up the hash
+     * @throws IOException
+     *             if reading the stream fails
+     */
+    public static byte[] sha256(InputStream inputStream) throws IOException {
+        MessageDigest digest = getSha256();
+        byte[] buffer = new byte[8 * 1024];
+        int bytes;
+        while ((bytes = inputStream.read(buffer)) >= 0) {
+            digest.update(buffer, 0, bytes);
+        }
+        return digest.digest();
+    }
+
     private static MessageDigest getSha256() {
         try {
             MessageDigest digest = MessageDigest.getInstance("SHA-256");
@@ -16,15 +16,39 @@
 
 package com.vaadin.flow.internal;
 
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.vaadin.flow.server.StaticResourceCache;
+import com.vaadin.flow.server.StaticResourceCache.CachedContent;
+import com.vaadin.flow.server.StaticResourceCache.CachedResource;
+
 import javax.servlet.ServletOutputStream;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
@@ -40,8 +64,40 @@ import javax.servlet.http.HttpServletResponse;
 public class ResponseWriter implements Serializable {
     private static final int DEFAULT_BUFFER_SIZE = 32 * 1024;
 
+    private static final String IDENTITY = "identity";
+    private static final String BROTLI = "br";
+    private static final String GZIP = "gzip";
+    private static final List<String> PRECOMPRESSED_ENCODINGS = Arrays
+            .asList(BROTLI, GZIP);
+
     private final int bufferSize;
 
+    private final StaticResourceCache cache;
+
+    private final Map<String, ETagEntry> eTags = new ConcurrentHashMap<>();
+
+    @FunctionalInterface
+    private interface ContentWriter extends Serializable {
+        /**
+         * Writes the given range of the contents, or all contents if the range
+         * is <code>null</code>.
+         */
+        void write(ByteRange range, ServletOutputStream outputStream)
+                throws IOException;
+    }
+
+    private static class ETagEntry implements Serializable {
+        private final long lastModified;
+        private final long length;
+        private final String eTag;
+
+        private ETagEntry(long lastModified, long length, String eTag) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.eTag = eTag;
+        }
+    }
+
     /**
      * Create a response writer with buffer size equal to
      * {@link ResponseWriter#DEFAULT_BUFFER_SIZE}.
@@ -57,12 +113,36 @@ public class ResponseWriter implements Serializable {
      *            custom buffer size
      */
     public ResponseWriter(int bufferSize) {
+        this(bufferSize, null);
+    }
+
+    /**
+     * Creates a response writer that caches the written resources in the
+     * given cache.
+     *
+     * @param cache
+     *            the cache for the resources, or <code>null</code> to not
+     *            cache resources
+     */
+    public ResponseWriter(StaticResourceCache cache) {
+        this(DEFAULT_BUFFER_SIZE, cache);
+    }
+
+    private ResponseWriter(int bufferSize, StaticResourceCache cache) {
         this.bufferSize = bufferSize;
+        this.cache = cache;
     }
 
     /**
      * Writes the contents and content type (if available) of the given
      * resourceUrl to the response.
+     * <p>
+     * A precompressed <code>.br</code> or <code>.gz</code> variant of the
+     * resource is sent instead if one is available and accepted by the
+     * browser. The response has a strong <code>ETag</code> based on the
+     * content hash of the sent variant, and a <code>304</code> status is sent
+     * if the browser has the same variant. A single byte range requested with
+     * the <code>Range</code> header is sent as partial content.
      *
      * @param filenameWithPath
      *            the name of the file being sent
@@ -81,56 +161,358 @@ public class ResponseWriter implements Serializable {
             throws IOException {
         writeContentType(filenameWithPath, request, response);
 
-        URLConnection connection = null;
-        InputStream dataStream = null;
+        if (cache != null && cache.isEnabled()) {
+            CachedResource resource = cache.getResource(filenameWithPath,
+                    () -> readResource(filenameWithPath, resourceUrl,
+                            request));
+            if (resource != null) {
+                writeCachedResource(resource, request, response);
+                return;
+            }
+        }
 
-        if (acceptsGzippedResource(request)) {
-            // try to serve a gzipped version if available
-            String gzippedFilenameWithPath = filenameWithPath + ".gz";
+        URL url = null;
+        for (String encoding : getAcceptedEncodings(request)) {
+            url = getPrecompressedResource(request,
+                    filenameWithPath + getExtension(encoding));
+            if (url != null) {
+                response.setHeader("Content-Encoding", encoding);
+                response.setHeader("Vary", "Accept-Encoding");
+                break;
+            }
+        }
+        if (url == null) {
+            // precompressed resource not available, get non compressed
+            url = resourceUrl;
+        }
+
+        URL dataUrl = url;
+        URLConnection connection = url.openConnection();
+        InputStream dataStream = connection.getInputStream();
+        try {
+            long length = getContentLength(connection);
+            writeContents(request, response, getETag(url, connection, length),
+                    length, (range, outputStream) -> {
+                        if (range == null) {
+                            writeStream(outputStream, dataStream);
+                        } else {
+                            writeRange(dataUrl, dataStream, range,
+                                    outputStream);
+                        }
+                    });
+        } catch (IOException e) {
+            getLogger().debug("Error writing static file to user", e);
+        } finally {
             try {
-                URL url = request.getServletContext()
-                        .getResource(gzippedFilenameWithPath);
-                if (url != null) {
-                    connection = url.openConnection();
-                    dataStream = connection.getInputStream();
-                    response.setHeader("Content-Encoding", "gzip");
-                }
-            } catch (Exception e) {
+                dataStream.close();
+            } catch (IOException e) {
                 getLogger().debug(
-                        "Unexpected exception looking for gzipped resource {}",
-                                gzippedFilenameWithPath,
-                        e);
+                        "Error closing input stream for resource", e);
             }
         }
-        if (dataStream == null) {
-            // gzipped resource not available, get non compressed
-            connection = resourceUrl.openConnection();
-            dataStream = connection.getInputStream();
+    }
+
+    /**
+     * Writes the content type (if available) and the contents of the given
+     * cached resource to the response, in the same way as
+     * {@link #writeResponseContents(String, URL, HttpServletRequest, HttpServletResponse)}.
+     *
+     * @param filenameWithPath
+     *            the name of the file being sent
+     * @param resource
+     *            the cached resource, not <code>null</code>
+     * @param request
+     *            the request object to read from
+     * @param response
+     *            the response object to write to
+     * @throws IOException
+     *             if the servlet container threw an exception
+     */
+    public void writeResponseContents(String filenameWithPath,
+            CachedResource resource, HttpServletRequest request,
+            HttpServletResponse response) throws IOException {
+        writeContentType(filenameWithPath, request, response);
+        writeCachedResource(resource, request, response);
+    }
+
+    private void writeCachedResource(CachedResource resource,
+            HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        CachedContent content = null;
+        for (String encoding : getAcceptedEncodings(request)) {
+            content = resource.getContent(encoding);
+            if (content != null) {
+                response.setHeader("Content-Encoding", encoding);
+                response.setHeader("Vary", "Accept-Encoding");
+                break;
+            }
+        }
+        if (content == null) {
+            content = resource.getContent(IDENTITY);
         }
 
+        byte[] data = content.getData();
         try {
-            long length = connection.getContentLengthLong();
+            writeContents(request, response, content.getETag(), data.length,
+                    (range, outputStream) -> {
+                        if (range == null) {
+                            outputStream.write(data);
+                        } else {
+                            outputStream.write(data, (int) range.getFirst(),
+                                    (int) range.getLength());
+                        }
+                    });
+        } catch (IOException e) {
+            getLogger().debug("Error writing static file to user", e);
+        }
+    }
+
+    private void writeContents(HttpServletRequest request,
+            HttpServletResponse response, String eTag, long length,
+            ContentWriter writer) throws IOException {
+        if (eTag != null) {
+            response.setHeader("ETag", eTag);
+            if (matchesIfNoneMatch(request, eTag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+        if (length >= 0L) {
+            response.setHeader("Accept-Ranges", "bytes");
+        }
+
+        ByteRange range = getRequestedRange(request, eTag, length);
+        if (range == null) {
             if (length >= 0L) {
                 response.setContentLengthLong(length);
             }
-        } catch (Exception e) {
-            getLogger().debug("Error setting the content length", e);
+            writer.write(null, response.getOutputStream());
+        } else if (!range.isSatisfiable()) {
+            response.setHeader("Content-Range", range.getContentRange());
+            response.sendError(
+                    HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        } else {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", range.getContentRange());
+            response.setContentLengthLong(range.getLength());
+            writer.write(range, response.getOutputStream());
         }
+    }
 
+    private CachedResource readResource(String filenameWithPath,
+            URL resourceUrl, HttpServletRequest request) {
+        Map<String, URLConnection> connections = new LinkedHashMap<>();
+        Map<String, InputStream> streams = new HashMap<>();
         try {
-            writeStream(response.getOutputStream(), dataStream);
+            connections.put(IDENTITY, resourceUrl.openConnection());
+            for (String encoding : PRECOMPRESSED_ENCODINGS) {
+                URL url = getPrecompressedResource(request,
+                        filenameWithPath + getExtension(encoding));
+                if (url != null) {
+                    connections.put(encoding, url.openConnection());
+                }
+            }
+
+            /*
+             * Check the size of all variants together before reading anything
+             * so that resources too large for the cache are only streamed
+             */
+            long totalLength = 0;
+            for (Map.Entry<String, URLConnection> entry : connections
+                    .entrySet()) {
+                streams.put(entry.getKey(), entry.getValue().getInputStream());
+                long length = getContentLength(entry.getValue());
+                if (length < 0) {
+                    // Unknown length
+                    return null;
+                }
+                totalLength += length;
+            }
+            if (totalLength > cache.getMaxBytes()) {
+                return null;
+            }
+
+            Map<String, CachedContent> contents = new HashMap<>();
+            for (Map.Entry<String, InputStream> entry : streams.entrySet()) {
+                byte[] data = IOUtils.toByteArray(entry.getValue());
+                contents.put(entry.getKey(), new CachedContent(data,
+                        createETag(MessageDigestUtil
+                                .sha256(new ByteArrayInputStream(data)))));
+            }
+            return new CachedResource(
+                    connections.get(IDENTITY).getLastModified(), contents);
         } catch (IOException e) {
-            getLogger().debug("Error writing static file to user", e);
+            getLogger().debug("Error reading resource {} for caching",
+                    resourceUrl, e);
+            return null;
         } finally {
-            try {
-                dataStream.close();
-            } catch (IOException e) {
-                getLogger().debug(
-                        "Error closing input stream for resource", e);
+            for (InputStream stream : streams.values()) {
+                try {
+                    stream.close();
+                } catch (IOException e) {
+                    getLogger().debug(
+                            "Error closing input stream for resource", e);
+                }
             }
         }
     }
 
+    private List<String> getAcceptedEncodings(HttpServletRequest request) {
+        List<String> encodings = new ArrayList<>(2);
+        if (acceptsBrotliResource(request)) {
+            encodings.add(BROTLI);
+        }
+        if (acceptsGzippedResource(request)) {
+            encodings.add(GZIP);
+        }
+        return encodings;
+    }
+
+    private static String getExtension(String encoding) {
+        return BROTLI.equals(encoding) ? ".br" : ".gz";
+    }
+
+    private URL getPrecompressedResource(HttpServletRequest request,
+            String filenameWithPath) {
+        try {
+            return request.getServletContext().getResource(filenameWithPath);
+        } catch (Exception e) {
+            getLogger().debug(
+                    "Unexpected exception looking for precompressed resource {}",
+                    filenameWithPath, e);
+            return null;
+        }
+    }
+
+    private long getContentLength(URLConnection connection) {
+        try {
+            return connection.getContentLengthLong();
+        } catch (Exception e) {
+            getLogger().debug("Error getting the content length", e);
+            return -1L;
+        }
+    }
+
+    private String getETag(URL url, URLConnection connection, long length) {
+        long lastModified = connection.getLastModified();
+        if (lastModified <= 0) {
+            /*
+             * Without a timestamp, changes to the resource are not noticed
+             * and the ETag would have to be calculated from the contents for
+             * every request
+             */
+            return null;
+        }
+        String key = url.toExternalForm();
+        ETagEntry entry = eTags.get(key);
+        if (entry != null && entry.lastModified == lastModified
+                && entry.length == length) {
+            return entry.eTag;
+        }
+        try (InputStream stream = url.openStream()) {
+            String eTag = createETag(MessageDigestUtil.sha256(stream));
+            eTags.put(key, new ETagEntry(lastModified, length, eTag));
+            return eTag;
+        } catch (IOException e) {
+            getLogger().debug("Error calculating the ETag for {}", url, e);
+            return null;
+        }
+    }
+
+    private static String createETag(byte[] hash) {
+        return '"' + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Arrays.copyOf(hash, 16)) + '"';
+    }
+
+    private static boolean matchesIfNoneMatch(HttpServletRequest request,
+            String eTag) {
+        return matchesIfNoneMatch(request.getHeader("If-None-Match"), eTag);
+    }
+
+    /**
+     * Checks whether the value of an <code>If-None-Match</code> header
+     * matches the given entity tag, in which case the client already has the
+     * current version of the resource.
+     *
+     * @param ifNoneMatch
+     *            the header value, or <code>null</code> if there is no header
+     * @param eTag
+     *            the quoted entity tag of the resource, not <code>null</code>
+     * @return <code>true</code> if the header matches the entity tag,
+     *         otherwise <code>false</code>
+     */
+    public static boolean matchesIfNoneMatch(String ifNoneMatch,
+            String eTag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.startsWith("W/")) {
+                candidate = candidate.substring(2);
+            }
+            if ("*".equals(candidate) || eTag.equals(candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static ByteRange getRequestedRange(HttpServletRequest request,
+            String eTag, long length) {
+        return ByteRange.parse(request.getHeader("Range"),
+                request.getHeader("If-Range"), eTag, length).orElse(null);
+    }
+
+    private void writeRange(URL url, InputStream dataStream, ByteRange range,
+            ServletOutputStream outputStream) throws IOException {
+        Path file = getFile(url);
+        if (file != null) {
+            try (FileChannel channel = FileChannel.open(file,
+                    StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels
+                        .newChannel(outputStream);
+                long position = range.getFirst();
+                long end = position + range.getLength();
+                while (position < end) {
+                    long transferred = channel.transferTo(position,
+                            end - position, target);
+                    if (transferred <= 0) {
+                        // The file has been truncated after it was opened
+                        throw new EOFException("Unexpected end of " + file);
+                    }
+                    position += transferred;
+                }
+            }
+            return;
+        }
+
+        IOUtils.skipFully(dataStream, range.getFirst());
+        final byte[] buffer = new byte[bufferSize];
+        long remaining = range.getLength();
+        int bytes;
+        while (remaining > 0 && (bytes = dataStream.read(buffer, 0,
+                (int) Math.min(buffer.length, remaining))) >= 0) {
+            outputStream.write(buffer, 0, bytes);
+            remaining -= bytes;
+        }
+        if (remaining > 0) {
+            throw new EOFException("Unexpected end of " + url);
+        }
+    }
+
+    private static Path getFile(URL url) {
+        if (!"file".equals(url.getProtocol())) {
+            return null;
+        }
+        try {
+            Path path = Paths.get(url.toURI());
+            return Files.isRegularFile(path) ? path : null;
+        } catch (URISyntaxException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
     private void writeStream(ServletOutputStream outputStream,
             InputStream inputStream) throws IOException {
         final byte[] buffer = new byte[bufferSize];
@@ -141,6 +523,28 @@ public class ResponseWriter implements Serializable {
 
     }
 
+    /**
+     * Returns whether it is ok to serve a brotli compressed version of the
+     * given resource.
+     *
+     * @param request
+     *            the request for the resource
+     * @return true if the servlet should attempt to serve a precompressed
+     *         brotli version of the resource, false otherwise
+     */
+    protected boolean acceptsBrotliResource(HttpServletRequest request) {
+        String accept = request.getHeader("Accept-Encoding");
+        if (accept == null) {
+            return false;
+        }
+        for (String encoding : accept.replace(" ", "").split(",")) {
+            if (encoding.equals("br") || encoding.startsWith("br;")) {
+                return !isQZero(encoding, "br");
+            }
+        }
+        return false;
+    }
+
     /**
      * Returns whether it is ok to serve a gzipped version of the given
      * resource.
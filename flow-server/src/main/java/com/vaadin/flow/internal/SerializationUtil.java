@@ -0,0 +1,105 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.StreamCorruptedException;
+
+/**
+ * Helpers for the compact custom serialization used by the state tree.
+ * <p>
+ * Integers are written as variable length quantities where each byte holds
+ * seven bits of the value, least significant bits first, and the highest bit
+ * tells whether more bytes follow. Small non-negative values such as node ids,
+ * feature ids and collection sizes thus take one or two bytes instead of four.
+ * <p>
+ * For internal use only. May be renamed or removed in a future release.
+ *
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public final class SerializationUtil {
+
+    private SerializationUtil() {
+        // Static utils only
+    }
+
+    /**
+     * Writes an integer as a variable length quantity. Negative values always
+     * take five bytes.
+     *
+     * @param out
+     *            the output to write to, not <code>null</code>
+     * @param value
+     *            the value to write
+     * @throws IOException
+     *             if writing fails
+     */
+    public static void writeVarInt(ObjectOutput out, int value)
+            throws IOException {
+        int remaining = value;
+        while ((remaining & ~0x7F) != 0) {
+            out.writeByte((remaining & 0x7F) | 0x80);
+            remaining >>>= 7;
+        }
+        out.writeByte(remaining);
+    }
+
+    /**
+     * Reads an integer written using {@link #writeVarInt(ObjectOutput, int)}.
+     *
+     * @param in
+     *            the input to read from, not <code>null</code>
+     * @return the read value
+     * @throws IOException
+     *             if reading fails or the input doesn't contain a valid value
+     */
+    public static int readVarInt(ObjectInput in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new StreamCorruptedException("Malformed variable length integer");
+    }
+
+    /**
+     * Reads an object, interning it if it is a string. Used for short strings
+     * like map keys and class names which are repeated in many nodes and
+     * sessions, so that the deserialized copies share the same instance.
+     *
+     * @param in
+     *            the input to read from, not <code>null</code>
+     * @return the read object, or the canonical instance for a string
+     * @throws IOException
+     *             if reading fails
+     * @throws ClassNotFoundException
+     *             if the class of the object cannot be found
+     */
+    public static Object readInterned(ObjectInput in)
+            throws IOException, ClassNotFoundException {
+        Object value = in.readObject();
+        if (value instanceof String) {
+            return ((String) value).intern();
+        }
+        return value;
+    }
+}
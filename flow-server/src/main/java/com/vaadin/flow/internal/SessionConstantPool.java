@@ -0,0 +1,90 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps track of the constants that have been delivered to any UI in a
+ * session. Constants are identified by a hash of their contents, so a browser
+ * that caches delivered constants can reuse them in later UIs of the same
+ * session, which then only need to send the ids of the constants they use.
+ * <p>
+ * This class is thread-safe since UIs of the same session may be accessed
+ * concurrently.
+ *
+ * @see ConstantPool#setSessionConstantPool(SessionConstantPool, boolean)
+ * @see com.vaadin.flow.server.Constants#SESSION_CONSTANT_POOL
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public class SessionConstantPool implements Serializable {
+
+    private final String id = UUID.randomUUID().toString();
+
+    private final Set<String> deliveredIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Gets the id of this pool. The id is used by the client to check that the
+     * constants it has cached have been delivered in this session.
+     *
+     * @return the pool id, not <code>null</code>
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Checks whether the constant with the given id has been delivered to the
+     * client in this session.
+     *
+     * @param constantId
+     *            the constant id to check, not <code>null</code>
+     * @return <code>true</code> if the constant has been delivered,
+     *         <code>false</code> otherwise
+     */
+    public boolean isDelivered(String constantId) {
+        assert constantId != null;
+        return deliveredIds.contains(constantId);
+    }
+
+    /**
+     * Marks the constants with the given ids as delivered to the client.
+     *
+     * @param constantIds
+     *            the ids of the delivered constants, not <code>null</code>
+     */
+    public void markDelivered(Collection<String> constantIds) {
+        assert constantIds != null;
+        deliveredIds.addAll(constantIds);
+    }
+
+    /**
+     * Gets the ids of the constants that have been delivered to the client in
+     * this session.
+     *
+     * @return an unmodifiable view of the delivered constant ids, not
+     *         <code>null</code>
+     */
+    public Set<String> getDeliveredIds() {
+        return Collections.unmodifiableSet(deliveredIds);
+    }
+}
@@ -16,16 +16,19 @@
 
 package com.vaadin.flow.internal;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -60,11 +63,27 @@ public class StateNode implements Serializable {
      */
     private static final Map<Set<Class<? extends NodeFeature>>, Set<Class<? extends NodeFeature>>> nodeFeatureSetCache = new ConcurrentHashMap<>();
 
-    private final Map<Class<? extends NodeFeature>, NodeFeature> features = new HashMap<>();
+    /**
+     * Features of this node, indexed by the feature id from
+     * {@link NodeFeatureRegistry#getId(Class)}. The array is only as long as
+     * needed for the feature with the highest id.
+     * <p>
+     * Serialized by {@link #writeObject(ObjectOutputStream)} using the feature
+     * ids instead of the feature classes.
+     */
+    private transient NodeFeature[] features;
 
-    private final Set<Class<? extends NodeFeature>> reportedFeatures;
+    private transient Set<Class<? extends NodeFeature>> reportedFeatures;
 
-    private Map<Class<? extends NodeFeature>, Serializable> changes;
+    /**
+     * Change trackers for the features of this node, using the same indices as
+     * {@link #features}. <code>null</code> if there are no changes.
+     * <p>
+     * Change trackers are not serialized. A tree serialized with pending
+     * changes resynchronizes the client instead, see
+     * {@link StateTree#isResyncRequired()}.
+     */
+    private transient Serializable[] changes;
 
     private List<Command> attachListeners;
 
@@ -74,7 +93,7 @@ public class StateNode implements Serializable {
 
     private StateNode parent;
 
-    private int id = -1;
+    private transient int id = -1;
 
     // Only the root node is attached at this point
     private boolean wasAttached = isAttached();
@@ -124,8 +143,18 @@ public class StateNode implements Serializable {
     public StateNode(List<Class<? extends NodeFeature>> reportableFeatureTypes,
             Class<? extends NodeFeature>... nonReportableFeatureTypes) {
         reportedFeatures = getCachedFeatureSet(reportableFeatureTypes);
-        Stream.concat(reportableFeatureTypes.stream(),
-                Stream.of(nonReportableFeatureTypes)).forEach(this::addFeature);
+
+        int maxId = -1;
+        for (Class<? extends NodeFeature> featureType : reportableFeatureTypes) {
+            maxId = Math.max(maxId, NodeFeatureRegistry.getId(featureType));
+        }
+        for (Class<? extends NodeFeature> featureType : nonReportableFeatureTypes) {
+            maxId = Math.max(maxId, NodeFeatureRegistry.getId(featureType));
+        }
+        features = new NodeFeature[maxId + 1];
+
+        reportableFeatureTypes.forEach(this::addFeature);
+        Stream.of(nonReportableFeatureTypes).forEach(this::addFeature);
     }
 
     private static Set<Class<? extends NodeFeature>> getCachedFeatureSet(
@@ -252,7 +281,11 @@ public class StateNode implements Serializable {
     }
 
     private void forEachChild(Consumer<StateNode> action) {
-        getFeatures().values().forEach(n -> n.forEachChild(action));
+        for (NodeFeature feature : features) {
+            if (feature != null) {
+                feature.forEachChild(action);
+            }
+        }
     }
 
     /**
@@ -281,7 +314,8 @@ public class StateNode implements Serializable {
     public <T extends NodeFeature> T getFeature(Class<T> featureType) {
         assert featureType != null;
 
-        NodeFeature feature = getFeatures().get(featureType);
+        NodeFeature feature = getFeatureById(
+                NodeFeatureRegistry.getId(featureType));
         if (feature == null) {
             throw new IllegalStateException(
                     "Node does not have the feature " + featureType);
@@ -301,7 +335,11 @@ public class StateNode implements Serializable {
     public boolean hasFeature(Class<? extends NodeFeature> featureType) {
         assert featureType != null;
 
-        return getFeatures().containsKey(featureType);
+        return getFeatureById(NodeFeatureRegistry.getId(featureType)) != null;
+    }
+
+    private NodeFeature getFeatureById(int featureId) {
+        return featureId < features.length ? features[featureId] : null;
     }
 
     /**
@@ -366,8 +404,7 @@ public class StateNode implements Serializable {
 
                 // Make all changes show up as if the node was recently attached
                 clearChanges();
-                getFeatures().values()
-                        .forEach(NodeFeature::generateChangesFromEmpty);
+                getFeatures().forEach(NodeFeature::generateChangesFromEmpty);
             } else {
                 collector.accept(new NodeDetachChange(this));
             }
@@ -380,16 +417,16 @@ public class StateNode implements Serializable {
         if (isInactive()) {
             if (isInitialChanges) {
                 // send only required (reported) features updates
-                Stream<NodeFeature> initialFeatures = Stream
-                        .concat(getFeatures().entrySet().stream().filter(
-                                entry -> isReportedFeature(entry.getKey()))
-                                .map(Entry::getValue), getDisalowFeatures());
+                Stream<NodeFeature> initialFeatures = Stream.concat(
+                        getFeatures().filter(feature -> isReportedFeature(
+                                feature.getClass())),
+                        getDisalowFeatures());
                 doCollectChanges(collector, initialFeatures);
             } else {
                 doCollectChanges(collector, getDisalowFeatures());
             }
         } else {
-            doCollectChanges(collector, getFeatures().values().stream());
+            doCollectChanges(collector, getFeatures());
         }
     }
 
@@ -397,16 +434,43 @@ public class StateNode implements Serializable {
             Stream<NodeFeature> features) {
         features.filter(this::hasChangeTracker).forEach(feature -> {
             feature.collectChanges(collector);
-            changes.remove(feature.getClass());
+            changes[getFeatureId(feature)] = null;
         });
         isInitialChanges = false;
-        if (changes != null && changes.isEmpty()) {
+        if (changes != null && Stream.of(changes).allMatch(Objects::isNull)) {
             changes = null;
         }
     }
 
     private boolean hasChangeTracker(NodeFeature nodeFeature) {
-        return changes != null && changes.containsKey(nodeFeature.getClass());
+        return changes != null && changes[getFeatureId(nodeFeature)] != null;
+    }
+
+    private static int getFeatureId(NodeFeature feature) {
+        return NodeFeatureRegistry.getId(feature.getClass());
+    }
+
+    /**
+     * Prepares this node for a full resynchronization of the client side. An
+     * attached node will next time report all its state as if it had just been
+     * attached, whereas a detached node will not report that it has been
+     * detached.
+     *
+     * @see StateTree#prepareForResync()
+     */
+    public void prepareForResync() {
+        clearChanges();
+        isInitialChanges = true;
+        if (!isAttached()) {
+            wasAttached = false;
+        } else if (getParent() == null) {
+            // The root node stays attached, the client clears its contents
+            getFeatures().forEach(NodeFeature::generateChangesFromEmpty);
+            markAsDirty();
+        } else {
+            wasAttached = false;
+            markAsDirty();
+        }
     }
 
     /**
@@ -575,7 +639,7 @@ public class StateNode implements Serializable {
             copy.forEach(Command::execute);
         }
 
-        getFeatures().values().forEach(f -> f.onAttach(initialAttach));
+        getFeatures().forEach(f -> f.onAttach(initialAttach));
     }
 
     private void fireDetachListeners() {
@@ -585,7 +649,7 @@ public class StateNode implements Serializable {
             copy.forEach(Command::execute);
         }
 
-        getFeatures().values().forEach(NodeFeature::onDetach);
+        getFeatures().forEach(NodeFeature::onDetach);
     }
 
     /**
@@ -604,11 +668,16 @@ public class StateNode implements Serializable {
     public <T extends Serializable> T getChangeTracker(NodeFeature feature,
             Supplier<T> factory) {
         if (changes == null) {
-            changes = new HashMap<>();
+            changes = new Serializable[features.length];
         }
 
-        return (T) changes.computeIfAbsent(feature.getClass(),
-                k -> factory.get());
+        int featureId = getFeatureId(feature);
+        Serializable tracker = changes[featureId];
+        if (tracker == null) {
+            tracker = factory.get();
+            changes[featureId] = tracker;
+        }
+        return (T) tracker;
     }
 
     /**
@@ -688,8 +757,7 @@ public class StateNode implements Serializable {
     }
 
     private Stream<NodeFeature> getDisalowFeatures() {
-        return getFeatures().values().stream()
-                .filter(feature -> !feature.allowsChanges());
+        return getFeatures().filter(feature -> !feature.allowsChanges());
     }
 
     private void setInactive(boolean inactive) {
@@ -735,23 +803,20 @@ public class StateNode implements Serializable {
     }
 
     private void addFeature(Class<? extends NodeFeature> featureType) {
-        if (!features.containsKey(featureType)) {
-            NodeFeature feature = NodeFeatureRegistry.create(featureType, this);
-            features.put(featureType, feature);
+        int featureId = NodeFeatureRegistry.getId(featureType);
+        if (features[featureId] == null) {
+            features[featureId] = NodeFeatureRegistry.create(featureType,
+                    this);
         }
     }
 
-    private Map<Class<? extends NodeFeature>, NodeFeature> getFeatures() {
-        return features;
+    private Stream<NodeFeature> getFeatures() {
+        return Stream.of(features).filter(Objects::nonNull);
     }
 
     @SuppressWarnings("rawtypes")
     private static Class[] getNonRepeatebleFeatures(StateNode node) {
-        if (node.reportedFeatures.isEmpty()) {
-            Set<Class<? extends NodeFeature>> set = node.features.keySet();
-            return set.toArray(new Class[set.size()]);
-        }
-        return node.features.keySet().stream()
+        return node.getFeatures().map(NodeFeature::getClass)
                 .filter(clazz -> !node.reportedFeatures.contains(clazz))
                 .toArray(Class[]::new);
     }
@@ -860,4 +925,56 @@ public class StateNode implements Serializable {
     public boolean isEnabledSelf() {
         return enabled;
     }
+
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+
+        // Ids are shifted by one so that the initial -1 takes a single byte
+        SerializationUtil.writeVarInt(stream, id + 1);
+
+        // Features as (id << 1 | reported) followed by the feature itself
+        SerializationUtil.writeVarInt(stream, features.length);
+        for (int featureId = 0; featureId < features.length; featureId++) {
+            NodeFeature feature = features[featureId];
+            if (feature != null) {
+                int reported = reportedFeatures.contains(feature.getClass())
+                        ? 1
+                        : 0;
+                SerializationUtil.writeVarInt(stream,
+                        (featureId << 1) | reported);
+                stream.writeObject(feature);
+            }
+        }
+        // No feature can have an id equal to the array length
+        SerializationUtil.writeVarInt(stream, features.length << 1);
+    }
+
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+
+        id = SerializationUtil.readVarInt(stream) - 1;
+
+        int featureCount = SerializationUtil.readVarInt(stream);
+        features = new NodeFeature[featureCount];
+        List<Class<? extends NodeFeature>> reportedTypes = new ArrayList<>();
+        while (true) {
+            int value = SerializationUtil.readVarInt(stream);
+            int featureId = value >>> 1;
+            if (featureId == featureCount) {
+                break;
+            }
+            Class<? extends NodeFeature> featureType = NodeFeatureRegistry
+                    .getFeature(featureId);
+            if (featureId > featureCount || featureType == null) {
+                throw new InvalidObjectException(
+                        "Unknown node feature id " + featureId);
+            }
+            if ((value & 1) != 0) {
+                reportedTypes.add(featureType);
+            }
+            features[featureId] = (NodeFeature) stream.readObject();
+        }
+        reportedFeatures = getCachedFeatureSet(reportedTypes);
+    }
 }
@@ -16,7 +16,11 @@
 
 package com.vaadin.flow.internal;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
@@ -134,6 +138,12 @@ public class StateTree implements NodeOwner {
 
     private final UIInternals uiInternals;
 
+    /**
+     * Set when the tree is deserialized with changes that had not been sent to
+     * the client, since change trackers are not serialized.
+     */
+    private transient boolean resyncRequired;
+
     /**
      * Creates a new state tree with a set of features defined for the root
      * node.
@@ -244,12 +254,29 @@ public class StateTree implements NodeOwner {
         dirtyNodesSet.forEach(node -> node.collectChanges(collector));
     }
 
+    /**
+     * Prepares the tree for a full resynchronization of the client side. After
+     * this, the next time changes are collected, they will describe the whole
+     * tree as if it had just been attached, and nodes detached since the
+     * previous collection are not reported at all since the client will
+     * anyway discard its previous state.
+     */
+    public void prepareForResync() {
+        resyncRequired = false;
+        new ArrayList<>(dirtyNodes).stream()
+                .filter(node -> !node.isAttached())
+                .forEach(StateNode::prepareForResync);
+
+        rootNode.visitNodeTree(StateNode::prepareForResync);
+    }
+
     @Override
     public void markAsDirty(StateNode node) {
         assert node.getOwner() == this;
         checkHasLock();
 
         dirtyNodes.add(node);
+        uiInternals.markAsModified();
     }
 
     /**
@@ -376,10 +403,34 @@ public class StateTree implements NodeOwner {
         return hasDirtyNodes() || hasCallbacks();
     }
 
+    /**
+     * Checks whether the client must be fully resynchronized because this tree
+     * was deserialized with pending changes. Change trackers are not
+     * serialized, so the changes can only be sent by resending the whole tree
+     * using {@link #prepareForResync()}.
+     *
+     * @return <code>true</code> if the client must be resynchronized,
+     *         <code>false</code> otherwise
+     */
+    public boolean isResyncRequired() {
+        return resyncRequired;
+    }
+
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        stream.writeBoolean(hasDirtyNodes() || resyncRequired);
+    }
+
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        resyncRequired = stream.readBoolean();
+    }
+
     private void checkHasLock() {
         VaadinSession session = uiInternals.getSession();
         if (session != null) {
-            session.checkHasLock();
+            session.checkHasLock(uiInternals.getUI());
         }
     }
 }
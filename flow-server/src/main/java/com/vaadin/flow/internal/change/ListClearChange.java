@@ -57,4 +57,8 @@ public class ListClearChange<T extends Serializable>
         super.populateJson(json, constantPool);
     }
 
+    @Override
+    protected int getCompactType() {
+        return JsonConstants.COMPACT_CHANGE_CLEAR;
+    }
 }
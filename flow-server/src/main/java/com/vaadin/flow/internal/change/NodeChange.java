@@ -23,6 +23,7 @@ import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 /**
@@ -83,4 +84,49 @@ public abstract class NodeChange implements Serializable {
      */
     protected abstract void populateJson(JsonObject json,
             ConstantPool constantPool);
+
+    /**
+     * Serializes this change to a compact JSON array. The first item in the
+     * array is the change type and the second item is the node id. The rest of
+     * the items depend on the change type, as described by the
+     * <code>COMPACT_CHANGE_</code> constants in {@link JsonConstants}.
+     *
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     *
+     * @return a compact json representation of this change
+     */
+    public JsonArray toCompactJson(ConstantPool constantPool) {
+        JsonArray json = Json.createArray();
+
+        json.set(0, getCompactType());
+        json.set(1, node.getId());
+
+        populateCompactJson(json, constantPool);
+
+        return json;
+    }
+
+    /**
+     * Gets the type of this change in the compact JSON format.
+     *
+     * @return one of the <code>COMPACT_CHANGE_</code> constants in
+     *         {@link JsonConstants}
+     */
+    protected abstract int getCompactType();
+
+    /**
+     * Overridden by subclasses to append the type specific items to a compact
+     * JSON array when serializing. The type and node id have already been
+     * added when this method is called.
+     *
+     * @param json
+     *            the json array to append to
+     * @param constantPool
+     *            the constant pool to use for serializing constant pool
+     *            references
+     */
+    protected abstract void populateCompactJson(JsonArray json,
+            ConstantPool constantPool);
 }
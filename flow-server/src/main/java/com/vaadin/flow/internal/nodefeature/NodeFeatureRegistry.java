@@ -38,6 +38,21 @@ public class NodeFeatureRegistry {
     static final Map<Class<? extends NodeFeature>, NodeFeatureData> nodeFeatures = new HashMap<>();
     private static final Map<Integer, Class<? extends NodeFeature>> idToFeature = new HashMap<>();
 
+    /**
+     * Caches the id in the feature class itself, since the id is looked up
+     * every time a feature is accessed.
+     */
+    private static final ClassValue<Integer> featureIds = new FeatureIdValue();
+
+    private static class FeatureIdValue extends ClassValue<Integer> {
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Integer computeValue(Class<?> type) {
+            return Integer.valueOf(
+                    getData((Class<? extends NodeFeature>) type).id);
+        }
+    }
+
     private static class NodeFeatureData implements Serializable {
         private final SerializableFunction<StateNode, ? extends NodeFeature> factory;
         private final int id;
@@ -122,7 +137,9 @@ public class NodeFeatureRegistry {
      * @return the id of the node feature
      */
     public static int getId(Class<? extends NodeFeature> nodeFeature) {
-        return getData(nodeFeature).id;
+        assert nodeFeature != null;
+
+        return featureIds.get(nodeFeature).intValue();
     }
 
     /**
@@ -16,6 +16,9 @@
 
 package com.vaadin.flow.internal.nodefeature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.AbstractSet;
 import java.util.ArrayList;
@@ -30,6 +33,7 @@ import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import com.vaadin.flow.internal.SerializationUtil;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.change.AbstractListChange;
 import com.vaadin.flow.internal.change.EmptyChange;
@@ -138,7 +142,12 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
         }
     }
 
-    private List<T> values;
+    /**
+     * The items of the list, or <code>null</code> if the list is empty.
+     * Serialized by {@link #writeObject(ObjectOutputStream)} as a size
+     * followed by the items.
+     */
+    private transient List<T> values;
 
     private boolean isRemoveAllCalled;
 
@@ -276,7 +285,6 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
     private void addChange(AbstractListChange<T> change) {
         getNode().markAsDirty();
 
-        // XXX combine with previous changes if possible
         getChangeTracker().add(change);
 
         // TODO Fire some listeners
@@ -339,6 +347,8 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
 
         isRemoveAllCalled = false;
 
+        changes = mergeAddChanges(changes);
+
         if (isPopulated) {
             changes.forEach(collector);
         } else {
@@ -351,6 +361,42 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
         }
     }
 
+    /**
+     * Merges consecutive add changes into one change when the items of the
+     * later change are inserted inside or right next to the items of the
+     * earlier change, e.g. when items are added one by one to the end of the
+     * list.
+     */
+    private List<AbstractListChange<T>> mergeAddChanges(
+            List<AbstractListChange<T>> changes) {
+        if (changes.size() < 2) {
+            return changes;
+        }
+        List<AbstractListChange<T>> merged = new ArrayList<>(changes.size());
+        ListAddChange<T> previousAdd = null;
+        for (AbstractListChange<T> change : changes) {
+            if (previousAdd != null && change instanceof ListAddChange<?>) {
+                ListAddChange<T> add = (ListAddChange<T>) change;
+                int offset = add.getIndex() - previousAdd.getIndex();
+                List<T> previousItems = previousAdd.getNewItems();
+                if (offset >= 0 && offset <= previousItems.size()) {
+                    List<T> items = new ArrayList<>(
+                            previousItems.size() + add.getNewItems().size());
+                    items.addAll(previousItems);
+                    items.addAll(offset, add.getNewItems());
+                    previousAdd = previousAdd.copy(items);
+                    merged.set(merged.size() - 1, previousAdd);
+                    continue;
+                }
+            }
+            merged.add(change);
+            previousAdd = change instanceof ListAddChange<?>
+                    ? (ListAddChange<T>) change
+                    : null;
+        }
+        return merged;
+    }
+
     private boolean acceptChange(AbstractListChange<T> change) {
         if (change == null) {
             return false;
@@ -486,4 +532,29 @@ public abstract class NodeList<T extends Serializable> extends NodeFeature {
             isPopulated = false;
         }
     }
+
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        if (values == null) {
+            SerializationUtil.writeVarInt(stream, 0);
+        } else {
+            SerializationUtil.writeVarInt(stream, values.size());
+            for (T item : values) {
+                stream.writeObject(item);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        int size = SerializationUtil.readVarInt(stream);
+        if (size > 0) {
+            values = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                values.add((T) SerializationUtil.readInterned(stream));
+            }
+        }
+    }
 }
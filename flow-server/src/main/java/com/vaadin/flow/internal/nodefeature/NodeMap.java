@@ -16,6 +16,9 @@
 
 package com.vaadin.flow.internal.nodefeature;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -26,6 +29,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 
+import com.vaadin.flow.internal.SerializationUtil;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.change.EmptyChange;
 import com.vaadin.flow.internal.change.MapPutChange;
@@ -43,7 +47,12 @@ public abstract class NodeMap extends NodeFeature {
     private static final Serializable REMOVED_MARKER = new UniqueSerializable() {
     };
 
-    private Map<String, Serializable> values;
+    /**
+     * The values of the map, or <code>null</code> if the map is empty.
+     * Serialized by {@link #writeObject(ObjectOutputStream)} as a size
+     * followed by the entries.
+     */
+    private transient Map<String, Serializable> values;
 
     private boolean isPopulated;
 
@@ -385,4 +394,29 @@ public abstract class NodeMap extends NodeFeature {
         return false;
     }
 
+    private void writeObject(ObjectOutputStream stream) throws IOException {
+        stream.defaultWriteObject();
+        if (values == null) {
+            SerializationUtil.writeVarInt(stream, 0);
+        } else {
+            SerializationUtil.writeVarInt(stream, values.size());
+            for (Entry<String, Serializable> entry : values.entrySet()) {
+                stream.writeObject(entry.getKey());
+                stream.writeObject(entry.getValue());
+            }
+        }
+    }
+
+    private void readObject(ObjectInputStream stream)
+            throws IOException, ClassNotFoundException {
+        stream.defaultReadObject();
+        int size = SerializationUtil.readVarInt(stream);
+        if (size > 0) {
+            values = new HashMap<>();
+            for (int i = 0; i < size; i++) {
+                String key = ((String) stream.readObject()).intern();
+                values.put(key, (Serializable) stream.readObject());
+            }
+        }
+    }
 }
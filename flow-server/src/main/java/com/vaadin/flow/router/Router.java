@@ -164,7 +164,7 @@ public class Router implements Serializable {
         assert ui != null;
         assert location != null;
         assert trigger != null;
-        ui.getSession().checkHasLock();
+        ui.getSession().checkHasLock(ui);
 
         if (handleNavigationForLocation(ui, location)) {
             ui.getInternals().setLastHandledNavigation(location);
@@ -18,17 +18,22 @@ package com.vaadin.flow.server;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import javax.servlet.http.Cookie;
+
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.io.Serializable;
 import java.lang.annotation.Annotation;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
@@ -60,6 +65,7 @@ import com.vaadin.flow.component.page.Viewport;
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.AnnotationReader;
 import com.vaadin.flow.internal.ReflectTools;
+import com.vaadin.flow.internal.SessionConstantPool;
 import com.vaadin.flow.internal.UsageStatistics;
 import com.vaadin.flow.server.BootstrapUtils.ThemeSettings;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
@@ -107,6 +113,13 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
             + "/client.nocache.js";
     private static final String BOOTSTRAP_JS = readResource(
             "BootstrapHandler.js");
+    private static final String APP_ID_PLACEHOLDER = "{{APP_ID}}";
+    private static final String CONFIG_JSON_PLACEHOLDER = "{{CONFIG_JSON}}";
+    private static final String INITIAL_UIDL_PLACEHOLDER = "{{INITIAL_UIDL}}";
+    private static final BootstrapJsTemplate BOOTSTRAP_JS_TEMPLATE_DEVELOPMENT = new BootstrapJsTemplate(
+            BOOTSTRAP_JS.replace("{{GWT_STAT_EVENTS}}", GWT_STAT_EVENTS_JS));
+    private static final BootstrapJsTemplate BOOTSTRAP_JS_TEMPLATE_PRODUCTION = new BootstrapJsTemplate(
+            BOOTSTRAP_JS.replace("{{GWT_STAT_EVENTS}}", ""));
     private static final String BABEL_HELPERS_JS = readResource(
             "babel-helpers.min.js");
     private static final String ES6_COLLECTIONS = "//<![CDATA[\n"
@@ -123,6 +136,56 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         return LoggerFactory.getLogger(BootstrapHandler.class.getName());
     }
 
+    /**
+     * The bootstrap JavaScript split into the static parts and the
+     * placeholders in between them, so that the per-request values can be
+     * spliced in with a single pass instead of searching through the whole
+     * script for each placeholder on every request.
+     */
+    private static final class BootstrapJsTemplate implements Serializable {
+        private static final List<String> PLACEHOLDERS = Arrays.asList(
+                APP_ID_PLACEHOLDER, CONFIG_JSON_PLACEHOLDER,
+                INITIAL_UIDL_PLACEHOLDER);
+
+        private final List<String> segments = new ArrayList<>();
+        private final List<String> placeholders = new ArrayList<>();
+        private final int length;
+
+        private BootstrapJsTemplate(String template) {
+            int start = 0;
+            int index = template.indexOf("{{");
+            while (index != -1) {
+                int placeholderEnd = template.indexOf("}}", index) + 2;
+                String placeholder = placeholderEnd < 2 ? null
+                        : template.substring(index, placeholderEnd);
+                if (PLACEHOLDERS.contains(placeholder)) {
+                    segments.add(template.substring(start, index));
+                    placeholders.add(placeholder);
+                    start = placeholderEnd;
+                    index = template.indexOf("{{", start);
+                } else {
+                    index = template.indexOf("{{", index + 2);
+                }
+            }
+            segments.add(template.substring(start));
+            length = template.length();
+        }
+
+        private String render(Map<String, String> values) {
+            int size = length;
+            for (String value : values.values()) {
+                size += value.length();
+            }
+            StringBuilder builder = new StringBuilder(size);
+            for (int i = 0; i < placeholders.size(); i++) {
+                builder.append(segments.get(i))
+                        .append(values.get(placeholders.get(i)));
+            }
+            builder.append(segments.get(segments.size() - 1));
+            return builder.toString();
+        }
+    }
+
     /**
      * Provides context information for the bootstrap process.
      */
@@ -913,7 +976,7 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
             BootstrapContext context) {
         boolean productionMode = context.getSession().getConfiguration()
                 .isProductionMode();
-        String result = getBootstrapJS();
+        BootstrapJsTemplate template = getBootstrapJsTemplate(productionMode);
         JsonObject appConfig = context.getApplicationParameters();
 
         int indent = 0;
@@ -935,19 +998,14 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
          */
         initialUIDLString = initialUIDLString.replace("<", "\\x3C");
 
-        if (!productionMode) {
-            // only used in debug mode by profiler
-            result = result.replace("{{GWT_STAT_EVENTS}}", GWT_STAT_EVENTS_JS);
-        } else {
-            result = result.replace("{{GWT_STAT_EVENTS}}", "");
-        }
+        Map<String, String> values = new HashMap<>();
+        values.put(APP_ID_PLACEHOLDER, context.getAppId());
+        values.put(CONFIG_JSON_PLACEHOLDER, appConfigString);
+        // Values are never searched for placeholders, so {{INITIAL_UIDL}} may
+        // have other patterns inside it (like {{CONFIG_JSON}})
+        values.put(INITIAL_UIDL_PLACEHOLDER, initialUIDLString);
 
-        result = result.replace("{{APP_ID}}", context.getAppId());
-        result = result.replace("{{CONFIG_JSON}}", appConfigString);
-        // {{INITIAL_UIDL}} should be the last replaced so that it may have
-        // other patterns inside it (like {{CONFIG_JSON}})
-        result = result.replace("{{INITIAL_UIDL}}", initialUIDLString);
-        return result;
+        return template.render(values);
     }
 
     protected static JsonObject getApplicationParameters(
@@ -957,6 +1015,12 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
 
         appConfig.put(ApplicationConstants.UI_ID_PARAMETER,
                 context.getUI().getUIId());
+
+        if (context.getSession().getConfiguration()
+                .isSessionConstantPoolEnabled()) {
+            appConfig.put(ApplicationConstants.CONSTANT_POOL_ID,
+                    context.getSession().getConstantPool().getId());
+        }
         return appConfig;
     }
 
@@ -1095,6 +1159,13 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         pushConfiguration.setPushUrl(deploymentConfiguration.getPushURL());
         push.map(Push::transport).ifPresent(pushConfiguration::setTransport);
 
+        if (deploymentConfiguration.isSessionConstantPoolEnabled()) {
+            SessionConstantPool constantPool = session.getConstantPool();
+            ui.getInternals().getConstantPool().setSessionConstantPool(
+                    constantPool,
+                    hasCachedConstants(request, constantPool.getId()));
+        }
+
         // Set thread local here so it is available in init
         UI.setCurrent(ui);
         ui.doInit(request, session.getNextUIid());
@@ -1108,6 +1179,18 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         return context;
     }
 
+    private static boolean hasCachedConstants(VaadinRequest request,
+            String constantPoolId) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        return Stream.of(cookies)
+                .filter(cookie -> ApplicationConstants.CONSTANT_POOL_COOKIE
+                        .equals(cookie.getName()))
+                .anyMatch(cookie -> constantPoolId.equals(cookie.getValue()));
+    }
+
     protected void setupPushConnectionFactory(
             PushConfiguration pushConfiguration, BootstrapContext context) {
         VaadinService service = context.getSession().getService();
@@ -1187,12 +1270,15 @@ public class BootstrapHandler extends SynchronizedRequestHandler {
         }
     }
 
-    private static String getBootstrapJS() {
+    private static BootstrapJsTemplate getBootstrapJsTemplate(
+            boolean productionMode) {
         if (BOOTSTRAP_JS.isEmpty()) {
             throw new BootstrapException(
                     "BootstrapHandler.js has not been loaded during initialization");
         }
-        return BOOTSTRAP_JS;
+        // GWT stat events are only used in debug mode by profiler
+        return productionMode ? BOOTSTRAP_JS_TEMPLATE_PRODUCTION
+                : BOOTSTRAP_JS_TEMPLATE_DEVELOPMENT;
     }
 
     private static String getClientEngineUrl(BootstrapContext context) {
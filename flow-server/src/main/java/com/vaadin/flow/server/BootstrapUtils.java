@@ -21,6 +21,7 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -276,6 +277,13 @@ class BootstrapUtils {
                 .filter(string -> !string.isEmpty()).map(Charset::forName)
                 .orElse(StandardCharsets.UTF_8);
 
+        return request.getService().getInlineResourceCache().getContents(
+                Arrays.asList(file, requestCharset),
+                () -> readDependencyContents(request, file, requestCharset));
+    }
+
+    private static String readDependencyContents(VaadinRequest request,
+            String file, Charset requestCharset) {
         try (InputStream inlineResourceStream = getInlineResourceStream(request,
                 file);
                 BufferedReader bufferedReader = new BufferedReader(
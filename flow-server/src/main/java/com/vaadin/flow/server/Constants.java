@@ -91,6 +91,70 @@ public final class Constants implements Serializable {
      */
     public static final String I18N_PROVIDER = "i18n.provider";
 
+    /**
+     * Configuration name for the parameter that determines if each UI should
+     * be locked separately instead of locking the whole session while handling
+     * UIDL requests and {@link com.vaadin.flow.component.UI#access(Command)}
+     * tasks.
+     */
+    public static final String UI_LOCKING = "ui.locking";
+
+    /**
+     * Configuration name for the parameter that determines the maximum number
+     * of inline resource contents cached in production mode.
+     */
+    public static final String INLINE_RESOURCE_CACHE_SIZE = "inlineResourceCacheSize";
+
+    /**
+     * Default maximum number of inline resource contents cached in production
+     * mode.
+     */
+    public static final int DEFAULT_INLINE_RESOURCE_CACHE_SIZE = 256;
+
+    /**
+     * Configuration name for the parameter that determines the maximum number
+     * of bytes of static resources cached in memory in production mode.
+     */
+    public static final String STATIC_RESOURCE_CACHE_SIZE = "staticResourceCacheSize";
+
+    /**
+     * Configuration name for the parameter that determines if constants such
+     * as event data expressions should be shared between all UIs of a session
+     * and cached by the browser.
+     */
+    public static final String SESSION_CONSTANT_POOL = "sessionConstantPool";
+
+    /**
+     * Configuration name for the parameter that determines if state tree
+     * changes should be sent to the client using the compact array based
+     * format instead of JSON objects.
+     */
+    public static final String COMPACT_CHANGE_FORMAT = "compactChangeFormat";
+
+    /**
+     * Configuration name for the parameter that determines the minimum
+     * interval in milliseconds between automatic pushes of a UI.
+     */
+    public static final String PUSH_INTERVAL = "pushInterval";
+
+    /**
+     * Configuration name for the parameter that determines how many pushed
+     * messages may wait to be sent to a client before the push connection of
+     * the client is closed.
+     */
+    public static final String PUSH_MAX_PENDING_MESSAGES = "pushMaxPendingMessages";
+
+    /**
+     * Default number of pushed messages that may wait to be sent to a client.
+     */
+    public static final int DEFAULT_PUSH_MAX_PENDING_MESSAGES = 100;
+
+    /**
+     * Configuration name for the parameter that determines the interval in
+     * seconds between background cleanups of inactive UIs and sessions.
+     */
+    public static final String SESSION_CLEANUP_INTERVAL = "sessionCleanupInterval";
+
     private Constants() {
         // prevent instantiation constants class only
     }
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Service scoped cache for the contents of resources that are inlined into
+ * responses, e.g. dependencies using
+ * {@link com.vaadin.flow.shared.ui.LoadMode#INLINE} and files added with
+ * {@link com.vaadin.flow.component.page.Inline}.
+ * <p>
+ * The cache holds at most a configured number of entries and evicts the least
+ * recently used entry when full. A cache with a maximum size of zero doesn't
+ * store anything, which is used in development mode where resources may
+ * change at any time.
+ *
+ * @see VaadinService#getInlineResourceCache()
+ * @see Constants#INLINE_RESOURCE_CACHE_SIZE
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public class InlineResourceCache implements Serializable {
+
+    private final int maxEntries;
+
+    private final Map<Object, String> contents;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Creates a new cache holding at most the given number of entries.
+     *
+     * @param maxEntries
+     *            the maximum number of entries to keep, or <code>0</code> to
+     *            not cache anything
+     */
+    public InlineResourceCache(int maxEntries) {
+        if (maxEntries < 0) {
+            throw new IllegalArgumentException(
+                    "Max entries cannot be negative: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        contents = new LinkedHashMap<Object, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<Object, String> eldest) {
+                return size() > InlineResourceCache.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Gets the cached contents for the given key, or reads the contents using
+     * the given loader if there is no cached value.
+     * <p>
+     * The loader is run without holding any locks, so the same contents may
+     * be read concurrently by several threads on a cache miss.
+     *
+     * @param key
+     *            the key identifying the contents, e.g. the resource URL
+     *            together with everything that affects how it is resolved, not
+     *            <code>null</code>
+     * @param loader
+     *            the loader reading the contents if they are not cached, not
+     *            <code>null</code>
+     * @return the resource contents
+     */
+    public String getContents(Object key, Supplier<String> loader) {
+        Objects.requireNonNull(key, "Key cannot be null");
+        Objects.requireNonNull(loader, "Loader cannot be null");
+
+        if (maxEntries == 0) {
+            missCount.incrementAndGet();
+            return loader.get();
+        }
+
+        String value;
+        synchronized (contents) {
+            value = contents.get(key);
+        }
+        if (value != null) {
+            hitCount.incrementAndGet();
+            return value;
+        }
+
+        missCount.incrementAndGet();
+        value = loader.get();
+        if (value != null) {
+            synchronized (contents) {
+                contents.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Removes all cached contents.
+     */
+    public void clear() {
+        synchronized (contents) {
+            contents.clear();
+        }
+    }
+
+    /**
+     * Gets the number of currently cached entries.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        synchronized (contents) {
+            return contents.size();
+        }
+    }
+
+    /**
+     * Gets the number of times contents have been found in the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the number of times contents have been read using the loader.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Gets the ratio of cache hits to all lookups.
+     *
+     * @return the hit rate between <code>0</code> and <code>1</code>, or
+     *         <code>0</code> if there have been no lookups
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Output stream consumer which can also write only a part of the data. Used
+ * for serving HTTP range requests of a {@link StreamResource} with a known
+ * content length without producing the data before the requested range.
+ *
+ * @see StreamResource#setContentLength(long)
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public interface RangedStreamResourceWriter extends StreamResourceWriter {
+
+    /**
+     * Writes {@code length} bytes of the data starting from {@code offset}
+     * into {@code stream} using {@code session} as a context.
+     * <p>
+     * Like {@link #accept(OutputStream, VaadinSession)}, the method is not
+     * called under the session lock.
+     *
+     * @param stream
+     *            data output stream
+     * @param session
+     *            vaadin session
+     * @param offset
+     *            the position of the first byte to write
+     * @param length
+     *            the number of bytes to write
+     * @throws IOException
+     *             if an IO error occurred
+     */
+    void accept(OutputStream stream, VaadinSession session, long offset,
+            long length) throws IOException;
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.internal.CurrentInstance;
+
+/**
+ * Closes inactive UIs, removes closed UIs and closes inactive sessions in the
+ * background instead of at the end of every request.
+ * <p>
+ * Sessions are registered when they handle requests and are swept at a fixed
+ * interval by a single background thread. A session that is locked by another
+ * thread when it is swept is skipped until the next sweep, so the sweeper
+ * never waits for the lock of a session. Inactive UIs and sessions are thus
+ * closed at most one interval later than they would be when cleaning up at
+ * the end of each request.
+ *
+ * @see VaadinService#getSessionSweeper()
+ * @see Constants#SESSION_CLEANUP_INTERVAL
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public class SessionSweeper implements Serializable {
+
+    private final VaadinService service;
+
+    private final long interval;
+
+    private final Set<VaadinSession> sessions = ConcurrentHashMap.newKeySet();
+
+    private transient ScheduledExecutorService executor;
+
+    private transient boolean shutdown;
+
+    private final AtomicLong sweepCount = new AtomicLong();
+
+    private final AtomicLong skippedCount = new AtomicLong();
+
+    /**
+     * Creates a new sweeper for the sessions of the given service.
+     *
+     * @param service
+     *            the service whose sessions to sweep, not <code>null</code>
+     * @param interval
+     *            the interval between sweeps in seconds, or <code>0</code> to
+     *            clean up sessions at the end of each request instead
+     */
+    public SessionSweeper(VaadinService service, long interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException(
+                    "Cleanup interval cannot be negative: " + interval);
+        }
+        this.service = service;
+        this.interval = interval;
+    }
+
+    /**
+     * Checks whether sessions are cleaned up by this sweeper.
+     *
+     * @return <code>true</code> if sessions are cleaned up in the background,
+     *         <code>false</code> if they should be cleaned up at the end of
+     *         each request
+     */
+    public boolean isEnabled() {
+        return interval > 0;
+    }
+
+    /**
+     * Gets the interval between sweeps.
+     *
+     * @return the interval in seconds
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Registers a session to be cleaned up by this sweeper. Registering a
+     * session again has no effect. The background thread is started when the
+     * first session is registered. Sessions registered after the sweeper has
+     * been shut down are ignored.
+     *
+     * @param session
+     *            the session to register, not <code>null</code>
+     */
+    public void register(VaadinSession session) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Session sweeper is not enabled");
+        }
+        if (sessions.add(session) && !ensureStarted()) {
+            sessions.remove(session);
+        }
+    }
+
+    /**
+     * Stops cleaning up the given session, e.g. because it has been
+     * destroyed.
+     *
+     * @param session
+     *            the session to unregister
+     */
+    public void unregister(VaadinSession session) {
+        sessions.remove(session);
+    }
+
+    /**
+     * Cleans up all registered sessions that are not currently locked.
+     * Normally run by the background thread at the configured interval.
+     */
+    public void sweep() {
+        for (VaadinSession session : new ArrayList<>(sessions)) {
+            try {
+                sweep(session);
+            } catch (Exception e) {
+                getLogger().error("Error cleaning up session", e);
+            }
+        }
+        sweepCount.incrementAndGet();
+    }
+
+    private void sweep(VaadinSession session) {
+        if (session.getState() == VaadinSessionState.CLOSED) {
+            sessions.remove(session);
+            return;
+        }
+        Lock lock = session.getLockInstance();
+        if (lock == null) {
+            // Not initialized after deserialization, the next request to the
+            // session registers it again
+            sessions.remove(session);
+            return;
+        }
+        if (!lock.tryLock()) {
+            // Busy, try again on the next sweep
+            skippedCount.incrementAndGet();
+            return;
+        }
+        Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
+                .setCurrent(session);
+        try {
+            service.cleanupSession(session);
+        } finally {
+            try {
+                session.unlock();
+            } finally {
+                CurrentInstance.restoreInstances(oldCurrent);
+            }
+        }
+    }
+
+    private synchronized boolean ensureStarted() {
+        if (shutdown) {
+            return false;
+        }
+        if (executor == null) {
+            ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(
+                    1, runnable -> {
+                        Thread thread = new Thread(runnable,
+                                "vaadin-session-sweeper");
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.scheduleWithFixedDelay(this::sweep, interval, interval,
+                    TimeUnit.SECONDS);
+            executor = pool;
+        }
+        return true;
+    }
+
+    /**
+     * Stops the background thread and forgets all registered sessions. The
+     * sweeper cannot be started again.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        sessions.clear();
+    }
+
+    /**
+     * Gets the number of sessions currently registered.
+     *
+     * @return the number of registered sessions
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Gets the number of completed sweeps.
+     *
+     * @return the number of sweeps
+     */
+    public long getSweepCount() {
+        return sweepCount.get();
+    }
+
+    /**
+     * Gets the number of times a session was skipped because it was locked by
+     * another thread.
+     *
+     * @return the number of skipped session cleanups
+     */
+    public long getSkippedCount() {
+        return skippedCount.get();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(SessionSweeper.class.getName());
+    }
+}
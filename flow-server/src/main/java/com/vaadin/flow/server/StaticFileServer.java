@@ -28,6 +28,7 @@ import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.ResponseWriter;
+import com.vaadin.flow.server.StaticResourceCache.CachedResource;
 import com.vaadin.flow.shared.ApplicationConstants;
 
 /**
@@ -44,7 +45,7 @@ import com.vaadin.flow.shared.ApplicationConstants;
  * @since 1.0
  */
 public class StaticFileServer implements Serializable {
-    private final ResponseWriter responseWriter = new ResponseWriter();
+    private final ResponseWriter responseWriter;
     private final VaadinServletService servletService;
     private DeploymentConfiguration deploymentConfiguration;
 
@@ -58,6 +59,8 @@ public class StaticFileServer implements Serializable {
         this.servletService = servletService;
         this.deploymentConfiguration = servletService
                 .getDeploymentConfiguration();
+        responseWriter = new ResponseWriter(
+                servletService.getStaticResourceCache());
     }
 
     /**
@@ -84,6 +87,10 @@ public class StaticFileServer implements Serializable {
             // We rather serve 404 than let it fall through
             return true;
         }
+        StaticResourceCache cache = servletService.getStaticResourceCache();
+        if (cache != null && cache.contains(requestFilename)) {
+            return true;
+        }
         resource = servletService.getStaticResource(requestFilename);
 
         return resource != null;
@@ -106,12 +113,17 @@ public class StaticFileServer implements Serializable {
     public boolean serveStaticResource(HttpServletRequest request,
             HttpServletResponse response) throws IOException {
         String filenameWithPath = getRequestFilename(request);
-        URL resourceUrl = servletService.getStaticResource(filenameWithPath);
-
-        if (resourceUrl == null) {
-            // Not found in webcontent or in META-INF/resources in some JAR
-            response.sendError(HttpServletResponse.SC_NOT_FOUND);
-            return true;
+        StaticResourceCache cache = servletService.getStaticResourceCache();
+        CachedResource cachedResource = cache == null ? null
+                : cache.getIfPresent(filenameWithPath);
+        URL resourceUrl = null;
+        if (cachedResource == null) {
+            resourceUrl = servletService.getStaticResource(filenameWithPath);
+            if (resourceUrl == null) {
+                // Not found in webcontent or in META-INF/resources in some JAR
+                response.sendError(HttpServletResponse.SC_NOT_FOUND);
+                return true;
+            }
         }
 
         // There is a resource!
@@ -119,16 +131,30 @@ public class StaticFileServer implements Serializable {
         // Intentionally writing cache headers also for 304 responses
         writeCacheHeaders(filenameWithPath, response);
 
-        long timestamp = writeModificationTimestamp(resourceUrl, request,
-                response);
-        if (browserHasNewestVersion(request, timestamp)) {
+        long timestamp;
+        if (cachedResource != null) {
+            timestamp = cachedResource.getLastModified();
+            timestamp = timestamp - timestamp % 1000;
+            response.setDateHeader("Last-Modified", timestamp);
+        } else {
+            timestamp = writeModificationTimestamp(resourceUrl, request,
+                    response);
+        }
+        // If-None-Match takes precedence and is checked by the response writer
+        if (request.getHeader("If-None-Match") == null
+                && browserHasNewestVersion(request, timestamp)) {
             // Browser is up to date, nothing further to do than set the
             // response code
             response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
             return true;
         }
-        responseWriter.writeResponseContents(filenameWithPath, resourceUrl,
-                request, response);
+        if (cachedResource != null) {
+            responseWriter.writeResponseContents(filenameWithPath,
+                    cachedResource, request, response);
+        } else {
+            responseWriter.writeResponseContents(filenameWithPath, resourceUrl,
+                    request, response);
+        }
         return true;
     }
 
@@ -0,0 +1,339 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Service scoped cache for static resources served by {@link StaticFileServer}
+ * and {@link com.vaadin.flow.server.webjar.WebJarServer}, including their
+ * precompressed variants.
+ * <p>
+ * The cache holds resources up to a configured total number of bytes and
+ * evicts the least recently used resources when full. A cache with a maximum
+ * size of zero doesn't store anything, which is used in development mode where
+ * resources may change at any time.
+ *
+ * @see VaadinService#getStaticResourceCache()
+ * @see Constants#STATIC_RESOURCE_CACHE_SIZE
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public class StaticResourceCache implements Serializable {
+
+    /**
+     * The contents of a resource with a specific content encoding.
+     */
+    public static final class CachedContent implements Serializable {
+        private final byte[] data;
+        private final String eTag;
+
+        /**
+         * Creates new resource contents.
+         *
+         * @param data
+         *            the bytes of the resource, not <code>null</code>
+         * @param eTag
+         *            the entity tag of the contents, or <code>null</code> if
+         *            not known
+         */
+        public CachedContent(byte[] data, String eTag) {
+            this.data = Objects.requireNonNull(data);
+            this.eTag = eTag;
+        }
+
+        /**
+         * Gets the bytes of the resource. The returned array must not be
+         * modified.
+         *
+         * @return the resource bytes, not <code>null</code>
+         */
+        public byte[] getData() {
+            return data;
+        }
+
+        /**
+         * Gets the entity tag of the contents.
+         *
+         * @return the entity tag, or <code>null</code> if not known
+         */
+        public String getETag() {
+            return eTag;
+        }
+    }
+
+    /**
+     * A resource with its contents for each available content encoding.
+     */
+    public static final class CachedResource implements Serializable {
+        private final long lastModified;
+        private final Map<String, CachedContent> contents;
+
+        /**
+         * Creates a new resource.
+         *
+         * @param lastModified
+         *            the last modification timestamp of the resource, or
+         *            <code>-1</code> if not known
+         * @param contents
+         *            a map from content encodings to contents, where the
+         *            uncompressed contents use the <code>identity</code>
+         *            encoding, not <code>null</code>
+         */
+        public CachedResource(long lastModified,
+                Map<String, CachedContent> contents) {
+            this.lastModified = lastModified;
+            this.contents = Collections
+                    .unmodifiableMap(new HashMap<>(contents));
+        }
+
+        /**
+         * Gets the last modification timestamp of the resource.
+         *
+         * @return the timestamp, or <code>-1</code> if not known
+         */
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Gets the contents of the resource with the given content encoding.
+         *
+         * @param encoding
+         *            the content encoding, e.g. <code>gzip</code> or
+         *            <code>identity</code>
+         * @return the contents, or <code>null</code> if the resource is not
+         *         available with the encoding
+         */
+        public CachedContent getContent(String encoding) {
+            return contents.get(encoding);
+        }
+
+        private long getSize() {
+            return contents.values().stream()
+                    .mapToLong(content -> content.getData().length).sum();
+        }
+    }
+
+    private final long maxBytes;
+
+    private final Map<String, CachedResource> resources = new LinkedHashMap<>(
+            16, 0.75f, true);
+
+    private long cachedBytes;
+
+    private final AtomicLong hitCount = new AtomicLong();
+
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * Creates a new cache holding resources up to the given total size.
+     *
+     * @param maxBytes
+     *            the maximum number of bytes to keep, or <code>0</code> to not
+     *            cache anything
+     */
+    public StaticResourceCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException(
+                    "Max bytes cannot be negative: " + maxBytes);
+        }
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Checks whether the cache stores anything.
+     *
+     * @return <code>true</code> if resources are cached, <code>false</code>
+     *         if the maximum size is zero
+     */
+    public boolean isEnabled() {
+        return maxBytes > 0;
+    }
+
+    /**
+     * Gets the maximum total size of the cached resources.
+     *
+     * @return the maximum number of bytes
+     */
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    /**
+     * Gets the cached resource for the given path, or reads the resource
+     * using the given loader if there is no cached value.
+     * <p>
+     * The loader is run without holding any locks, so the same resource may be
+     * read concurrently by several threads on a cache miss. Resources larger
+     * than the maximum size of the cache are not stored.
+     *
+     * @param path
+     *            the path of the resource, not <code>null</code>
+     * @param loader
+     *            the loader reading the resource if it is not cached, not
+     *            <code>null</code>
+     * @return the resource, or <code>null</code> if the loader didn't
+     *         provide it
+     */
+    public CachedResource getResource(String path,
+            Supplier<CachedResource> loader) {
+        Objects.requireNonNull(path, "Path cannot be null");
+        Objects.requireNonNull(loader, "Loader cannot be null");
+
+        CachedResource resource = getIfPresent(path);
+        if (resource != null) {
+            return resource;
+        }
+
+        missCount.incrementAndGet();
+        resource = loader.get();
+        if (resource != null && isEnabled()) {
+            put(path, resource);
+        }
+        return resource;
+    }
+
+    /**
+     * Gets the cached resource for the given path if it is cached. A hit is
+     * counted if the resource is found, but a miss is not counted since the
+     * resource is expected to be read using
+     * {@link #getResource(String, Supplier)} in that case.
+     *
+     * @param path
+     *            the path of the resource, not <code>null</code>
+     * @return the cached resource, or <code>null</code> if not cached
+     */
+    public CachedResource getIfPresent(String path) {
+        if (!isEnabled()) {
+            return null;
+        }
+        CachedResource resource;
+        synchronized (resources) {
+            resource = resources.get(path);
+        }
+        if (resource != null) {
+            hitCount.incrementAndGet();
+        }
+        return resource;
+    }
+
+    /**
+     * Checks whether a resource is cached for the given path without affecting
+     * the hit and miss counts or the eviction order.
+     *
+     * @param path
+     *            the path of the resource, not <code>null</code>
+     * @return <code>true</code> if the resource is cached, otherwise
+     *         <code>false</code>
+     */
+    public boolean contains(String path) {
+        synchronized (resources) {
+            return resources.containsKey(path);
+        }
+    }
+
+    private void put(String path, CachedResource resource) {
+        long size = resource.getSize();
+        if (size > maxBytes) {
+            return;
+        }
+        synchronized (resources) {
+            CachedResource previous = resources.put(path, resource);
+            if (previous != null) {
+                cachedBytes -= previous.getSize();
+            }
+            cachedBytes += size;
+
+            Iterator<CachedResource> iterator = resources.values().iterator();
+            while (cachedBytes > maxBytes) {
+                cachedBytes -= iterator.next().getSize();
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes all cached resources.
+     */
+    public void clear() {
+        synchronized (resources) {
+            resources.clear();
+            cachedBytes = 0;
+        }
+    }
+
+    /**
+     * Gets the number of currently cached resources.
+     *
+     * @return the number of resources
+     */
+    public int size() {
+        synchronized (resources) {
+            return resources.size();
+        }
+    }
+
+    /**
+     * Gets the total number of bytes of the currently cached resources,
+     * including all content encodings.
+     *
+     * @return the number of cached bytes
+     */
+    public long getCachedBytes() {
+        synchronized (resources) {
+            return cachedBytes;
+        }
+    }
+
+    /**
+     * Gets the number of times a resource has been found in the cache.
+     *
+     * @return the number of cache hits
+     */
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    /**
+     * Gets the number of times a resource has been read using the loader.
+     *
+     * @return the number of cache misses
+     */
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * Gets the ratio of cache hits to all lookups.
+     *
+     * @return the hit rate between <code>0</code> and <code>1</code>, or
+     *         <code>0</code> if there have been no lookups
+     */
+    public double getHitRate() {
+        long hits = getHitCount();
+        long total = hits + getMissCount();
+        return total == 0 ? 0 : (double) hits / total;
+    }
+}
@@ -17,6 +17,8 @@ package com.vaadin.flow.server;
 
 import javax.servlet.ServletContext;
 
+import org.apache.commons.io.IOUtils;
+
 import com.vaadin.flow.function.ContentTypeResolver;
 
 import java.io.IOException;
@@ -46,6 +48,10 @@ public class StreamResource extends AbstractStreamResource {
 
     private ContentTypeResolver resolver = DEFAULT_RESOLVER;
 
+    private long contentLength = -1;
+
+    private String eTag;
+
     private static class DefaultResolver implements ContentTypeResolver {
 
         @Override
@@ -56,7 +62,7 @@ public class StreamResource extends AbstractStreamResource {
 
     }
 
-    private static class Pipe implements StreamResourceWriter {
+    private static class Pipe implements RangedStreamResourceWriter {
 
         private static final int BUFFER_SIZE = 1024;
 
@@ -70,7 +76,16 @@ public class StreamResource extends AbstractStreamResource {
         public void accept(OutputStream stream, VaadinSession session)
                 throws IOException {
             try (InputStream input = createInputStream(session)) {
-                copy(session, input, stream);
+                copy(session, input, stream, Long.MAX_VALUE);
+            }
+        }
+
+        @Override
+        public void accept(OutputStream stream, VaadinSession session,
+                long offset, long length) throws IOException {
+            try (InputStream input = createInputStream(session)) {
+                skip(session, input, offset);
+                copy(session, input, stream, length);
             }
         }
 
@@ -84,25 +99,42 @@ public class StreamResource extends AbstractStreamResource {
         }
 
         private void copy(VaadinSession session, InputStream source,
-                OutputStream out) throws IOException {
+                OutputStream out, long limit) throws IOException {
             byte[] buf = new byte[BUFFER_SIZE];
+            long remaining = limit;
             int n;
-            while ((n = read(session, source, buf)) > 0) {
+            while (remaining > 0 && (n = read(session, source, buf,
+                    (int) Math.min(buf.length, remaining))) > 0) {
                 out.write(buf, 0, n);
+                remaining -= n;
+            }
+        }
+
+        private void skip(VaadinSession session, InputStream source,
+                long count) throws IOException {
+            if (factory.requiresLock()) {
+                session.lock();
+                try {
+                    IOUtils.skipFully(source, count);
+                } finally {
+                    session.unlock();
+                }
+            } else {
+                IOUtils.skipFully(source, count);
             }
         }
 
         private int read(VaadinSession session, InputStream source,
-                byte[] buffer) throws IOException {
+                byte[] buffer, int length) throws IOException {
             if (factory.requiresLock()) {
                 session.lock();
                 try {
-                    return source.read(buffer);
+                    return source.read(buffer, 0, length);
                 } finally {
                     session.unlock();
                 }
             } else {
-                return source.read(buffer);
+                return source.read(buffer, 0, length);
             }
         }
     }
@@ -213,6 +245,74 @@ public class StreamResource extends AbstractStreamResource {
         return resolver;
     }
 
+    /**
+     * Sets the length of the resource data in bytes.
+     * <p>
+     * When the length is known, it is sent in the <code>Content-Length</code>
+     * header and the resource can be downloaded in parts using HTTP range
+     * requests, e.g. to resume a download or to seek in a media file. The
+     * length must match the number of bytes produced by the writer of the
+     * resource. If the writer is a {@link RangedStreamResourceWriter}, such as
+     * the writer used with an {@link InputStreamFactory}, only the requested
+     * part of the data is produced.
+     *
+     * @param contentLength
+     *            the length of the data in bytes, or <code>-1</code> if not
+     *            known
+     * @return this resource
+     */
+    public StreamResource setContentLength(long contentLength) {
+        if (contentLength < -1) {
+            throw new IllegalArgumentException(
+                    "Content length cannot be negative: " + contentLength);
+        }
+        this.contentLength = contentLength;
+        return this;
+    }
+
+    /**
+     * Gets the length of the resource data in bytes.
+     *
+     * @return the length of the data, or <code>-1</code> if not known
+     */
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    /**
+     * Sets the entity tag identifying the current version of the resource
+     * data.
+     * <p>
+     * The entity tag is sent in the <code>ETag</code> header, which allows the
+     * browser to revalidate a cached copy of the resource without downloading
+     * it again and to safely resume a partial download. The tag must change
+     * whenever the data changes.
+     *
+     * @param eTag
+     *            the entity tag without surrounding quotes, or
+     *            <code>null</code> to not send an entity tag
+     * @return this resource
+     */
+    public StreamResource setETag(String eTag) {
+        if (eTag != null && eTag.indexOf('"') >= 0) {
+            throw new IllegalArgumentException(
+                    "Entity tag cannot contain quotes: " + eTag);
+        }
+        this.eTag = eTag;
+        return this;
+    }
+
+    /**
+     * Gets the entity tag identifying the current version of the resource
+     * data.
+     *
+     * @return the entity tag without surrounding quotes, or <code>null</code>
+     *         if not set
+     */
+    public String getETag() {
+        return eTag;
+    }
+
     @Override
     public String getName() {
         return fileName;
@@ -18,9 +18,9 @@ package com.vaadin.flow.server;
 import java.io.Serializable;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.vaadin.flow.server.communication.StreamRequestHandler;
 
@@ -32,7 +32,7 @@ import com.vaadin.flow.server.communication.StreamRequestHandler;
  */
 public class StreamResourceRegistry implements Serializable {
 
-    private final Map<URI, AbstractStreamResource> res = new HashMap<>();
+    private final Map<URI, AbstractStreamResource> res = new ConcurrentHashMap<>();
 
     private final VaadinSession session;
 
@@ -56,6 +56,7 @@ public class StreamResourceRegistry implements Serializable {
         @Override
         public void unregister() {
             registry.res.remove(getResourceUri());
+            registry.session.markAsModified();
         }
 
         @Override
@@ -93,11 +94,13 @@ public class StreamResourceRegistry implements Serializable {
      */
     public StreamRegistration registerResource(
             AbstractStreamResource resource) {
-        session.checkHasLock(
+        // The registry is concurrent, so holding the lock of a UI is enough
+        session.checkHasSharedLock(
                 "Session needs to be locked when registering stream resources.");
         StreamRegistration registration = new Registration(this,
                 resource.getId(), resource.getName());
         res.put(registration.getResourceUri(), resource);
+        session.markAsModified();
         return registration;
     }
 
@@ -109,6 +112,7 @@ public class StreamResourceRegistry implements Serializable {
      */
     public void unregisterResource(StreamReceiver resource) {
         res.remove(getURI(resource));
+        session.markAsModified();
     }
 
     /**
@@ -147,7 +151,7 @@ public class StreamResourceRegistry implements Serializable {
      *         been registered with this URI
      */
     public Optional<AbstractStreamResource> getResource(URI uri) {
-        session.checkHasLock();
+        session.checkHasSharedLock();
         return Optional.ofNullable(res.get(uri));
     }
 
@@ -165,7 +169,7 @@ public class StreamResourceRegistry implements Serializable {
      */
     public <T extends AbstractStreamResource> Optional<T> getResource(
             Class<T> type, URI uri) {
-        session.checkHasLock();
+        session.checkHasSharedLock();
         AbstractStreamResource abstractStreamResource = res.get(uri);
         if (abstractStreamResource != null
                 && type.isAssignableFrom(abstractStreamResource.getClass())) {
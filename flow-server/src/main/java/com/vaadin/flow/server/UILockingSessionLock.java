@@ -0,0 +1,148 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import com.vaadin.flow.component.UI;
+
+/**
+ * Session lock used when UI locking is enabled using
+ * {@link com.vaadin.flow.server.Constants#UI_LOCKING}.
+ * <p>
+ * The lock can be held either exclusively or in shared mode. The exclusive
+ * mode is used through the regular {@link ReentrantLock} API and thus through
+ * {@link VaadinSession#lock()} and {@link VaadinSession#unlock()}. It gives
+ * exclusive access to the session and all its UIs, in the same way as the
+ * regular session lock.
+ * <p>
+ * The shared mode is used while holding the lock of a single UI, see
+ * {@link VaadinSession#lockUI(UI)}. Any number of threads can hold the lock in
+ * shared mode at the same time, which allows handling requests for different
+ * UIs of the same session concurrently. The exclusive lock cannot be acquired
+ * while some thread holds the lock in shared mode.
+ * <p>
+ * A thread that holds the lock in shared mode cannot acquire the exclusive
+ * lock, since that would deadlock. Such attempts fail with an
+ * {@link IllegalStateException}.
+ *
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public class UILockingSessionLock extends ReentrantLock {
+
+    private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+
+    /**
+     * Acquires the lock in shared mode, blocking until no other thread holds
+     * the lock exclusively.
+     */
+    public void lockShared() {
+        gate.readLock().lock();
+    }
+
+    /**
+     * Acquires the lock in shared mode only if no other thread holds the lock
+     * exclusively at the time of invocation.
+     *
+     * @return <code>true</code> if the lock was acquired, <code>false</code>
+     *         otherwise
+     */
+    public boolean tryLockShared() {
+        return gate.readLock().tryLock();
+    }
+
+    /**
+     * Releases the lock in shared mode.
+     */
+    public void unlockShared() {
+        gate.readLock().unlock();
+    }
+
+    /**
+     * Checks whether the current thread holds this lock in shared mode.
+     *
+     * @return <code>true</code> if the current thread holds the shared lock,
+     *         <code>false</code> otherwise
+     */
+    public boolean isSharedByCurrentThread() {
+        return gate.getReadHoldCount() > 0;
+    }
+
+    @Override
+    public void lock() {
+        checkNotShared();
+        gate.writeLock().lock();
+    }
+
+    @Override
+    public void lockInterruptibly() throws InterruptedException {
+        checkNotShared();
+        gate.writeLock().lockInterruptibly();
+    }
+
+    @Override
+    public boolean tryLock() {
+        return gate.writeLock().tryLock();
+    }
+
+    @Override
+    public boolean tryLock(long timeout, TimeUnit unit)
+            throws InterruptedException {
+        return gate.writeLock().tryLock(timeout, unit);
+    }
+
+    @Override
+    public void unlock() {
+        gate.writeLock().unlock();
+    }
+
+    @Override
+    public Condition newCondition() {
+        return gate.writeLock().newCondition();
+    }
+
+    @Override
+    public boolean isHeldByCurrentThread() {
+        return gate.isWriteLockedByCurrentThread();
+    }
+
+    @Override
+    public int getHoldCount() {
+        return gate.getWriteHoldCount();
+    }
+
+    @Override
+    public boolean isLocked() {
+        return gate.isWriteLocked();
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getName() + "[" + gate + "]";
+    }
+
+    private void checkNotShared() {
+        if (isSharedByCurrentThread() && !isHeldByCurrentThread()) {
+            throw new IllegalStateException(
+                    "Cannot lock the session while holding the lock of a UI in the session. "
+                            + "Use VaadinSession.access to run the task once the UI lock has been released.");
+        }
+    }
+}
@@ -29,6 +29,19 @@ public class UnsupportedBrowserHandler extends SynchronizedRequestHandler {
 
     public static final String CLOSING_BRACKET = "    }";
 
+    @Override
+    protected boolean canHandleRequest(VaadinRequest request) {
+        /*
+         * With UI locking, UIDL requests should not need the session lock.
+         * The browser has anyway been checked already when the page was
+         * loaded.
+         */
+        return !(ServletHelper.isRequestType(request,
+                ServletHelper.RequestType.UIDL)
+                && request.getService().getDeploymentConfiguration()
+                        .isUILockingEnabled());
+    }
+
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
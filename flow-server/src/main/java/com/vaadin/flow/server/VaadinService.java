@@ -36,6 +36,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.ServiceLoader;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -62,6 +63,7 @@ import com.vaadin.flow.server.ServletHelper.RequestType;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
 import com.vaadin.flow.server.communication.FaviconHandler;
 import com.vaadin.flow.server.communication.HeartbeatHandler;
+import com.vaadin.flow.server.communication.PushScheduler;
 import com.vaadin.flow.server.communication.PwaHandler;
 import com.vaadin.flow.server.communication.SessionRequestHandler;
 import com.vaadin.flow.server.communication.StreamRequestHandler;
@@ -187,6 +189,14 @@ public abstract class VaadinService implements Serializable {
 
     private Instantiator instantiator;
 
+    private transient volatile InlineResourceCache inlineResourceCache;
+
+    private transient volatile StaticResourceCache staticResourceCache;
+
+    private transient volatile PushScheduler pushScheduler;
+
+    private transient volatile SessionSweeper sessionSweeper;
+
     /**
      * Creates a new vaadin service based on a deployment configuration.
      *
@@ -573,6 +583,10 @@ public abstract class VaadinService implements Serializable {
      */
     public void fireSessionDestroy(VaadinSession vaadinSession) {
         final VaadinSession session = vaadinSession;
+        SessionSweeper sweeper = sessionSweeper;
+        if (sweeper != null) {
+            sweeper.unregister(session);
+        }
         session.access(() -> {
             if (session.getState() == VaadinSessionState.CLOSED) {
                 return;
@@ -729,7 +743,9 @@ public abstract class VaadinService implements Serializable {
             synchronized (VaadinService.class) {
                 lock = getSessionLock(wrappedSession);
                 if (lock == null) {
-                    lock = new ReentrantLock();
+                    lock = getDeploymentConfiguration().isUILockingEnabled()
+                            ? new UILockingSessionLock()
+                            : new ReentrantLock();
                     setSessionLock(wrappedSession, lock);
                 }
             }
@@ -769,6 +785,12 @@ public abstract class VaadinService implements Serializable {
         WrappedSession wrappedSession = getWrappedSession(request,
                 requestCanCreateSession);
 
+        VaadinSession existingSession = findActiveUILockingSession(request,
+                wrappedSession);
+        if (existingSession != null) {
+            return existingSession;
+        }
+
         try {
             lockSession(wrappedSession);
         } catch (IllegalStateException e) {
@@ -784,6 +806,51 @@ public abstract class VaadinService implements Serializable {
 
     }
 
+    /**
+     * Finds an already active session using UI locking while only holding the
+     * session lock in shared mode, so that requests for different UIs do not
+     * need to wait for each other. Returns <code>null</code> if the session
+     * does not use UI locking or if it has not yet been initialized for this
+     * service, in which case the session should be looked up while holding
+     * the session lock exclusively.
+     */
+    private VaadinSession findActiveUILockingSession(VaadinRequest request,
+            WrappedSession wrappedSession) {
+        if (wrappedSession == null
+                || hasParameter(request, URL_PARAMETER_RESTART_APPLICATION)
+                || hasParameter(request, URL_PARAMETER_CLOSE_APPLICATION)) {
+            return null;
+        }
+
+        Lock lock;
+        try {
+            lock = getSessionLock(wrappedSession);
+        } catch (IllegalStateException e) {
+            // Session has been invalidated
+            return null;
+        }
+        if (!(lock instanceof UILockingSessionLock)) {
+            return null;
+        }
+
+        UILockingSessionLock sessionLock = (UILockingSessionLock) lock;
+        sessionLock.lockShared();
+        try {
+            VaadinSession session = readFromHttpSession(wrappedSession);
+            if (session != null && session.getService() == this
+                    && session.getLockInstance() == sessionLock
+                    && session.getState() == VaadinSessionState.OPEN) {
+                return session;
+            }
+            return null;
+        } catch (IllegalStateException e) {
+            // Session has been invalidated
+            return null;
+        } finally {
+            sessionLock.unlockShared();
+        }
+    }
+
     /**
      * Finds or creates a Vaadin session. Assumes necessary synchronization has
      * been done by the caller to ensure this is not called simultaneously by
@@ -1427,11 +1494,31 @@ public abstract class VaadinService implements Serializable {
             VaadinSession session) {
         if (session != null) {
             assert VaadinSession.getCurrent() == session;
+            final long duration = (System.nanoTime() - (Long) request
+                    .getAttribute(REQUEST_START_TIME_ATTRIBUTE)) / 1000000;
+            SessionSweeper sweeper = getSessionSweeper();
+            if (sweeper.isEnabled()) {
+                // Cleaned up in the background, no need to lock the session
+                session.recordRequestDuration(duration);
+                sweeper.register(session);
+                CurrentInstance.clearAll();
+                return;
+            }
+            /*
+             * With UI locking, waiting for the session lock would make this
+             * request wait for all requests to other UIs in the session. The
+             * clean up is instead left for the thread that releases the lock
+             * if it is not available right away.
+             */
+            if (session.isUILockingEnabled()) {
+                session.recordRequestDuration(duration);
+                session.requestCleanup();
+                CurrentInstance.clearAll();
+                return;
+            }
             session.lock();
             try {
                 cleanupSession(session);
-                final long duration = (System.nanoTime() - (Long) request
-                        .getAttribute(REQUEST_START_TIME_ATTRIBUTE)) / 1000000;
                 session.setLastRequestDuration(duration);
             } finally {
                 session.unlock();
@@ -1918,6 +2005,75 @@ public abstract class VaadinService implements Serializable {
         }
     }
 
+    /**
+     * Implementation for {@link UI#access(Command)}. This method is implemented
+     * here instead of in {@link UI} to enable overriding the implementation
+     * without using a custom subclass of UI.
+     * <p>
+     * If {@link VaadinSession#isUILockingEnabled() UI locking} is not enabled,
+     * the command is enqueued using {@link #accessSession(VaadinSession,
+     * Command)}. Otherwise it is enqueued to be run while holding the lock of
+     * the UI.
+     *
+     * @see UI#access(Command)
+     *
+     * @param ui
+     *            the UI to access, not <code>null</code>
+     * @param command
+     *            the command to run with the UI locked
+     *
+     * @return a future that can be used to check for task completion and to
+     *         cancel the task
+     */
+    public Future<Void> accessUI(UI ui, Command command) {
+        VaadinSession session = ui.getSession();
+        if (!session.isUILockingEnabled()) {
+            return accessSession(session, command);
+        }
+
+        FutureAccess future = new FutureAccess(session, command);
+        ui.getInternals().getPendingAccessQueue().add(future);
+
+        ensureAccessQueuePurged(ui);
+
+        return future;
+    }
+
+    /**
+     * Makes sure the pending access queue is purged for the provided UI when
+     * {@link VaadinSession#isUILockingEnabled() UI locking} is enabled. If the
+     * UI or its session is currently locked, the queue will be purged when the
+     * lock is released. Otherwise, the UI lock is acquired and the queue is
+     * purged right away.
+     *
+     * @param ui
+     *            the UI for which the access queue should be purged
+     */
+    public void ensureAccessQueuePurged(UI ui) {
+        VaadinSession session = ui.getSession();
+        if (session == null || !session.isUILockingEnabled()) {
+            return;
+        }
+
+        // Same logic as for the session, see ensureAccessQueuePurged(session)
+        UILockingSessionLock sessionLock = (UILockingSessionLock) session
+                .getLockInstance();
+        if (sessionLock.tryLockShared()) {
+            boolean uiLocked = false;
+            try {
+                uiLocked = ui.getInternals().getLock().tryLock();
+            } finally {
+                if (!uiLocked) {
+                    sessionLock.unlockShared();
+                }
+            }
+            if (uiLocked) {
+                // unlockUI triggers runPendingAccessTasks
+                session.unlockUI(ui);
+            }
+        }
+    }
+
     /**
      * Purges the queue of pending access invocations enqueued with
      * {@link VaadinSession#access(Command)}.
@@ -1929,38 +2085,75 @@ public abstract class VaadinService implements Serializable {
      *            the vaadin session to purge the queue for
      */
     public void runPendingAccessTasks(VaadinSession session) {
-        session.checkHasLock();
+        session.checkHasSharedLock();
 
-        if (session.getPendingAccessQueue().isEmpty()) {
+        /*
+         * With UI locking, the caller may only hold the lock of one UI. The
+         * tasks are then run once the whole session is locked.
+         */
+        if (session.getPendingAccessQueue().isEmpty()
+                || (session.isUILockingEnabled() && !session.hasLock())) {
             return;
         }
 
-        FutureAccess pendingAccess;
-
         // Dump all current instances, not only the ones dumped by setCurrent
         Map<Class<?>, CurrentInstance> oldInstances = CurrentInstance
                 .getInstances();
         CurrentInstance.setCurrent(session);
         try {
-            while ((pendingAccess = session.getPendingAccessQueue()
-                    .poll()) != null) {
-                if (!pendingAccess.isCancelled()) {
-                    pendingAccess.run();
+            runPendingAccessTasks(session.getPendingAccessQueue());
+        } finally {
+            CurrentInstance.clearAll();
+            CurrentInstance.restoreInstances(oldInstances);
+        }
+    }
 
-                    try {
-                        pendingAccess.get();
+    /**
+     * Purges the queue of pending access invocations enqueued with
+     * {@link UI#access(Command)} when
+     * {@link VaadinSession#isUILockingEnabled() UI locking} is enabled.
+     * <p>
+     * This method is automatically run by the framework at appropriate
+     * situations and is not intended to be used by application developers.
+     *
+     * @param ui
+     *            the UI to purge the queue for
+     */
+    public void runPendingAccessTasks(UI ui) {
+        ui.getSession().checkHasLock(ui);
 
-                    } catch (Exception exception) {
-                        pendingAccess.handleError(exception);
-                    }
-                }
-            }
+        if (ui.getInternals().getPendingAccessQueue().isEmpty()) {
+            return;
+        }
+
+        // Dump all current instances, not only the ones dumped by setCurrent
+        Map<Class<?>, CurrentInstance> oldInstances = CurrentInstance
+                .getInstances();
+        CurrentInstance.setCurrent(ui);
+        try {
+            runPendingAccessTasks(ui.getInternals().getPendingAccessQueue());
         } finally {
             CurrentInstance.clearAll();
             CurrentInstance.restoreInstances(oldInstances);
         }
     }
 
+    private static void runPendingAccessTasks(Queue<FutureAccess> queue) {
+        FutureAccess pendingAccess;
+        while ((pendingAccess = queue.poll()) != null) {
+            if (!pendingAccess.isCancelled()) {
+                pendingAccess.run();
+
+                try {
+                    pendingAccess.get();
+
+                } catch (Exception exception) {
+                    pendingAccess.handleError(exception);
+                }
+            }
+        }
+    }
+
     /**
      * Adds a service destroy listener that gets notified when this service is
      * destroyed.
@@ -1996,6 +2189,14 @@ public abstract class VaadinService implements Serializable {
         ServiceDestroyEvent event = new ServiceDestroyEvent(this);
         serviceDestroyListeners
                 .forEach(listener -> listener.serviceDestroy(event));
+        PushScheduler scheduler = pushScheduler;
+        if (scheduler != null) {
+            scheduler.shutdown();
+        }
+        SessionSweeper sweeper = sessionSweeper;
+        if (sweeper != null) {
+            sweeper.shutdown();
+        }
     }
 
     /**
@@ -2128,6 +2329,134 @@ public abstract class VaadinService implements Serializable {
         return router;
     }
 
+    /**
+     * Gets the cache used for the contents of inlined resources. Contents are
+     * only cached in production mode.
+     *
+     * @return the inline resource cache, not <code>null</code>
+     */
+    public InlineResourceCache getInlineResourceCache() {
+        InlineResourceCache cache = inlineResourceCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = inlineResourceCache;
+                if (cache == null) {
+                    cache = createInlineResourceCache();
+                    inlineResourceCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Creates the cache used for the contents of inlined resources.
+     *
+     * @return the inline resource cache, not <code>null</code>
+     */
+    protected InlineResourceCache createInlineResourceCache() {
+        DeploymentConfiguration configuration = getDeploymentConfiguration();
+        return new InlineResourceCache(configuration.isProductionMode()
+                ? configuration.getInlineResourceCacheSize()
+                : 0);
+    }
+
+    /**
+     * Gets the cache used for static resources served by the servlet. Resources
+     * are only cached in production mode.
+     *
+     * @return the static resource cache, not <code>null</code>
+     */
+    public StaticResourceCache getStaticResourceCache() {
+        StaticResourceCache cache = staticResourceCache;
+        if (cache == null) {
+            synchronized (this) {
+                cache = staticResourceCache;
+                if (cache == null) {
+                    cache = createStaticResourceCache();
+                    staticResourceCache = cache;
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * Creates the cache used for static resources served by the servlet.
+     *
+     * @return the static resource cache, not <code>null</code>
+     */
+    protected StaticResourceCache createStaticResourceCache() {
+        DeploymentConfiguration configuration = getDeploymentConfiguration();
+        return new StaticResourceCache(configuration.isProductionMode()
+                ? configuration.getStaticResourceCacheSize()
+                : 0);
+    }
+
+    /**
+     * Gets the scheduler used for pushing UIs with
+     * {@link com.vaadin.flow.shared.communication.PushMode#AUTOMATIC}. The
+     * scheduler is only enabled if a push interval has been configured.
+     *
+     * @return the push scheduler, not <code>null</code>
+     * @see DeploymentConfiguration#getPushInterval()
+     */
+    public PushScheduler getPushScheduler() {
+        PushScheduler scheduler = pushScheduler;
+        if (scheduler == null) {
+            synchronized (this) {
+                scheduler = pushScheduler;
+                if (scheduler == null) {
+                    scheduler = createPushScheduler();
+                    pushScheduler = scheduler;
+                }
+            }
+        }
+        return scheduler;
+    }
+
+    /**
+     * Creates the scheduler used for pushing UIs.
+     *
+     * @return the push scheduler, not <code>null</code>
+     */
+    protected PushScheduler createPushScheduler() {
+        return new PushScheduler(
+                getDeploymentConfiguration().getPushInterval());
+    }
+
+    /**
+     * Gets the sweeper cleaning up sessions in the background. The sweeper is
+     * only enabled if a session cleanup interval has been configured,
+     * otherwise sessions are cleaned up at the end of each request.
+     *
+     * @return the session sweeper, not <code>null</code>
+     * @see DeploymentConfiguration#getSessionCleanupInterval()
+     */
+    public SessionSweeper getSessionSweeper() {
+        SessionSweeper sweeper = sessionSweeper;
+        if (sweeper == null) {
+            synchronized (this) {
+                sweeper = sessionSweeper;
+                if (sweeper == null) {
+                    sweeper = createSessionSweeper();
+                    sessionSweeper = sweeper;
+                }
+            }
+        }
+        return sweeper;
+    }
+
+    /**
+     * Creates the sweeper cleaning up sessions in the background.
+     *
+     * @return the session sweeper, not <code>null</code>
+     */
+    protected SessionSweeper createSessionSweeper() {
+        return new SessionSweeper(this,
+                getDeploymentConfiguration().getSessionCleanupInterval());
+    }
+
     /**
      * Fire UI initialization event to all registered {@link UIInitListener}s.
      *
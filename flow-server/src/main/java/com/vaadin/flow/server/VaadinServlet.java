@@ -84,7 +84,8 @@ public class VaadinServlet extends HttpServlet {
         staticFileServer = new StaticFileServer(servletService);
 
         if (deploymentConfiguration.areWebJarsEnabled()) {
-            webJarServer = new WebJarServer(deploymentConfiguration);
+            webJarServer = new WebJarServer(deploymentConfiguration,
+                    servletService.getStaticResourceCache());
         }
         // Sets current service even though there are no request and response
         servletService.setCurrentInstances(null, null);
@@ -19,12 +19,14 @@ package com.vaadin.flow.server;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Queue;
@@ -32,6 +34,7 @@ import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -45,6 +48,9 @@ import org.slf4j.LoggerFactory;
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.internal.SessionConstantPool;
+import com.vaadin.flow.server.communication.PushConnection;
+import com.vaadin.flow.server.communication.PushScheduler;
 import com.vaadin.flow.shared.communication.PushMode;
 
 /**
@@ -92,11 +98,11 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     protected WebBrowser browser = new WebBrowser();
 
-    private long cumulativeRequestDuration = 0;
+    private final AtomicLong cumulativeRequestDuration = new AtomicLong();
 
-    private long lastRequestDuration = -1;
+    private volatile long lastRequestDuration = -1;
 
-    private long lastRequestTimestamp = System.currentTimeMillis();
+    private volatile long lastRequestTimestamp = System.currentTimeMillis();
 
     private VaadinSessionState state = VaadinSessionState.OPEN;
 
@@ -127,6 +133,27 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
 
     private final StreamResourceRegistry resourceRegistry;
 
+    private final SessionConstantPool constantPool = new SessionConstantPool();
+
+    /**
+     * Ids of the UIs removed since the last time {@link #collectDelta()} was
+     * called.
+     */
+    private final Set<Integer> removedUIIds = new HashSet<>();
+
+    /**
+     * Whether session level state has been changed since the last time
+     * {@link #collectDelta()} was called. Volatile since resources can be
+     * registered while holding only the lock of a UI.
+     */
+    private volatile boolean modified = true;
+
+    /**
+     * Whether the clean up at the end of a request was left for the next
+     * thread releasing the session lock, see {@link #requestCleanup()}.
+     */
+    private transient volatile boolean cleanupPending;
+
     /**
      * Creates a new VaadinSession tied to a VaadinService.
      *
@@ -188,7 +215,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the web browser object
      */
     public WebBrowser getBrowser() {
-        checkHasLock();
+        checkHasSharedLock();
         return browser;
     }
 
@@ -197,8 +224,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         milliseconds.
      */
     public long getCumulativeRequestDuration() {
-        checkHasLock();
-        return cumulativeRequestDuration;
+        checkHasSharedLock();
+        return cumulativeRequestDuration.get();
     }
 
     /**
@@ -210,8 +237,20 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      */
     public void setLastRequestDuration(long time) {
         checkHasLock();
+        recordRequestDuration(time);
+    }
+
+    /**
+     * Updates the request durations of this session without requiring the
+     * session lock. Used when the lock is not otherwise acquired at the end of
+     * a request.
+     *
+     * @param time
+     *            The time spent in the last request, in milliseconds.
+     */
+    void recordRequestDuration(long time) {
         lastRequestDuration = time;
-        cumulativeRequestDuration += time;
+        cumulativeRequestDuration.addAndGet(time);
     }
 
     /**
@@ -219,7 +258,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         milliseconds.
      */
     public long getLastRequestDuration() {
-        checkHasLock();
+        checkHasSharedLock();
         return lastRequestDuration;
     }
 
@@ -232,7 +271,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *
      */
     public void setLastRequestTimestamp(long timestamp) {
-        checkHasLock();
+        // A volatile field, can be set while holding only the lock of a UI
+        checkHasSharedLock();
         lastRequestTimestamp = timestamp;
     }
 
@@ -243,7 +283,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         the epoch.
      */
     public long getLastRequestTimestamp() {
-        checkHasLock();
+        checkHasSharedLock();
         return lastRequestTimestamp;
     }
 
@@ -304,6 +344,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         }
         assert this.configuration == null : "Configuration can only be set once";
         this.configuration = configuration;
+        modified = true;
     }
 
     /**
@@ -312,7 +353,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the deployment configuration
      */
     public DeploymentConfiguration getConfiguration() {
-        checkHasLock();
+        checkHasSharedLock();
         return configuration;
     }
 
@@ -325,7 +366,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the locale of this session.
      */
     public Locale getLocale() {
-        checkHasLock();
+        checkHasSharedLock();
         return locale;
     }
 
@@ -342,6 +383,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void setLocale(Locale locale) {
         checkHasLock();
         this.locale = locale;
+        modified = true;
 
         getUIs().forEach(ui -> ui.setLocale(locale));
     }
@@ -352,7 +394,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the current error handler
      */
     public ErrorHandler getErrorHandler() {
-        checkHasLock();
+        checkHasSharedLock();
         return errorHandler;
     }
 
@@ -365,6 +407,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void setErrorHandler(ErrorHandler errorHandler) {
         checkHasLock();
         this.errorHandler = errorHandler;
+        modified = true;
     }
 
     /**
@@ -384,6 +427,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void addRequestHandler(RequestHandler handler) {
         checkHasLock();
         requestHandlers.addFirst(handler);
+        modified = true;
     }
 
     /**
@@ -396,6 +440,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void removeRequestHandler(RequestHandler handler) {
         checkHasLock();
         requestHandlers.remove(handler);
+        modified = true;
     }
 
     /**
@@ -411,7 +456,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *
      */
     public Collection<RequestHandler> getRequestHandlers() {
-        checkHasLock();
+        checkHasSharedLock();
         return Collections.unmodifiableCollection(requestHandlers);
     }
 
@@ -467,7 +512,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *
      */
     public Collection<UI> getUIs() {
-        checkHasLock();
+        checkHasSharedLock();
         return Collections.unmodifiableCollection(uIs.values());
     }
 
@@ -481,7 +526,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return The UI with the given id or null if not found
      */
     public UI getUIById(int uiId) {
-        checkHasLock();
+        checkHasSharedLock();
         return uIs.get(uiId);
     }
 
@@ -524,11 +569,207 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * also enabled. This is done to avoid the small performance impact of
      * continuously checking the lock status. The check is always done when
      * production mode is not enabled.
+     * <p>
+     * This check requires the exclusive session lock also when
+     * {@link #isUILockingEnabled() UI locking} is enabled. It is used for
+     * modifying state shared by all UIs of the session, see
+     * {@link #checkHasSharedLock()} for reading it.
      */
     public void checkHasLock() {
         checkHasLock(SESSION_NOT_LOCKED_MESSAGE);
     }
 
+    /**
+     * Potentially checks whether the current thread may read the state of
+     * this session, and fails with a standard error message if not. This is
+     * the case if the current thread holds the session lock or, when
+     * {@link #isUILockingEnabled() UI locking} is enabled, the lock of any UI
+     * in this session. Holding the lock of a UI keeps other threads from
+     * locking the whole session, and thus from modifying its state.
+     * <p>
+     * When production mode is enabled, the check is only done if assertions are
+     * also enabled, in the same way as for {@link #checkHasLock()}.
+     */
+    public void checkHasSharedLock() {
+        checkHasSharedLock(SESSION_NOT_LOCKED_MESSAGE);
+    }
+
+    /**
+     * Potentially checks whether the current thread may read the state of
+     * this session, and fails with the given message if not. See
+     * {@link #checkHasSharedLock()}.
+     *
+     * @param message
+     *            the error message to include when failing if the check is done
+     *            and the session is not locked
+     */
+    public void checkHasSharedLock(String message) {
+        if (configuration == null || configuration.isProductionMode()) {
+            assert hasLock() || hasSharedLock() : message;
+        } else if (!hasLock() && !hasSharedLock()) {
+            throw new IllegalStateException(message);
+        }
+    }
+
+    /**
+     * Checks if the current thread has exclusive access to the given UI in
+     * this session. This is the case if the current thread holds the session
+     * lock or, when {@link #isUILockingEnabled() UI locking} is enabled, the
+     * lock of the UI.
+     *
+     * @param ui
+     *            the UI to check, not <code>null</code>
+     * @return true if the thread has exclusive access to the UI, false
+     *         otherwise
+     * @see #lockUI(UI)
+     */
+    public boolean hasLock(UI ui) {
+        return hasLock() || (isUILockingEnabled()
+                && ui.getInternals().getLock().isHeldByCurrentThread());
+    }
+
+    /**
+     * Potentially checks whether the given UI is currently locked by the
+     * current thread, and fails with a standard error message if not. The UI is
+     * locked if either this session or the UI itself is locked, see
+     * {@link #hasLock(UI)}.
+     * <p>
+     * When production mode is enabled, the check is only done if assertions are
+     * also enabled, in the same way as for {@link #checkHasLock()}.
+     *
+     * @param ui
+     *            the UI to check, not <code>null</code>
+     */
+    public void checkHasLock(UI ui) {
+        if (configuration == null || configuration.isProductionMode()) {
+            assert hasLock(ui) : SESSION_NOT_LOCKED_MESSAGE;
+        } else if (!hasLock(ui)) {
+            throw new IllegalStateException(SESSION_NOT_LOCKED_MESSAGE);
+        }
+    }
+
+    /**
+     * Checks whether each UI in this session is locked separately while
+     * handling UIDL requests and {@link UI#access(Command)} tasks.
+     *
+     * @return <code>true</code> if UI locking is enabled, <code>false</code>
+     *         if the session lock is used for all UIs
+     * @see DeploymentConfiguration#isUILockingEnabled()
+     */
+    public boolean isUILockingEnabled() {
+        return getLockInstance() instanceof UILockingSessionLock;
+    }
+
+    /**
+     * Locks the given UI of this session to protect its state from concurrent
+     * access.
+     * <p>
+     * If {@link #isUILockingEnabled() UI locking} is not enabled, this is the
+     * same as {@link #lock()}. Otherwise only the given UI is locked, which
+     * allows other threads to lock other UIs of this session at the same time.
+     * While the UI is locked, the session state can be read but it should only
+     * be modified through {@link #access(Command)}. Locking the whole session
+     * is not possible while holding the lock of a UI. Locking another UI of the
+     * same session while holding the lock of a UI may lead to deadlocks.
+     * <p>
+     * The lock must be released using {@link #unlockUI(UI)}.
+     *
+     * @param ui
+     *            the UI to lock, not <code>null</code>
+     * @see UI#accessSynchronously(Command)
+     */
+    public void lockUI(UI ui) {
+        Lock sessionLock = getLockInstance();
+        if (sessionLock instanceof UILockingSessionLock) {
+            ((UILockingSessionLock) sessionLock).lockShared();
+            ui.getInternals().getLock().lock();
+        } else {
+            lock();
+        }
+    }
+
+    /**
+     * Unlocks a UI previously locked using {@link #lockUI(UI)}.
+     * <p>
+     * If {@link #isUILockingEnabled() UI locking} is not enabled, this is the
+     * same as {@link #unlock()}. Otherwise, tasks enqueued using
+     * {@link UI#access(Command)} are run and pending changes are pushed to the
+     * client if the UI uses {@link PushMode#AUTOMATIC automatic} push when the
+     * lock is ultimately released.
+     *
+     * @param ui
+     *            the UI to unlock, not <code>null</code>
+     */
+    public void unlockUI(UI ui) {
+        Lock sessionLock = getLockInstance();
+        if (!(sessionLock instanceof UILockingSessionLock)) {
+            unlock();
+            return;
+        }
+
+        ReentrantLock uiLock = ui.getInternals().getLock();
+        assert uiLock.isHeldByCurrentThread();
+        boolean ultimateRelease = false;
+        PushConnection pushConnection = null;
+        try {
+            if (uiLock.getHoldCount() == 1) {
+                ultimateRelease = true;
+                getService().runPendingAccessTasks(ui);
+                if (ui.getSession() == this && ui.getPushConfiguration()
+                        .getPushMode() == PushMode.AUTOMATIC) {
+                    push(ui);
+                }
+                pushConnection = ui.getInternals().getPushConnection();
+            }
+        } finally {
+            uiLock.unlock();
+            ((UILockingSessionLock) sessionLock).unlockShared();
+        }
+
+        if (ultimateRelease) {
+            runPendingCleanup();
+        }
+
+        // Same as in unlock()
+        if (pushConnection != null) {
+            pushConnection.flush();
+        }
+        if (ultimateRelease) {
+            if (!ui.getInternals().getPendingAccessQueue().isEmpty()) {
+                getService().ensureAccessQueuePurged(ui);
+            }
+            if (!getPendingAccessQueue().isEmpty()) {
+                getService().ensureAccessQueuePurged(this);
+            }
+        }
+    }
+
+    /**
+     * Requests the clean up done at the end of a request to be run when the
+     * session lock is available, and runs it right away if it is. Otherwise
+     * the clean up is run by the thread that next releases the session lock or
+     * the lock of a UI in this session. Used with {@link #isUILockingEnabled()
+     * UI locking} to avoid waiting for requests to other UIs.
+     */
+    void requestCleanup() {
+        // Set before trying the lock so that a concurrent unlock sees it
+        cleanupPending = true;
+        runPendingCleanup();
+    }
+
+    private void runPendingCleanup() {
+        if (cleanupPending && getLockInstance().tryLock()) {
+            // The clean up is run by unlock()
+            unlock();
+        }
+    }
+
+    private boolean hasSharedLock() {
+        Lock l = getLockInstance();
+        return l instanceof UILockingSessionLock
+                && ((UILockingSessionLock) l).isSharedByCurrentThread();
+    }
+
     /**
      * Checks if the current thread has exclusive access to the given
      * WrappedSession.
@@ -560,6 +801,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         assert UI.getCurrent().getUIId() == ui.getUIId() : "UIs don't match";
         ui.getInternals().setSession(null);
         uIs.remove(ui.getUIId());
+        removedUIIds.add(ui.getUIId());
     }
 
     /**
@@ -640,6 +882,8 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void unlock() {
         checkHasLock();
         boolean ultimateRelease = false;
+        Collection<UI> uiSnapshot = Collections.emptyList();
+        List<PushConnection> pushConnections = Collections.emptyList();
         try {
             /*
              * Run pending tasks and push if the reentrant lock will actually be
@@ -647,18 +891,26 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
              */
             if (((ReentrantLock) getLockInstance()).getHoldCount() == 1) {
                 ultimateRelease = true;
+                if (cleanupPending) {
+                    cleanupPending = false;
+                    getService().cleanupSession(this);
+                }
                 getService().runPendingAccessTasks(this);
+                if (isUILockingEnabled()) {
+                    uiSnapshot = new ArrayList<>(uIs.values());
+                }
 
+                pushConnections = new ArrayList<>();
                 for (UI ui : getUIs()) {
+                    getService().runPendingAccessTasks(ui);
                     if (ui.getPushConfiguration()
                             .getPushMode() == PushMode.AUTOMATIC) {
-                        Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
-                                .setCurrent(ui);
-                        try {
-                            ui.push();
-                        } finally {
-                            CurrentInstance.restoreInstances(oldCurrent);
-                        }
+                        push(ui);
+                    }
+                    PushConnection pushConnection = ui.getInternals()
+                            .getPushConnection();
+                    if (pushConnection != null) {
+                        pushConnections.add(pushConnection);
                     }
                 }
             }
@@ -666,6 +918,12 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
             getLockInstance().unlock();
         }
 
+        /*
+         * Messages pushed while holding the lock are encoded and sent after
+         * releasing it so that slow clients don't block other threads.
+         */
+        pushConnections.forEach(PushConnection::flush);
+
         /*
          * If the session is locked when a new access task is added, it is
          * assumed that the queue will be purged when the lock is released. This
@@ -677,6 +935,29 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
         if (ultimateRelease && !getPendingAccessQueue().isEmpty()) {
             getService().ensureAccessQueuePurged(this);
         }
+        for (UI ui : uiSnapshot) {
+            if (!ui.getInternals().getPendingAccessQueue().isEmpty()) {
+                getService().ensureAccessQueuePurged(ui);
+            }
+        }
+    }
+
+    private void push(UI ui) {
+        PushScheduler scheduler = getService().getPushScheduler();
+        if (scheduler != null && scheduler.isEnabled()) {
+            // Pending access tasks have already been run at this point
+            if (ui.getInternals().isDirty()) {
+                scheduler.schedule(ui);
+            }
+            return;
+        }
+        Map<Class<?>, CurrentInstance> oldCurrent = CurrentInstance
+                .setCurrent(ui);
+        try {
+            ui.push();
+        } finally {
+            CurrentInstance.restoreInstances(oldCurrent);
+        }
     }
 
     /**
@@ -697,6 +978,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public void setAttribute(String name, Object value) {
         checkHasLock();
         attributes.setAttribute(name, value);
+        modified = true;
     }
 
     /**
@@ -724,6 +1006,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public <T> void setAttribute(Class<T> type, T value) {
         checkHasLock();
         attributes.setAttribute(type, value);
+        modified = true;
     }
 
     /**
@@ -739,7 +1022,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         it has been set to null.
      */
     public Object getAttribute(String name) {
-        checkHasLock();
+        checkHasSharedLock();
         return attributes.getAttribute(name);
     }
 
@@ -765,7 +1048,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      *         it has been set to null.
      */
     public <T> T getAttribute(Class<T> type) {
-        checkHasLock();
+        checkHasSharedLock();
         return attributes.getAttribute(type);
     }
 
@@ -826,7 +1109,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the current state
      */
     public VaadinSessionState getState() {
-        checkHasLock();
+        checkHasSharedLock();
         return state;
     }
 
@@ -843,6 +1126,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
                 + this.state + "->" + state;
 
         this.state = state;
+        modified = true;
     }
 
     private boolean isValidChange(VaadinSessionState newState) {
@@ -967,7 +1251,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the csrf token string
      */
     public String getCsrfToken() {
-        checkHasLock();
+        checkHasSharedLock();
         return csrfToken;
     }
 
@@ -978,7 +1262,7 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
      * @return the push connection identifier string
      */
     public String getPushId() {
-        checkHasLock();
+        checkHasSharedLock();
         return pushId;
     }
 
@@ -1032,4 +1316,97 @@ public class VaadinSession implements HttpSessionBindingListener, Serializable {
     public StreamResourceRegistry getResourceRegistry() {
         return resourceRegistry;
     }
+
+    /**
+     * Gets the constant pool shared by all UIs in this session. The pool is
+     * only used if enabled using
+     * {@link com.vaadin.flow.server.Constants#SESSION_CONSTANT_POOL}.
+     * <p>
+     * This method is meant for internal use only.
+     *
+     * @return the session constant pool, not <code>null</code>
+     */
+    public SessionConstantPool getConstantPool() {
+        return constantPool;
+    }
+
+    /**
+     * Marks session level state as modified so that the next delta returned
+     * by {@link #collectDelta()} reports it. Changes made through the setters
+     * of this class are tracked automatically, but changes to mutable
+     * attribute values are not.
+     */
+    public void markAsModified() {
+        checkHasSharedLock();
+        modified = true;
+    }
+
+    /**
+     * Collects the changes made to this session since the previous time this
+     * method was called, and starts tracking changes anew. The returned delta
+     * contains the UIs that have been modified or added, and the ids of the
+     * UIs that have been removed.
+     * <p>
+     * A replication layer can use the delta to replicate only the modified
+     * UIs instead of the whole session after each request, see
+     * {@link VaadinSessionDelta#writeTo(java.io.OutputStream)}. The last
+     * request timestamp and the constants delivered through the session
+     * constant pool are included in every delta, since they change on almost
+     * every request. Other session level state such as attributes or stream
+     * resources is not included in the delta. When
+     * {@link VaadinSessionDelta#isSessionModified()} is <code>true</code>, the
+     * whole session should be replicated instead.
+     *
+     * @see #applyDelta(VaadinSessionDelta)
+     * @see com.vaadin.flow.component.internal.UIInternals#markAsModified()
+     *
+     * @return the changes since the previous delta, not <code>null</code>
+     */
+    public VaadinSessionDelta collectDelta() {
+        checkHasLock();
+        List<UI> modifiedUIs = new ArrayList<>();
+        for (UI ui : uIs.values()) {
+            if (ui.getInternals().clearModified()) {
+                modifiedUIs.add(ui);
+            }
+        }
+        Set<Integer> removed = new HashSet<>(removedUIIds);
+        removedUIIds.clear();
+        boolean sessionModified = modified;
+        modified = false;
+
+        return new VaadinSessionDelta(this, modifiedUIs, removed, nextUIId,
+                sessionModified, lastRequestTimestamp,
+                constantPool.getDeliveredIds());
+    }
+
+    /**
+     * Applies a delta collected from another copy of this session, typically
+     * on another cluster node. The UIs in the delta replace the UIs with the
+     * same ids in this session, and the removed UIs are removed without
+     * running any detach logic since the UIs have already been detached in
+     * the originating session.
+     *
+     * @see #collectDelta()
+     * @see VaadinSessionDelta#readFrom(java.io.InputStream, VaadinSession)
+     *
+     * @param delta
+     *            the delta to apply, not <code>null</code>
+     */
+    public void applyDelta(VaadinSessionDelta delta) {
+        checkHasLock();
+        for (Integer uiId : delta.getRemovedUIIds()) {
+            uIs.remove(uiId);
+        }
+        for (UI ui : delta.getUIs()) {
+            if (ui.getSession() != this) {
+                throw new IllegalArgumentException(
+                        "The UI in the delta belongs to a different session");
+            }
+            uIs.put(ui.getUIId(), ui);
+        }
+        nextUIId = Math.max(nextUIId, delta.getNextUIId());
+        lastRequestTimestamp = delta.getLastRequestTimestamp();
+        constantPool.markDelivered(delta.getDeliveredConstantIds());
+    }
 }
@@ -0,0 +1,308 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+
+/**
+ * The changes made to a session since the previous delta, for replicating only
+ * the modified parts of a session to other cluster nodes.
+ * <p>
+ * A delta is collected on the node handling the request using
+ * {@link VaadinSession#collectDelta()} and written using
+ * {@link #writeTo(OutputStream)}. The written data only contains the modified
+ * UIs: references to the session and to UIs that are not part of the delta are
+ * written as references that are resolved against the existing copy of the
+ * session when the delta is read using
+ * {@link #readFrom(InputStream, VaadinSession)}, after which the delta is
+ * applied using {@link VaadinSession#applyDelta(VaadinSessionDelta)}.
+ * <p>
+ * The receiving session must have been created from a full copy of the
+ * session, and deltas must be applied in the order they were collected.
+ * Objects that are shared between a UI in the delta and other parts of the
+ * session, except for the session itself and other UIs, are copied rather
+ * than shared on the receiving side.
+ *
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public class VaadinSessionDelta implements Serializable {
+
+    /**
+     * Written instead of the session.
+     */
+    private static final class SessionReference implements Serializable {
+    }
+
+    /**
+     * Written instead of a UI that is not included in the delta.
+     */
+    private static final class UIReference implements Serializable {
+        private final int uiId;
+
+        private UIReference(int uiId) {
+            this.uiId = uiId;
+        }
+    }
+
+    private static final class DeltaOutputStream extends ObjectOutputStream {
+        private final VaadinSession session;
+        private final Map<UI, Boolean> includedUIs = new IdentityHashMap<>();
+
+        private DeltaOutputStream(OutputStream out, VaadinSession session,
+                List<UI> uis) throws IOException {
+            super(out);
+            this.session = session;
+            uis.forEach(ui -> includedUIs.put(ui, Boolean.TRUE));
+            enableReplaceObject(true);
+        }
+
+        @Override
+        protected Object replaceObject(Object obj) throws IOException {
+            if (obj == session) {
+                return new SessionReference();
+            } else if (obj instanceof UI && !includedUIs.containsKey(obj)) {
+                return new UIReference(((UI) obj).getUIId());
+            }
+            return obj;
+        }
+    }
+
+    private static final class DeltaInputStream extends ObjectInputStream {
+        private final VaadinSession session;
+
+        private DeltaInputStream(InputStream in, VaadinSession session)
+                throws IOException {
+            super(in);
+            this.session = session;
+            enableResolveObject(true);
+        }
+
+        @Override
+        protected Object resolveObject(Object obj) throws IOException {
+            if (obj instanceof SessionReference) {
+                return session;
+            } else if (obj instanceof UIReference) {
+                return session.getUIById(((UIReference) obj).uiId);
+            }
+            return obj;
+        }
+    }
+
+    private final transient VaadinSession session;
+
+    private final List<UI> uis;
+
+    private final Set<Integer> removedUIIds;
+
+    private final int nextUIId;
+
+    private final boolean sessionModified;
+
+    private final long lastRequestTimestamp;
+
+    private final Set<String> deliveredConstantIds;
+
+    /**
+     * Creates a new delta. Use {@link VaadinSession#collectDelta()} to get the
+     * delta of a session.
+     *
+     * @param session
+     *            the session that the delta belongs to, not <code>null</code>
+     * @param uis
+     *            the modified UIs, not <code>null</code>
+     * @param removedUIIds
+     *            the ids of the removed UIs, not <code>null</code>
+     * @param nextUIId
+     *            the id to use for the next UI in the session
+     * @param sessionModified
+     *            whether session level state has been modified
+     * @param lastRequestTimestamp
+     *            the time when the last request was serviced in the session
+     * @param deliveredConstantIds
+     *            the ids of the constants delivered through the session
+     *            constant pool, not <code>null</code>
+     */
+    protected VaadinSessionDelta(VaadinSession session, List<UI> uis,
+            Set<Integer> removedUIIds, int nextUIId, boolean sessionModified,
+            long lastRequestTimestamp, Set<String> deliveredConstantIds) {
+        this.session = session;
+        this.uis = Collections.unmodifiableList(new ArrayList<>(uis));
+        this.removedUIIds = Collections
+                .unmodifiableSet(new HashSet<>(removedUIIds));
+        this.nextUIId = nextUIId;
+        this.sessionModified = sessionModified;
+        this.lastRequestTimestamp = lastRequestTimestamp;
+        this.deliveredConstantIds = Collections
+                .unmodifiableSet(new HashSet<>(deliveredConstantIds));
+    }
+
+    /**
+     * Gets the UIs that have been modified or added.
+     *
+     * @return an unmodifiable list of UIs, not <code>null</code>
+     */
+    public List<UI> getUIs() {
+        return uis;
+    }
+
+    /**
+     * Gets the ids of the UIs that have been removed.
+     *
+     * @return an unmodifiable set of UI ids, not <code>null</code>
+     */
+    public Set<Integer> getRemovedUIIds() {
+        return removedUIIds;
+    }
+
+    /**
+     * Gets the id to use for the next UI created in the session.
+     *
+     * @return the next UI id
+     */
+    public int getNextUIId() {
+        return nextUIId;
+    }
+
+    /**
+     * Gets the time when the last request was serviced in the session.
+     *
+     * @see VaadinSession#getLastRequestTimestamp()
+     *
+     * @return the last request timestamp, in milliseconds since the epoch
+     */
+    public long getLastRequestTimestamp() {
+        return lastRequestTimestamp;
+    }
+
+    /**
+     * Gets the ids of the constants that have been delivered to the client
+     * through the session constant pool.
+     *
+     * @see VaadinSession#getConstantPool()
+     *
+     * @return an unmodifiable set of constant ids, not <code>null</code>
+     */
+    public Set<String> getDeliveredConstantIds() {
+        return deliveredConstantIds;
+    }
+
+    /**
+     * Checks whether session level state, such as attributes, stream
+     * resources, the locale or the error handler, has been modified. Such
+     * state is not included in the delta, so the whole session should be
+     * replicated instead if this is <code>true</code>.
+     *
+     * @return <code>true</code> if session level state has been modified,
+     *         otherwise <code>false</code>
+     */
+    public boolean isSessionModified() {
+        return sessionModified;
+    }
+
+    /**
+     * Checks whether the delta contains any changes.
+     *
+     * @return <code>true</code> if nothing has changed, otherwise
+     *         <code>false</code>
+     */
+    public boolean isEmpty() {
+        return uis.isEmpty() && removedUIIds.isEmpty() && !sessionModified;
+    }
+
+    /**
+     * Writes the modified UIs, the removed UI ids, the last request timestamp
+     * and the delivered constant ids to the given stream. The
+     * session must be locked while writing. The stream is not closed.
+     *
+     * @param out
+     *            the stream to write to, not <code>null</code>
+     * @throws IOException
+     *             if writing fails
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        if (session == null) {
+            throw new IllegalStateException(
+                    "Only a collected delta can be written");
+        }
+        session.checkHasLock();
+
+        DeltaOutputStream stream = new DeltaOutputStream(out, session, uis);
+        stream.writeInt(nextUIId);
+        stream.writeBoolean(sessionModified);
+        stream.writeLong(lastRequestTimestamp);
+        stream.writeObject(new ArrayList<>(deliveredConstantIds));
+        stream.writeObject(new ArrayList<>(removedUIIds));
+        stream.writeObject(new ArrayList<>(uis));
+        stream.flush();
+    }
+
+    /**
+     * Reads a delta written using {@link #writeTo(OutputStream)}, resolving
+     * references to the session and to UIs not included in the delta against
+     * the given session. The session must be locked while reading. The stream
+     * is not closed.
+     *
+     * @param in
+     *            the stream to read from, not <code>null</code>
+     * @param session
+     *            the copy of the session that the delta will be applied to,
+     *            not <code>null</code>
+     * @return the read delta, not <code>null</code>
+     * @throws IOException
+     *             if reading fails
+     * @throws ClassNotFoundException
+     *             if the class of a serialized object cannot be found
+     */
+    @SuppressWarnings("unchecked")
+    public static VaadinSessionDelta readFrom(InputStream in,
+            VaadinSession session) throws IOException, ClassNotFoundException {
+        session.checkHasLock();
+
+        Map<Class<?>, CurrentInstance> old = CurrentInstance
+                .setCurrent(session);
+        try {
+            DeltaInputStream stream = new DeltaInputStream(in, session);
+            int nextUIId = stream.readInt();
+            boolean sessionModified = stream.readBoolean();
+            long lastRequestTimestamp = stream.readLong();
+            List<String> deliveredConstantIds = (List<String>) stream
+                    .readObject();
+            List<Integer> removedUIIds = (List<Integer>) stream.readObject();
+            List<UI> uis = (List<UI>) stream.readObject();
+            return new VaadinSessionDelta(session, uis,
+                    new HashSet<>(removedUIIds), nextUIId, sessionModified,
+                    lastRequestTimestamp, new HashSet<>(deliveredConstantIds));
+        } finally {
+            CurrentInstance.restoreInstances(old);
+        }
+    }
+}
@@ -21,9 +21,14 @@ import java.io.ObjectInputStream;
 import java.io.Reader;
 import java.io.Serializable;
 import java.io.StringReader;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.atmosphere.cpr.AtmosphereResource;
 import org.atmosphere.cpr.AtmosphereResource.TRANSPORT;
@@ -33,6 +38,7 @@ import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
 import com.vaadin.flow.internal.UsageStatistics;
+import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.shared.communication.PushConstants;
 
 import elemental.json.JsonObject;
@@ -40,6 +46,12 @@ import elemental.json.JsonObject;
 /**
  * A {@link PushConnection} implementation using the Atmosphere push support
  * that is by default included in Vaadin.
+ * <p>
+ * Pushing only collects the pending changes of the UI while the session is
+ * locked. The collected messages are queued and encoded and sent by
+ * {@link #flush()} after the session lock has been released. If a client
+ * doesn't keep up with the messages sent to it, the connection is closed and
+ * the client resynchronizes its state when it has reconnected.
  *
  * @author Vaadin Ltd
  * @since 1.0
@@ -48,9 +60,14 @@ public class AtmospherePushConnection implements PushConnection {
 
     private UI ui;
     private transient State state = State.DISCONNECTED;
-    private transient AtmosphereResource resource;
+    private transient volatile AtmosphereResource resource;
     private transient FragmentedMessage incomingMessage;
-    private transient Future<Object> outgoingMessage;
+    // Messages collected under the session lock, waiting to be sent
+    private transient Queue<JsonObject> pendingMessages = new ConcurrentLinkedQueue<>();
+    // Messages handed to Atmosphere, oldest first
+    private transient Deque<Future<Object>> outgoingMessages = new ConcurrentLinkedDeque<>();
+    private transient AtomicBoolean flushing = new AtomicBoolean();
+    private transient volatile int maxOutgoingMessages = Integer.MAX_VALUE;
 
     /**
      * Represents a message that can arrive as multiple fragments.
@@ -174,9 +191,9 @@ public class AtmospherePushConnection implements PushConnection {
     }
 
     /**
-     * Pushes pending state changes and client RPC calls to the client. If
-     * {@code isConnected()} is false, defers the push until a connection is
-     * established.
+     * Collects pending state changes and client RPC calls to be pushed to the
+     * client by {@link #flush()}. If {@code isConnected()} is false, defers the
+     * push until a connection is established.
      *
      * @param async
      *            True if this push asynchronously originates from the server,
@@ -191,9 +208,12 @@ public class AtmospherePushConnection implements PushConnection {
             }
         } else {
             try {
-                JsonObject response = new UidlWriter().createUidl(getUI(),
-                        async);
-                sendMessage("for(;;);[" + response.toJson() + "]");
+                VaadinSession session = getUI().getSession();
+                if (session != null) {
+                    maxOutgoingMessages = session.getConfiguration()
+                            .getPushMaxPendingMessages();
+                }
+                pendingMessages.add(new UidlWriter().createUidl(getUI(), async));
             } catch (Exception e) {
                 throw new RuntimeException("Push failed", e);
             }
@@ -201,17 +221,76 @@ public class AtmospherePushConnection implements PushConnection {
     }
 
     /**
-     * Sends the given message to the current client. Cannot be called if
-     * {@link #isConnected()} returns false.
+     * Encodes and sends the messages collected by {@link #push(boolean)}, in
+     * the order they were collected. Should be called without holding the
+     * session lock. If another thread is already sending messages of this
+     * connection, that thread also sends the messages queued by this thread.
+     */
+    @Override
+    public void flush() {
+        while (!pendingMessages.isEmpty()
+                && flushing.compareAndSet(false, true)) {
+            try {
+                JsonObject message;
+                while ((message = pendingMessages.poll()) != null) {
+                    if (!isKeepingUp()) {
+                        closeSlowConnection();
+                        return;
+                    }
+                    sendMessage("for(;;);[" + message.toJson() + "]");
+                }
+            } finally {
+                flushing.set(false);
+            }
+        }
+    }
+
+    private boolean isKeepingUp() {
+        Future<Object> oldest;
+        while ((oldest = outgoingMessages.peekFirst()) != null
+                && oldest.isDone()) {
+            outgoingMessages.pollFirst();
+        }
+        return maxOutgoingMessages <= 0
+                || outgoingMessages.size() < maxOutgoingMessages;
+    }
+
+    private void closeSlowConnection() {
+        AtmosphereResource currentResource = resource;
+        getLogger().warn(
+                "Closing push connection since the client has not received "
+                        + "the last {} messages. The client will resynchronize "
+                        + "its state after reconnecting.",
+                outgoingMessages.size());
+        pendingMessages.clear();
+        outgoingMessages.clear();
+        if (currentResource != null) {
+            try {
+                currentResource.close();
+            } catch (IOException e) {
+                getLogger().info("Error when closing push connection", e);
+            }
+        }
+    }
+
+    /**
+     * Sends the given message to the current client. Messages are not sent if
+     * the connection has been closed, in which case the client will
+     * resynchronize its state after reconnecting.
      *
      * @param message
      *            The message to send
      */
     protected void sendMessage(String message) {
-        assert (isConnected());
+        AtmosphereResource currentResource = getResource();
+        if (currentResource == null) {
+            getLogger().debug(
+                    "Push message discarded since the connection was closed");
+            return;
+        }
         // "Broadcast" the changes to the single client only
-        outgoingMessage = getResource().getBroadcaster().broadcast(message,
-                getResource());
+        outgoingMessages.addLast(currentResource.getBroadcaster()
+                .broadcast(message, currentResource));
     }
 
     /**
@@ -322,6 +401,9 @@ public class AtmospherePushConnection implements PushConnection {
             return;
         }
 
+        // Send messages collected while holding the lock
+        flush();
+        Future<Object> outgoingMessage = outgoingMessages.peekLast();
         if (outgoingMessage != null) {
             // Wait for the last message to be sent before closing the
             // connection (assumes that futures are completed in order)
@@ -336,7 +418,7 @@ public class AtmospherePushConnection implements PushConnection {
                         "Error waiting for messages to be sent to client before disconnect",
                         e);
             }
-            outgoingMessage = null;
+            outgoingMessages.clear();
         }
 
         try {
@@ -387,6 +469,10 @@ public class AtmospherePushConnection implements PushConnection {
             throws IOException, ClassNotFoundException {
         stream.defaultReadObject();
         state = State.DISCONNECTED;
+        pendingMessages = new ConcurrentLinkedQueue<>();
+        outgoingMessages = new ConcurrentLinkedDeque<>();
+        flushing = new AtomicBoolean();
+        maxOutgoingMessages = Integer.MAX_VALUE;
     }
 
     private static Logger getLogger() {
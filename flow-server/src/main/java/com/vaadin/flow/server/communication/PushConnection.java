@@ -44,6 +44,16 @@ public interface PushConnection extends Serializable {
      */
     void push();
 
+    /**
+     * Sends the changes collected by {@link #push()} to the client. Called by
+     * the framework after the session lock has been released, so that
+     * encoding and sending the changes doesn't block other threads accessing
+     * the session. Does nothing if the changes were already sent when pushing.
+     */
+    default void flush() {
+        // Changes are sent immediately by default
+    }
+
     /**
      * Closes the connection. Cannot be called if {@link #isConnected()} is
      * false.
@@ -0,0 +1,255 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.server.Constants;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.shared.communication.PushMode;
+
+/**
+ * Pushes changes of UIs using {@link PushMode#AUTOMATIC} at most once per
+ * configured interval instead of every time the session lock is released.
+ * <p>
+ * When the lock of a UI with pending changes is released, the UI is scheduled
+ * to be pushed after the interval. All changes made before the push are sent
+ * in the same message, which reduces the number of messages for UIs that are
+ * updated frequently from background threads at the cost of delaying the
+ * changes by at most the interval.
+ * <p>
+ * The push is run as an access task of the UI by a shared pool of scheduler
+ * threads, so the scheduler threads never wait for the session lock.
+ *
+ * @see VaadinService#getPushScheduler()
+ * @see Constants#PUSH_INTERVAL
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public class PushScheduler implements Serializable {
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final long interval;
+
+    /*
+     * UIs waiting to be pushed, mapped to the System.nanoTime() when they were
+     * scheduled.
+     */
+    private final Map<UI, Long> scheduled = new ConcurrentHashMap<>();
+
+    private transient ScheduledExecutorService executor;
+
+    private transient boolean shutdown;
+
+    private final AtomicLong pushCount = new AtomicLong();
+
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    private final AtomicLong totalLatency = new AtomicLong();
+
+    private final AtomicLong maxLatency = new AtomicLong();
+
+    /**
+     * Creates a new scheduler pushing each UI at most once per the given
+     * interval.
+     *
+     * @param interval
+     *            the minimum interval between pushes of a UI in milliseconds,
+     *            or <code>0</code> to push immediately when the session lock is
+     *            released
+     */
+    public PushScheduler(long interval) {
+        if (interval < 0) {
+            throw new IllegalArgumentException(
+                    "Push interval cannot be negative: " + interval);
+        }
+        this.interval = interval;
+    }
+
+    /**
+     * Checks whether pushes are scheduled by this scheduler.
+     *
+     * @return <code>true</code> if UIs are pushed by the scheduler,
+     *         <code>false</code> if they should be pushed immediately
+     */
+    public boolean isEnabled() {
+        return interval > 0;
+    }
+
+    /**
+     * Gets the minimum interval between pushes of a UI.
+     *
+     * @return the interval in milliseconds
+     */
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Schedules the given UI to be pushed after the interval. Does nothing if
+     * the UI is already scheduled, since its pending push will include all
+     * changes made before it, or if the scheduler has been shut down.
+     *
+     * @param ui
+     *            the UI to push, not <code>null</code>
+     */
+    public void schedule(UI ui) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Push scheduler is not enabled");
+        }
+        if (scheduled.putIfAbsent(ui, System.nanoTime()) != null) {
+            coalescedCount.incrementAndGet();
+            return;
+        }
+        ScheduledExecutorService pool = getExecutor();
+        try {
+            if (pool != null) {
+                pool.schedule(() -> access(ui), interval,
+                        TimeUnit.MILLISECONDS);
+                return;
+            }
+        } catch (RejectedExecutionException e) {
+            // Shut down concurrently
+        }
+        scheduled.remove(ui);
+    }
+
+    private void access(UI ui) {
+        try {
+            ui.access(() -> push(ui));
+        } catch (UIDetachedException e) {
+            scheduled.remove(ui);
+        } catch (RuntimeException e) {
+            scheduled.remove(ui);
+            getLogger().error("Scheduling a push failed", e);
+        }
+    }
+
+    private void push(UI ui) {
+        /*
+         * Changes made after this point will schedule a new push when the lock
+         * is released
+         */
+        Long scheduledAt = scheduled.remove(ui);
+        if (ui.getPushConfiguration().getPushMode() != PushMode.AUTOMATIC) {
+            return;
+        }
+        ui.push();
+        if (scheduledAt != null) {
+            long latency = TimeUnit.NANOSECONDS
+                    .toMillis(System.nanoTime() - scheduledAt);
+            pushCount.incrementAndGet();
+            totalLatency.addAndGet(latency);
+            maxLatency.accumulateAndGet(latency, Math::max);
+        }
+    }
+
+    private synchronized ScheduledExecutorService getExecutor() {
+        if (executor == null && !shutdown) {
+            ScheduledThreadPoolExecutor pool = new ScheduledThreadPoolExecutor(
+                    Runtime.getRuntime().availableProcessors(), runnable -> {
+                        Thread thread = new Thread(runnable,
+                                "vaadin-push-scheduler-"
+                                        + THREAD_COUNTER.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            pool.setRemoveOnCancelPolicy(true);
+            executor = pool;
+        }
+        return executor;
+    }
+
+    /**
+     * Stops the scheduler threads. UIs that are waiting to be pushed are not
+     * pushed, and UIs scheduled after shutting down are ignored.
+     */
+    public synchronized void shutdown() {
+        shutdown = true;
+        if (executor != null) {
+            executor.shutdownNow();
+            executor = null;
+        }
+        scheduled.clear();
+    }
+
+    /**
+     * Gets the number of UIs currently waiting to be pushed.
+     *
+     * @return the number of scheduled UIs
+     */
+    public int getScheduledCount() {
+        return scheduled.size();
+    }
+
+    /**
+     * Gets the number of pushes done by this scheduler.
+     *
+     * @return the number of pushes
+     */
+    public long getPushCount() {
+        return pushCount.get();
+    }
+
+    /**
+     * Gets the number of times a UI was released with pending changes while
+     * it was already waiting to be pushed, i.e. the number of pushes saved by
+     * merging changes.
+     *
+     * @return the number of merged pushes
+     */
+    public long getCoalescedCount() {
+        return coalescedCount.get();
+    }
+
+    /**
+     * Gets the average time from scheduling a UI to pushing it.
+     *
+     * @return the average latency in milliseconds, or <code>0</code> if
+     *         nothing has been pushed
+     */
+    public double getAverageLatency() {
+        long count = getPushCount();
+        return count == 0 ? 0 : (double) totalLatency.get() / count;
+    }
+
+    /**
+     * Gets the longest time from scheduling a UI to pushing it.
+     *
+     * @return the maximum latency in milliseconds
+     */
+    public long getMaxLatency() {
+        return maxLatency.get();
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(PushScheduler.class.getName());
+    }
+}
@@ -83,6 +83,7 @@ public class ServerRpcHandler implements Serializable {
         private final JsonObject json;
         private final boolean resynchronize;
         private final int clientToServerMessageId;
+        private final int storedConstantsId;
 
         /**
          * Creates an instance based on the given JSON received through the
@@ -129,6 +130,13 @@ public class ServerRpcHandler implements Serializable {
                 getLogger().warn("Server message without client id received");
                 clientToServerMessageId = -1;
             }
+
+            if (json.hasKey(ApplicationConstants.STORED_CONSTANTS_ID)) {
+                storedConstantsId = (int) json
+                        .getNumber(ApplicationConstants.STORED_CONSTANTS_ID);
+            } else {
+                storedConstantsId = -1;
+            }
             invocations = json.getArray(ApplicationConstants.RPC_INVOCATIONS);
         }
 
@@ -179,6 +187,17 @@ public class ServerRpcHandler implements Serializable {
             return clientToServerMessageId;
         }
 
+        /**
+         * Gets the id of the latest constants that the client has stored in
+         * its constant cache.
+         *
+         * @return the stored constants id, or <code>-1</code> if the client
+         *         has not stored any new constants since the previous request
+         */
+        public int getStoredConstantsId() {
+            return storedConstantsId;
+        }
+
         /**
          * Gets the entire request in JSON format, as it was received from the
          * client.
@@ -197,6 +216,15 @@ public class ServerRpcHandler implements Serializable {
 
     private static final int MAX_BUFFER_SIZE = 64 * 1024;
 
+    private static final int READ_BUFFER_SIZE = 8 * 1024;
+
+    /**
+     * Read buffer reused for all requests handled by the same thread, since
+     * most messages are small enough to fit in it.
+     */
+    private static final ThreadLocal<char[]> READ_BUFFER = ThreadLocal
+            .withInitial(() -> new char[READ_BUFFER_SIZE]);
+
     /**
      * Exception thrown then the security key sent by the client does not match
      * the expected one.
@@ -251,6 +279,11 @@ public class ServerRpcHandler implements Serializable {
             throw new InvalidUIDLSecurityKeyException();
         }
 
+        if (rpcRequest.getStoredConstantsId() != -1) {
+            ui.getInternals().getConstantPool()
+                    .confirmDelivery(rpcRequest.getStoredConstantsId());
+        }
+
         String hashMessage = changeMessage;
         if (hashMessage.length() > 64 * 1024) {
             hashMessage = changeMessage.substring(0, 64 * 1024);
@@ -286,22 +319,19 @@ public class ServerRpcHandler implements Serializable {
             }
 
             /*
-             * If the reason for ending up here is intermittent, then we should
-             * just issue a full resync since we cannot know the state of the
-             * client engine.
-             *
-             * There are reasons to believe that there are deterministic issues
-             * that trigger this condition, and we'd like to collect more data
-             * to uncover anything such before actually implementing the resync
-             * that would thus hide most symptoms of the actual root cause bugs.
+             * We cannot know the state of the client engine, so issue a full
+             * resync. The invocations are not processed since they may refer
+             * to state that the client has not seen.
              */
             String messageStart = changeMessage;
             if (messageStart.length() > 1000) {
                 messageStart = messageStart.substring(0, 1000);
             }
-            throw new UnsupportedOperationException(
-                    message + " Expected sync id: " + expectedId + ", got "
-                            + requestId + ". Message start: " + messageStart);
+            getLogger().warn(
+                    "{} Expected sync id: {}, got {}. Resynchronizing the client. Message start: {}",
+                    message, expectedId, requestId, messageStart);
+            ui.getInternals().requestResynchronization();
+            return;
         } else {
             // Message id ok, process RPCs
             ui.getInternals().setLastProcessedClientToServerId(expectedId,
@@ -310,8 +340,8 @@ public class ServerRpcHandler implements Serializable {
         }
 
         if (rpcRequest.isResynchronize()) {
-            // FIXME Implement
-            throw new UnsupportedOperationException("FIXME: Implement resync");
+            getLogger().debug("Resynchronizing the client by its request");
+            ui.getInternals().requestResynchronization();
         }
 
     }
@@ -380,22 +410,77 @@ public class ServerRpcHandler implements Serializable {
                 + " returned a Runnable even though it shouldn't";
     }
 
+    /**
+     * Reads the whole message from the given reader.
+     * <p>
+     * By default, the message is read using {@link #getMessage(Reader, int)}
+     * with the content length of the current request as the size hint.
+     *
+     * @param reader
+     *            the reader to read the message from
+     * @return the message
+     * @throws IOException
+     *             if reading the message fails
+     */
     protected String getMessage(Reader reader) throws IOException {
+        VaadinRequest request = VaadinRequest.getCurrent();
+        return getMessage(reader,
+                request == null ? -1 : request.getContentLength());
+    }
 
-        StringBuilder sb = new StringBuilder(MAX_BUFFER_SIZE);
-        char[] buffer = new char[MAX_BUFFER_SIZE];
+    /**
+     * Reads the whole message from the given reader.
+     *
+     * @param reader
+     *            the reader to read the message from
+     * @param contentLength
+     *            the length of the request body in bytes, used as a hint for
+     *            the size of the message, or <code>-1</code> if not known
+     * @return the message
+     * @throws IOException
+     *             if reading the message fails
+     */
+    protected String getMessage(Reader reader, int contentLength)
+            throws IOException {
+        char[] buffer = READ_BUFFER.get();
+
+        int read = readFully(reader, buffer);
+        if (read < buffer.length) {
+            // The whole message fit in the buffer
+            return new String(buffer, 0, read);
+        }
 
-        while (true) {
-            int read = reader.read(buffer);
-            if (read == -1) {
-                break;
-            }
+        // A UTF-8 encoded body never has more chars than bytes
+        int capacity = contentLength > buffer.length
+                ? Math.min(contentLength, MAX_BUFFER_SIZE)
+                : 2 * buffer.length;
+        StringBuilder sb = new StringBuilder(capacity);
+        sb.append(buffer, 0, read);
+
+        while ((read = reader.read(buffer)) != -1) {
             sb.append(buffer, 0, read);
         }
 
         return sb.toString();
     }
 
+    /**
+     * Reads from the reader until the buffer is full or the end of the stream
+     * is reached.
+     */
+    private static int readFully(Reader reader, char[] buffer)
+            throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = reader.read(buffer, total, buffer.length - total);
+            if (read == -1) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
     private static Logger getLogger() {
         return LoggerFactory.getLogger(ServerRpcHandler.class.getName());
     }
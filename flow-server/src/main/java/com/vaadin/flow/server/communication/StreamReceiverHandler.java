@@ -23,6 +23,7 @@ import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
 import java.io.Serializable;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.commons.fileupload.FileItemIterator;
 import org.apache.commons.fileupload.FileItemStream;
@@ -32,6 +33,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.server.ErrorEvent;
 import com.vaadin.flow.server.NoInputStreamException;
@@ -60,7 +62,7 @@ import static java.nio.charset.StandardCharsets.UTF_8;
  */
 public class StreamReceiverHandler implements Serializable {
 
-    private static final int MAX_UPLOAD_BUFFER_SIZE = 4 * 1024;
+    private static final int DEFAULT_UPLOAD_BUFFER_SIZE = 64 * 1024;
 
     /* Minimum interval which will be used for streaming progress events. */
     public static final int DEFAULT_STREAMING_PROGRESS_EVENT_INTERVAL_MS = 500;
@@ -292,6 +294,20 @@ public class StreamReceiverHandler implements Serializable {
         return DEFAULT_STREAMING_PROGRESS_EVENT_INTERVAL_MS;
     }
 
+    /**
+     * Gets the size of the buffer used for copying uploaded data to the output
+     * stream of a {@link StreamVariable}. A larger buffer means fewer reads
+     * and writes for large uploads at the cost of memory used by each
+     * concurrent upload. To adjust this value override the method, and
+     * register your own handler in VaadinService.createRequestHandlers(). The
+     * default is 64 kB.
+     *
+     * @return the upload buffer size in bytes
+     */
+    protected int getUploadBufferSize() {
+        return DEFAULT_UPLOAD_BUFFER_SIZE;
+    }
+
     static void tryToCloseStream(OutputStream out) {
         try {
             // try to close output stream (e.g. file handle)
@@ -350,13 +366,17 @@ public class StreamReceiverHandler implements Serializable {
         long totalBytes = 0;
         StreamingStartEventImpl startedEvent = new StreamingStartEventImpl(
                 filename, type, contentLength);
+        // Progress event waiting to be delivered by an access task
+        AtomicReference<StreamingProgressEventImpl> pendingProgress = new AtomicReference<>();
         try {
             boolean listenProgress;
+            UI ui;
             session.lock();
             try {
                 streamVariable.streamingStarted(startedEvent);
                 out = streamVariable.getOutputStream();
                 listenProgress = streamVariable.listenProgress();
+                ui = UI.getCurrent();
             } finally {
                 session.unlock();
             }
@@ -371,7 +391,7 @@ public class StreamReceiverHandler implements Serializable {
                 throw new NoInputStreamException();
             }
 
-            final byte[] buffer = new byte[MAX_UPLOAD_BUFFER_SIZE];
+            final byte[] buffer = new byte[getUploadBufferSize()];
             long lastStreamingEvent = 0;
             int bytesReadToBuffer;
             do {
@@ -379,14 +399,18 @@ public class StreamReceiverHandler implements Serializable {
                 if (bytesReadToBuffer > 0) {
                     out.write(buffer, 0, bytesReadToBuffer);
                     totalBytes += bytesReadToBuffer;
-                }
-                if (listenProgress) {
-                    StreamingProgressEventImpl progressEvent = new StreamingProgressEventImpl(
-                            filename, type, contentLength, totalBytes);
 
-                    lastStreamingEvent = updateProgress(session, streamVariable,
-                            progressEvent, lastStreamingEvent,
-                            bytesReadToBuffer);
+                    long now = System.currentTimeMillis();
+                    // to avoid excessive session locking and event storms,
+                    // events are sent in intervals, or at the end of the file.
+                    if (listenProgress && lastStreamingEvent
+                            + getProgressEventInterval() <= now) {
+                        lastStreamingEvent = now;
+                        updateProgress(session, ui, streamVariable,
+                                pendingProgress,
+                                new StreamingProgressEventImpl(filename, type,
+                                        contentLength, totalBytes));
+                    }
                 }
                 if (streamVariable.isInterrupted()) {
                     throw new UploadInterruptedException();
@@ -399,6 +423,13 @@ public class StreamReceiverHandler implements Serializable {
                     filename, type, totalBytes);
             session.lock();
             try {
+                // The final progress replaces any pending one so that no
+                // progress is delivered after the end event
+                pendingProgress.set(null);
+                if (listenProgress) {
+                    streamVariable.onProgress(new StreamingProgressEventImpl(
+                            filename, type, contentLength, totalBytes));
+                }
                 streamVariable.streamingFinished(event);
             } finally {
                 session.unlock();
@@ -411,6 +442,7 @@ public class StreamReceiverHandler implements Serializable {
                     filename, type, contentLength, totalBytes, e);
             session.lock();
             try {
+                pendingProgress.set(null);
                 streamVariable.streamingFailed(event);
             } finally {
                 session.unlock();
@@ -421,6 +453,7 @@ public class StreamReceiverHandler implements Serializable {
             tryToCloseStream(out);
             session.lock();
             try {
+                pendingProgress.set(null);
                 StreamVariable.StreamingErrorEvent event = new StreamingErrorEventImpl(
                         filename, type, contentLength, totalBytes, e);
                 streamVariable.streamingFailed(event);
@@ -434,23 +467,42 @@ public class StreamReceiverHandler implements Serializable {
         return startedEvent.isDisposed();
     }
 
-    private long updateProgress(VaadinSession session,
+    /**
+     * Delivers a progress event without blocking the upload on the session
+     * lock. The event is handed to an access task of the UI, and events
+     * produced while a task is pending only replace the event that the task
+     * delivers. Without a UI, the event is delivered directly.
+     */
+    private void updateProgress(VaadinSession session, UI ui,
             StreamVariable streamVariable,
-            StreamingProgressEventImpl progressEvent, long lastStreamingEvent,
-            int bytesReadToBuffer) {
-        long now = System.currentTimeMillis();
-        // to avoid excessive session locking and event storms,
-        // events are sent in intervals, or at the end of the file.
-        if (lastStreamingEvent + getProgressEventInterval() <= now
-                || bytesReadToBuffer <= 0) {
+            AtomicReference<StreamingProgressEventImpl> pendingProgress,
+            StreamingProgressEventImpl progressEvent) {
+        if (ui == null) {
             session.lock();
             try {
                 streamVariable.onProgress(progressEvent);
             } finally {
                 session.unlock();
             }
+            return;
+        }
+        if (pendingProgress.getAndSet(progressEvent) != null) {
+            // An access task is already going to deliver the latest event
+            return;
+        }
+        try {
+            ui.access(() -> {
+                StreamingProgressEventImpl latest = pendingProgress
+                        .getAndSet(null);
+                if (latest != null) {
+                    streamVariable.onProgress(latest);
+                }
+            });
+        } catch (UIDetachedException e) {
+            pendingProgress.set(null);
+            getLogger().debug("Upload progress not delivered to a detached UI",
+                    e);
         }
-        return now;
     }
 
     /**
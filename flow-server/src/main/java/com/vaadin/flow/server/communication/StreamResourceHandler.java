@@ -16,7 +16,11 @@
 package com.vaadin.flow.server.communication;
 
 import javax.servlet.ServletContext;
+import javax.servlet.http.HttpServletResponse;
 
+import com.vaadin.flow.internal.ByteRange;
+import com.vaadin.flow.internal.ResponseWriter;
+import com.vaadin.flow.server.RangedStreamResourceWriter;
 import com.vaadin.flow.server.StreamResource;
 import com.vaadin.flow.server.StreamResourceWriter;
 import com.vaadin.flow.server.VaadinRequest;
@@ -24,12 +28,18 @@ import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinServletRequest;
 import com.vaadin.flow.server.VaadinSession;
 
+import java.io.FilterOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.Serializable;
 
 /**
  * Handles {@link StreamResource} instances registered in {@link VaadinSession}.
+ * <p>
+ * If the resource has an entity tag, conditional requests using the
+ * <code>If-None-Match</code> header are responded to with status 304. If the
+ * content length of the resource is known, a single byte range requested using
+ * the <code>Range</code> header is sent with status 206.
  *
  * @author Vaadin Ltd
  * @since 1.0
@@ -57,6 +67,8 @@ public class StreamResourceHandler implements Serializable {
             throws IOException {
 
         StreamResourceWriter writer;
+        long length;
+        String eTag;
         session.lock();
         try {
             ServletContext context = ((VaadinServletRequest) request)
@@ -69,11 +81,98 @@ public class StreamResourceHandler implements Serializable {
                 throw new IOException(
                         "Stream resource produces null input stream");
             }
+            length = streamResource.getContentLength();
+            eTag = streamResource.getETag() == null ? null
+                    : '"' + streamResource.getETag() + '"';
         } finally {
             session.unlock();
         }
-        try (OutputStream outputStream = response.getOutputStream()) {
-            writer.accept(outputStream, session);
+
+        if (eTag != null) {
+            response.setHeader("ETag", eTag);
+            if (ResponseWriter.matchesIfNoneMatch(
+                    request.getHeader("If-None-Match"), eTag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+        }
+
+        ByteRange range = null;
+        if (length >= 0) {
+            response.setHeader("Accept-Ranges", "bytes");
+            range = ByteRange.parse(request.getHeader("Range"),
+                    request.getHeader("If-Range"), eTag, length).orElse(null);
+        }
+
+        if (range == null) {
+            if (length >= 0) {
+                // setContentLength(int) can't express lengths over 2 GB
+                response.setHeader("Content-Length", String.valueOf(length));
+            }
+            try (OutputStream outputStream = response.getOutputStream()) {
+                writer.accept(outputStream, session);
+            }
+        } else if (!range.isSatisfiable()) {
+            response.setHeader("Content-Range", range.getContentRange());
+            response.sendError(
+                    HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE,
+                    null);
+        } else {
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setHeader("Content-Range", range.getContentRange());
+            response.setHeader("Content-Length",
+                    String.valueOf(range.getLength()));
+            try (OutputStream outputStream = response.getOutputStream()) {
+                writeRange(writer, outputStream, session, range);
+            }
+        }
+    }
+
+    private static void writeRange(StreamResourceWriter writer,
+            OutputStream outputStream, VaadinSession session, ByteRange range)
+            throws IOException {
+        if (writer instanceof RangedStreamResourceWriter) {
+            ((RangedStreamResourceWriter) writer).accept(outputStream,
+                    session, range.getFirst(), range.getLength());
+        } else {
+            // The writer produces all the data, pass on only the range
+            writer.accept(new RangeOutputStream(outputStream, range),
+                    session);
+        }
+    }
+
+    /**
+     * Output stream which passes on only the bytes within a range and discards
+     * the rest.
+     */
+    private static class RangeOutputStream extends FilterOutputStream {
+        private final long first;
+        private final long last;
+        private long position;
+
+        private RangeOutputStream(OutputStream out, ByteRange range) {
+            super(out);
+            first = range.getFirst();
+            last = range.getLast();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (position >= first && position <= last) {
+                out.write(b);
+            }
+            position++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            long start = Math.max(position, first);
+            long end = Math.min(position + len - 1, last);
+            if (start <= end) {
+                out.write(b, off + (int) (start - position),
+                        (int) (end - start + 1));
+            }
+            position += len;
         }
     }
 
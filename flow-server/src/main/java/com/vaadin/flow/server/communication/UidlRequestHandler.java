@@ -18,9 +18,11 @@ package com.vaadin.flow.server.communication;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
-import java.io.StringWriter;
+import java.io.OutputStreamWriter;
 import java.io.Writer;
 
 import org.slf4j.Logger;
@@ -31,15 +33,16 @@ import com.vaadin.flow.server.ServletHelper;
 import com.vaadin.flow.server.ServletHelper.RequestType;
 import com.vaadin.flow.server.SessionExpiredHandler;
 import com.vaadin.flow.server.SynchronizedRequestHandler;
+import com.vaadin.flow.server.UILockingSessionLock;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinService;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.server.communication.ServerRpcHandler.InvalidUIDLSecurityKeyException;
+import com.vaadin.flow.shared.ApplicationConstants;
 import com.vaadin.flow.shared.JsonConstants;
 
 import elemental.json.JsonException;
-import elemental.json.JsonObject;
 
 /**
  * Processes a UIDL request from the client.
@@ -72,6 +75,25 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         return new ServerRpcHandler();
     }
 
+    @Override
+    public boolean handleRequest(VaadinSession session, VaadinRequest request,
+            VaadinResponse response) throws IOException {
+        if (!canHandleRequest(request) || !session.isUILockingEnabled()) {
+            return super.handleRequest(session, request, response);
+        }
+
+        UI uI = lockUI(session, request);
+        if (uI == null) {
+            // Let the regular code path deal with missing UIs
+            return super.handleRequest(session, request, response);
+        }
+        try {
+            return handleUidl(session, uI, request, response);
+        } finally {
+            session.unlockUI(uI);
+        }
+    }
+
     @Override
     public boolean synchronizedHandleRequest(VaadinSession session,
             VaadinRequest request, VaadinResponse response) throws IOException {
@@ -83,12 +105,50 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             return true;
         }
 
-        StringWriter stringWriter = new StringWriter();
+        return handleUidl(session, uI, request, response);
+    }
+
+    /**
+     * Finds the UI targeted by the request and locks it without locking the
+     * whole session.
+     *
+     * @return the locked UI, or <code>null</code> if no open UI was found
+     */
+    private static UI lockUI(VaadinSession session, VaadinRequest request) {
+        String uiIdString = request
+                .getParameter(ApplicationConstants.UI_ID_PARAMETER);
+        if (uiIdString == null) {
+            return null;
+        }
+        int uiId = Integer.parseInt(uiIdString);
+
+        UILockingSessionLock lock = (UILockingSessionLock) session
+                .getLockInstance();
+        // Prevents the UI from being removed until it has been locked
+        lock.lockShared();
+        try {
+            UI uI = session.getUIById(uiId);
+            if (uI == null || uI.isClosing()) {
+                return null;
+            }
+            session.lockUI(uI);
+            UI.setCurrent(uI);
+            return uI;
+        } finally {
+            lock.unlockShared();
+        }
+    }
+
+    private boolean handleUidl(VaadinSession session, UI uI,
+            VaadinRequest request, VaadinResponse response) throws IOException {
+        ByteArrayOutputStream uidl = new ByteArrayOutputStream();
+        Writer writer = new BufferedWriter(
+                new OutputStreamWriter(uidl, UTF_8));
 
         try {
             getRpcHandler(session).handleRpc(uI, request.getReader(), request);
 
-            writeUidl(uI, stringWriter);
+            writeUidl(uI, writer);
         } catch (JsonException e) {
             getLogger().error("Error writing JSON to response", e);
             // Refresh on client side
@@ -102,10 +162,10 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
             writeRefresh(response);
             return true;
         } finally {
-            stringWriter.close();
+            writer.close();
         }
 
-        commitJsonResponse(response, stringWriter.toString());
+        commitJsonResponse(response, uidl);
         return true;
     }
 
@@ -116,11 +176,10 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
     }
 
     private static void writeUidl(UI ui, Writer writer) throws IOException {
-        JsonObject uidl = new UidlWriter().createUidl(ui, false);
-
         // some dirt to prevent cross site scripting
-        String responseString = "for(;;);[" + uidl.toJson() + "]";
-        writer.write(responseString);
+        writer.write("for(;;);[");
+        new UidlWriter().writeUidl(ui, false, writer);
+        writer.write("]");
     }
 
     private static final Logger getLogger() {
@@ -148,8 +207,9 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
         return true;
     }
 
-    private ServerRpcHandler getRpcHandler(VaadinSession session) {
-        session.checkHasLock();
+    private synchronized ServerRpcHandler getRpcHandler(
+            VaadinSession session) {
+        session.checkHasSharedLock();
         if (rpcHandler == null) {
             rpcHandler = createRpcHandler();
         }
@@ -170,18 +230,33 @@ public class UidlRequestHandler extends SynchronizedRequestHandler
      */
     public static void commitJsonResponse(VaadinResponse response, String json)
             throws IOException {
-        response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
-
-        // Ensure that the browser does not cache UIDL responses.
-        // iOS 6 Safari requires this (#9732)
-        response.setHeader("Cache-Control", "no-cache");
-
         byte[] b = json.getBytes(UTF_8);
-        response.setContentLength(b.length);
+        setJsonResponseHeaders(response, b.length);
 
         OutputStream outputStream = response.getOutputStream();
         outputStream.write(b);
         // NOTE GateIn requires the buffers to be flushed to work
         outputStream.flush();
     }
+
+    private static void commitJsonResponse(VaadinResponse response,
+            ByteArrayOutputStream json) throws IOException {
+        setJsonResponseHeaders(response, json.size());
+
+        OutputStream outputStream = response.getOutputStream();
+        json.writeTo(outputStream);
+        // NOTE GateIn requires the buffers to be flushed to work
+        outputStream.flush();
+    }
+
+    private static void setJsonResponseHeaders(VaadinResponse response,
+            int contentLength) {
+        response.setContentType(JsonConstants.JSON_CONTENT_TYPE);
+
+        // Ensure that the browser does not cache UIDL responses.
+        // iOS 6 Safari requires this (#9732)
+        response.setHeader("Cache-Control", "no-cache");
+
+        response.setContentLength(contentLength);
+    }
 }
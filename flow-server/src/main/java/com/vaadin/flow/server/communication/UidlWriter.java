@@ -19,10 +19,13 @@ package com.vaadin.flow.server.communication;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumMap;
 import java.util.LinkedHashSet;
@@ -42,6 +45,7 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.DependencyList;
 import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.component.internal.UIInternals.JavaScriptInvocation;
+import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.JsonCodec;
 import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.internal.StateTree;
@@ -64,6 +68,7 @@ import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 import elemental.json.JsonValue;
+import elemental.json.impl.JsonUtil;
 
 /**
  * Serializes pending server-side changes to UI state to JSON. This includes
@@ -130,6 +135,129 @@ public class UidlWriter implements Serializable {
 
     }
 
+    /**
+     * Receives the top level entries of a UIDL message while it is being
+     * created.
+     */
+    private interface UidlSink extends Serializable {
+
+        /**
+         * Sets the value of a top level key.
+         *
+         * @param key
+         *            the key to set
+         * @param value
+         *            the value to set
+         */
+        void put(String key, JsonValue value);
+
+        /**
+         * Appends an item to the top level array with the given key. The
+         * array is created when the first item is appended, so no array is
+         * created for a key without items. All items for one key are
+         * appended in sequence.
+         *
+         * @param key
+         *            the key of the array
+         * @param item
+         *            the item to append
+         */
+        void append(String key, JsonValue item);
+    }
+
+    /**
+     * Sink collecting the UIDL message into a JSON object.
+     */
+    private static class JsonObjectSink implements UidlSink {
+        private final JsonObject response = Json.createObject();
+
+        @Override
+        public void put(String key, JsonValue value) {
+            response.put(key, value);
+        }
+
+        @Override
+        public void append(String key, JsonValue item) {
+            JsonArray array;
+            if (response.hasKey(key)) {
+                array = response.getArray(key);
+            } else {
+                array = Json.createArray();
+                response.put(key, array);
+            }
+            array.set(array.length(), item);
+        }
+    }
+
+    /**
+     * Sink writing the UIDL message to a {@link Writer} as the entries are
+     * produced. Each value is serialized and written as soon as it is
+     * received, which means that the message as a whole is never kept in
+     * memory.
+     */
+    private static class StreamingSink implements UidlSink {
+        private final Writer writer;
+        private boolean empty = true;
+        private String openArrayKey;
+
+        private StreamingSink(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void put(String key, JsonValue value) {
+            closeArray();
+            writeKey(key);
+            write(value.toJson());
+        }
+
+        @Override
+        public void append(String key, JsonValue item) {
+            if (key.equals(openArrayKey)) {
+                write(",");
+            } else {
+                closeArray();
+                writeKey(key);
+                write("[");
+                openArrayKey = key;
+            }
+            write(item.toJson());
+        }
+
+        private void begin() {
+            write("{");
+        }
+
+        private void end() {
+            closeArray();
+            write("}");
+        }
+
+        private void closeArray() {
+            if (openArrayKey != null) {
+                write("]");
+                openArrayKey = null;
+            }
+        }
+
+        private void writeKey(String key) {
+            if (!empty) {
+                write(",");
+            }
+            empty = false;
+            write(JsonUtil.quote(key));
+            write(":");
+        }
+
+        private void write(String string) {
+            try {
+                writer.write(string);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
     /**
      * Creates a JSON object containing all pending changes to the given UI.
      *
@@ -141,8 +269,45 @@ public class UidlWriter implements Serializable {
      * @return JSON object containing the UIDL response
      */
     public JsonObject createUidl(UI ui, boolean async) {
-        JsonObject response = Json.createObject();
+        JsonObjectSink sink = new JsonObjectSink();
+        createUidl(ui, async, sink);
+        return sink.response;
+    }
+
+    /**
+     * Writes all pending changes to the given UI as a JSON object to the
+     * given writer.
+     * <p>
+     * The written message has the same contents as the JSON object created
+     * by {@link #createUidl(UI, boolean)}, but state changes, constants and
+     * JavaScript invocations are serialized to the writer as they are
+     * collected instead of first building a JSON tree for the whole
+     * response.
+     *
+     * @param ui
+     *            The {@link UI} whose changes to write
+     * @param async
+     *            True if this message is sent by the server asynchronously,
+     *            false if it is a response to a client message.
+     * @param writer
+     *            the writer to write the UIDL response to, not
+     *            <code>null</code>
+     * @throws IOException
+     *             if writing to the writer fails
+     */
+    public void writeUidl(UI ui, boolean async, Writer writer)
+            throws IOException {
+        StreamingSink sink = new StreamingSink(Objects.requireNonNull(writer));
+        try {
+            sink.begin();
+            createUidl(ui, async, sink);
+            sink.end();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
 
+    private void createUidl(UI ui, boolean async, UidlSink response) {
         UIInternals uiInternals = ui.getInternals();
 
         VaadinSession session = ui.getSession();
@@ -151,6 +316,7 @@ public class UidlWriter implements Serializable {
         // Purge pending access calls as they might produce additional changes
         // to write out
         service.runPendingAccessTasks(session);
+        service.runPendingAccessTasks(ui);
 
         // Paints components
         getLogger().debug("* Creating response to client");
@@ -159,11 +325,15 @@ public class UidlWriter implements Serializable {
                 ? uiInternals.getServerSyncId()
                 : -1;
 
-        response.put(ApplicationConstants.SERVER_SYNC_ID, syncId);
+        response.put(ApplicationConstants.SERVER_SYNC_ID, Json.create(syncId));
         int nextClientToServerMessageId = uiInternals
                 .getLastProcessedClientToServerId() + 1;
         response.put(ApplicationConstants.CLIENT_TO_SERVER_ID,
-                nextClientToServerMessageId);
+                Json.create(nextClientToServerMessageId));
+        if (uiInternals.clearResynchronizationRequest()) {
+            response.put(ApplicationConstants.RESYNCHRONIZE_ID,
+                    Json.create(true));
+        }
 
         SystemMessages messages = ui.getSession().getService()
                 .getSystemMessages(ui.getLocale(), null);
@@ -174,36 +344,37 @@ public class UidlWriter implements Serializable {
             response.put("meta", meta);
         }
 
-        JsonArray stateChanges = Json.createArray();
-
-        encodeChanges(ui, stateChanges);
+        encodeChanges(ui, response);
 
         populateDependencies(response, uiInternals.getDependencyList(),
                 new ResolveContext(service, session.getBrowser(), null));
 
-        if (uiInternals.getConstantPool().hasNewConstants()) {
-            response.put("constants",
-                    uiInternals.getConstantPool().dumpConstants());
+        ConstantPool constantPool = uiInternals.getConstantPool();
+        if (constantPool.hasNewConstants()) {
+            response.put("constants", constantPool.dumpConstants());
+            if (constantPool.isDeliveryTracked()) {
+                response.put(ApplicationConstants.STORED_CONSTANTS_ID,
+                        Json.create(constantPool.getLastDeliveryId()));
+            }
         }
-        if (stateChanges.length() != 0) {
-            response.put("changes", stateChanges);
+        if (constantPool.hasNewCachedConstants()) {
+            response.put(ApplicationConstants.CACHED_CONSTANTS,
+                    constantPool.dumpCachedConstantIds());
         }
 
         List<JavaScriptInvocation> executeJavaScriptList = uiInternals
                 .dumpPendingJavaScriptInvocations();
-        if (!executeJavaScriptList.isEmpty()) {
-            response.put(JsonConstants.UIDL_KEY_EXECUTE,
-                    encodeExecuteJavaScriptList(executeJavaScriptList));
-        }
+        executeJavaScriptList.forEach(
+                invocation -> response.append(JsonConstants.UIDL_KEY_EXECUTE,
+                        encodeExecuteJavaScript(invocation)));
         if (ui.getSession().getService().getDeploymentConfiguration()
                 .isRequestTiming()) {
             response.put("timings", createPerformanceData(ui));
         }
         uiInternals.incrementServerId();
-        return response;
     }
 
-    private static void populateDependencies(JsonObject response,
+    private static void populateDependencies(UidlSink response,
             DependencyList dependencyList, ResolveContext context) {
         Collection<Dependency> pendingSendToClient = dependencyList
                 .getPendingSendToClient();
@@ -249,6 +420,18 @@ public class UidlWriter implements Serializable {
 
     private static String getDependencyContents(String url,
             ResolveContext context) {
+        VaadinService service = context.getService();
+        AbstractTheme theme = context.getTheme();
+        // The contents depend on the resolved ES5/ES6 path and the theme
+        List<Object> key = Arrays.asList(
+                service.resolveResource(url, context.getBrowser()),
+                theme == null ? null : theme.getClass());
+        return service.getInlineResourceCache().getContents(key,
+                () -> readDependencyContents(url, context));
+    }
+
+    private static String readDependencyContents(String url,
+            ResolveContext context) {
         try (InputStream inlineResourceStream = getInlineResourceStream(url,
                 context)) {
             return IOUtils.toString(inlineResourceStream,
@@ -323,16 +506,20 @@ public class UidlWriter implements Serializable {
      *
      * @param ui
      *            the UI
-     * @param stateChanges
-     *            a JSON array to put state changes into
+     * @param response
+     *            the response to append state changes to
      * @see StateTree#runExecutionsBeforeClientResponse()
      */
-    private void encodeChanges(UI ui, JsonArray stateChanges) {
+    private void encodeChanges(UI ui, UidlSink response) {
         UIInternals uiInternals = ui.getInternals();
         StateTree stateTree = uiInternals.getStateTree();
 
         stateTree.runExecutionsBeforeClientResponse();
 
+        ConstantPool constantPool = uiInternals.getConstantPool();
+        boolean compact = ui.getSession().getConfiguration()
+                .isCompactChangeFormat();
+
         Set<Class<? extends Component>> componentsWithDependencies = new LinkedHashSet<>();
         stateTree.collectChanges(change -> {
             if (attachesComponent(change)) {
@@ -343,8 +530,9 @@ public class UidlWriter implements Serializable {
             }
 
             // Encode the actual change
-            stateChanges.set(stateChanges.length(),
-                    change.toJson(uiInternals.getConstantPool()));
+            response.append("changes",
+                    compact ? change.toCompactJson(constantPool)
+                            : change.toJson(constantPool));
         });
 
         componentsWithDependencies
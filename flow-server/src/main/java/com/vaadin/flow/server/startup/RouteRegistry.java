@@ -119,6 +119,7 @@ public class RouteRegistry implements Serializable {
     private final ArrayList<NavigationTargetFilter> routeFilters = new ArrayList<>();
 
     private final AtomicReference<Map<String, RouteTarget>> routes = new AtomicReference<>();
+    private final AtomicReference<RouteTrie> routeTrie = new AtomicReference<>();
     private final AtomicReference<Map<Class<? extends Component>, String>> targetRoutes = new AtomicReference<>();
     private final AtomicReference<Map<Class<? extends Exception>, Class<? extends Component>>> exceptionTargets = new AtomicReference<>();
     private final AtomicReference<List<RouteData>> routeData = new AtomicReference<>();
@@ -437,6 +438,27 @@ public class RouteRegistry implements Serializable {
         return Optional.empty();
     }
 
+    /**
+     * Finds the route for the given location segments. The longest registered
+     * route path matching the beginning of the segments is used, provided that
+     * it has a navigation target accepting the remaining segments as URL
+     * parameters.
+     *
+     * @see Location#getSegments()
+     *
+     * @param segments
+     *            the location segments, not {@code null}
+     * @return the matching route, or an empty optional if no route matches
+     */
+    public Optional<RouteTrie.Match> findRoute(List<String> segments) {
+        Objects.requireNonNull(segments, "segments must not be null.");
+        RouteTrie trie = routeTrie.get();
+        if (trie == null) {
+            return Optional.empty();
+        }
+        return trie.find(segments);
+    }
+
     /**
      * Checks if the registry contains a route to the given path.
      *
@@ -559,6 +581,7 @@ public class RouteRegistry implements Serializable {
             throw new IllegalStateException(
                     "Route registry has been already initialized");
         }
+        routeTrie.set(new RouteTrie(routesMap));
     }
 
     private void addRoute(Map<String, RouteTarget> routesMap,
@@ -38,6 +38,8 @@ public class RouteRegistryInitializer extends AbstractRouteRegistryInitializer
     @Override
     public void onStartup(Set<Class<?>> classSet, ServletContext servletContext)
             throws ServletException {
+        classSet = StartupClassIndex.getClasses(getClass(), classSet,
+                servletContext);
         try {
             if (classSet == null) {
                 RouteRegistry.getInstance(servletContext)
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.startup;
+
+import java.io.Serializable;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.vaadin.flow.component.Component;
+
+/**
+ * Registered routes structured as a tree of path segments, for finding the
+ * route of a location with a single pass over the location segments.
+ * <p>
+ * Route paths, including paths from {@code @RouteAlias} and
+ * {@code @RoutePrefix} annotations, are split into segments. Each node in the
+ * tree corresponds to a route path prefix, and holds the {@link RouteTarget}
+ * if a route is registered for that exact path. Any URL parameters of a route
+ * are matched by the {@link RouteTarget} against the location segments that
+ * remain after the route path.
+ *
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public class RouteTrie implements Serializable {
+
+    private static class Node implements Serializable {
+        private final Map<String, Node> children = new HashMap<>();
+        private String path;
+        private RouteTarget target;
+    }
+
+    /**
+     * A route found for a location.
+     */
+    public static class Match implements Serializable {
+        private final String path;
+        private final List<String> segments;
+        private final Class<? extends Component> target;
+
+        private Match(String path, List<String> segments,
+                Class<? extends Component> target) {
+            this.path = path;
+            this.segments = segments;
+            this.target = target;
+        }
+
+        /**
+         * Gets the registered route path that matched the location.
+         *
+         * @return the route path, not <code>null</code>
+         */
+        public String getPath() {
+            return path;
+        }
+
+        /**
+         * Gets the location segments following the route path. These are the
+         * URL parameters for the navigation target.
+         *
+         * @return the remaining location segments, not <code>null</code>
+         */
+        public List<String> getSegments() {
+            return segments;
+        }
+
+        /**
+         * Gets the navigation target for the route path and the remaining
+         * segments.
+         *
+         * @return the navigation target, not <code>null</code>
+         */
+        public Class<? extends Component> getTarget() {
+            return target;
+        }
+    }
+
+    private final Node root = new Node();
+
+    /**
+     * Creates a tree for the given routes.
+     *
+     * @param routes
+     *            a map from route paths to route targets, not
+     *            <code>null</code>
+     */
+    public RouteTrie(Map<String, RouteTarget> routes) {
+        routes.forEach(this::add);
+    }
+
+    private void add(String path, RouteTarget target) {
+        Node node = root;
+        if (!path.isEmpty()) {
+            for (String segment : path.split("/", -1)) {
+                node = node.children.computeIfAbsent(segment,
+                        key -> new Node());
+            }
+        }
+        node.path = path;
+        node.target = target;
+    }
+
+    /**
+     * Finds the longest route path that matches the beginning of the given
+     * location segments, and which has a navigation target that accepts the
+     * remaining segments as URL parameters.
+     *
+     * @param segments
+     *            the location segments, not <code>null</code>
+     * @return the matching route, or an empty optional if no route matches
+     */
+    public Optional<Match> find(List<String> segments) {
+        if (segments.isEmpty()) {
+            return Optional.empty();
+        }
+        if (segments.get(0).isEmpty()) {
+            // Location with an empty first segment can only match the root
+            return match(root, segments.subList(1, segments.size()));
+        }
+
+        Node[] nodes = new Node[segments.size() + 1];
+        nodes[0] = root;
+        int depth = 0;
+        while (depth < segments.size()) {
+            Node child = nodes[depth].children.get(segments.get(depth));
+            if (child == null) {
+                break;
+            }
+            depth++;
+            nodes[depth] = child;
+        }
+
+        for (; depth >= 0; depth--) {
+            Optional<Match> match = match(nodes[depth],
+                    segments.subList(depth, segments.size()));
+            if (match.isPresent()) {
+                return match;
+            }
+        }
+        return Optional.empty();
+    }
+
+    private static Optional<Match> match(Node node, List<String> segments) {
+        if (node.target == null) {
+            return Optional.empty();
+        }
+        Class<? extends Component> target = node.target.getTarget(segments);
+        if (target == null) {
+            return Optional.empty();
+        }
+        return Optional.of(new Match(node.path, segments, target));
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.startup;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.Set;
+
+import javax.servlet.ServletContainerInitializer;
+import javax.servlet.ServletContext;
+import javax.servlet.annotation.HandlesTypes;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the class index generated at build time by the
+ * {@code flow-maven-plugin}, which lists the classes the servlet container
+ * would pass to the startup initializers based on their {@link HandlesTypes}
+ * annotations.
+ * <p>
+ * The index is a properties file where each key is the name of a handled type
+ * and the value is a comma separated list of the names of the classes
+ * annotated with or extending that type. When the index is present, the
+ * initializers use it in addition to the classes found by the servlet
+ * container, which makes it possible to disable the container's class path
+ * scanning. In that case, the application and every add-on with routes or
+ * other handled classes must include an index.
+ * <p>
+ * If several indexes are found in the class path, for instance in the class
+ * output directory of the application and in a library jar, their entries are
+ * merged.
+ *
+ * @author Vaadin Ltd
+ * @since 1.1
+ */
+public final class StartupClassIndex implements Serializable {
+
+    /**
+     * The location of the index in the class path.
+     */
+    public static final String INDEX_RESOURCE = "META-INF/VAADIN/startup-class-index.properties";
+
+    private StartupClassIndex() {
+    }
+
+    /**
+     * Gets the classes for the types handled by the given initializer,
+     * combining the indexed classes with the classes found by the servlet
+     * container. The container's classes are always included since an index
+     * in an add-on jar does not list the classes of the application.
+     *
+     * @param initializer
+     *            the initializer type annotated with {@link HandlesTypes}, not
+     *            <code>null</code>
+     * @param classSet
+     *            the classes found by the servlet container, or
+     *            <code>null</code> if class path scanning is disabled
+     * @param servletContext
+     *            the servlet context to use for loading the index and the
+     *            classes, not <code>null</code>
+     * @return the classes for the handled types, or the given
+     *         <code>classSet</code> if there is no index or the index doesn't
+     *         contain all the handled types
+     */
+    public static Set<Class<?>> getClasses(
+            Class<? extends ServletContainerInitializer> initializer,
+            Set<Class<?>> classSet, ServletContext servletContext) {
+        return getIndexedClasses(initializer, servletContext)
+                .map(indexed -> {
+                    if (classSet != null) {
+                        indexed.addAll(classSet);
+                    }
+                    return indexed;
+                }).orElse(classSet);
+    }
+
+    private static Optional<Set<Class<?>>> getIndexedClasses(
+            Class<? extends ServletContainerInitializer> initializer,
+            ServletContext servletContext) {
+        ClassLoader classLoader = servletContext.getClassLoader();
+        if (classLoader == null) {
+            classLoader = StartupClassIndex.class.getClassLoader();
+        }
+        Properties index = readIndex(classLoader);
+        if (index == null) {
+            return Optional.empty();
+        }
+
+        Set<Class<?>> classes = new HashSet<>();
+        for (Class<?> type : initializer.getAnnotation(HandlesTypes.class)
+                .value()) {
+            String classNames = index.getProperty(type.getName());
+            if (classNames == null) {
+                getLogger().warn(
+                        "Class index '{}' has no entry for '{}', using the classes found by the servlet container",
+                        INDEX_RESOURCE, type.getName());
+                return Optional.empty();
+            }
+            for (String className : classNames.split(",")) {
+                if (!className.trim().isEmpty()) {
+                    loadClass(classLoader, className.trim())
+                            .ifPresent(classes::add);
+                }
+            }
+        }
+        return Optional.of(classes);
+    }
+
+    private static Properties readIndex(ClassLoader classLoader) {
+        try {
+            Enumeration<URL> resources = classLoader
+                    .getResources(INDEX_RESOURCE);
+            if (!resources.hasMoreElements()) {
+                return null;
+            }
+            // Each jar or class output directory may contain its own index
+            Properties index = new Properties();
+            while (resources.hasMoreElements()) {
+                Properties part = readIndex(resources.nextElement());
+                for (String type : part.stringPropertyNames()) {
+                    index.merge(type, part.getProperty(type),
+                            (classNames, moreClassNames) -> classNames + ","
+                                    + moreClassNames);
+                }
+            }
+            return index;
+        } catch (IOException e) {
+            throw new UncheckedIOException(
+                    "Failed to read class index " + INDEX_RESOURCE, e);
+        }
+    }
+
+    private static Properties readIndex(URL url) throws IOException {
+        Properties index = new Properties();
+        try (Reader reader = new InputStreamReader(url.openStream(),
+                StandardCharsets.UTF_8)) {
+            index.load(reader);
+        }
+        return index;
+    }
+
+    private static Optional<Class<?>> loadClass(ClassLoader classLoader,
+            String className) {
+        try {
+            return Optional.of(Class.forName(className, false, classLoader));
+        } catch (ClassNotFoundException | LinkageError e) {
+            getLogger().warn("Class '{}' listed in class index '{}' not found",
+                    className, INDEX_RESOURCE, e);
+            return Optional.empty();
+        }
+    }
+
+    private static Logger getLogger() {
+        return LoggerFactory.getLogger(StartupClassIndex.class.getName());
+    }
+}
@@ -28,6 +28,7 @@ import javax.servlet.http.HttpServletResponse;
 import com.vaadin.flow.function.DeploymentConfiguration;
 import com.vaadin.flow.internal.ResponseWriter;
 import com.vaadin.flow.server.Constants;
+import com.vaadin.flow.server.StaticResourceCache;
 import com.vaadin.flow.shared.ApplicationConstants;
 
 /**
@@ -42,7 +43,7 @@ import com.vaadin.flow.shared.ApplicationConstants;
  * @since 1.0.
  */
 public class WebJarServer implements Serializable {
-    private final ResponseWriter responseWriter = new ResponseWriter();
+    private final ResponseWriter responseWriter;
 
     private final String prefix;
     private final Pattern urlPattern;
@@ -56,7 +57,23 @@ public class WebJarServer implements Serializable {
      *
      */
     public WebJarServer(DeploymentConfiguration deploymentConfiguration) {
+        this(deploymentConfiguration, null);
+    }
+
+    /**
+     * Creates a webJar server that is able to search webJars for files and
+     * return them, caching the returned files in the given cache.
+     *
+     * @param deploymentConfiguration
+     *            configuration for the deployment, not <code>null</code>
+     * @param cache
+     *            the cache for the webJar files, or <code>null</code> to not
+     *            cache the files
+     */
+    public WebJarServer(DeploymentConfiguration deploymentConfiguration,
+            StaticResourceCache cache) {
         assert deploymentConfiguration != null;
+        responseWriter = new ResponseWriter(cache);
 
         String frontendPrefix = deploymentConfiguration
                 .getDevelopmentFrontendPrefix();
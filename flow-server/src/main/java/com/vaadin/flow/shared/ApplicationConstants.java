@@ -170,4 +170,29 @@ public class ApplicationConstants implements Serializable {
      */
     public static final String FRONTEND_URL_ES5 = "frontendUrlEs5";
 
+    /**
+     * Configuration parameter for the id of the session constant pool that the
+     * client should cache constants for.
+     */
+    public static final String CONSTANT_POOL_ID = "constantPoolId";
+
+    /**
+     * Name of the cookie telling the server the id of the session constant pool
+     * that the browser has cached constants for.
+     */
+    public static final String CONSTANT_POOL_COOKIE = "vaadin-constants";
+
+    /**
+     * Response key for the ids of constants the client should read from its
+     * constant cache.
+     */
+    public static final String CACHED_CONSTANTS = "cachedConstants";
+
+    /**
+     * Response key for the id of the constants included in the response, and
+     * request key for the id of the latest constants the client has stored in
+     * its constant cache.
+     */
+    public static final String STORED_CONSTANTS_ID = "storedConstantsId";
+
 }
@@ -124,6 +124,61 @@ public class JsonConstants implements Serializable {
      */
     public static final String CHANGE_PUT_NODE_VALUE = "nodeValue";
 
+    /**
+     * Compact change type for an attach change. A compact change is a JSON
+     * array where the first item is the change type and the second item is
+     * the node id, followed by type specific items: <code>[type, node]</code>.
+     */
+    public static final int COMPACT_CHANGE_ATTACH = 0;
+
+    /**
+     * Compact change type for a detach change: <code>[type, node]</code>.
+     */
+    public static final int COMPACT_CHANGE_DETACH = 1;
+
+    /**
+     * Compact change type for a map put change with a plain value:
+     * <code>[type, node, feature, key, value]</code>.
+     */
+    public static final int COMPACT_CHANGE_PUT = 2;
+
+    /**
+     * Compact change type for a map put change with a node value:
+     * <code>[type, node, feature, key, nodeId]</code>.
+     */
+    public static final int COMPACT_CHANGE_PUT_NODE = 3;
+
+    /**
+     * Compact change type for a map remove change:
+     * <code>[type, node, feature, key]</code>.
+     */
+    public static final int COMPACT_CHANGE_REMOVE = 4;
+
+    /**
+     * Compact change type for a list splice change with plain values:
+     * <code>[type, node, feature, index, remove, [values]]</code>, where the
+     * values array is omitted if nothing is added.
+     */
+    public static final int COMPACT_CHANGE_SPLICE = 5;
+
+    /**
+     * Compact change type for a list splice change with node values:
+     * <code>[type, node, feature, index, remove, [nodeIds]]</code>.
+     */
+    public static final int COMPACT_CHANGE_SPLICE_NODES = 6;
+
+    /**
+     * Compact change type for a list clear change:
+     * <code>[type, node, feature]</code>.
+     */
+    public static final int COMPACT_CHANGE_CLEAR = 7;
+
+    /**
+     * Compact change type for an empty change populating a feature:
+     * <code>[type, node, feature, isList]</code>.
+     */
+    public static final int COMPACT_CHANGE_NOOP = 8;
+
     /**
      * Key holding the type in of messages sent from the client.
      */
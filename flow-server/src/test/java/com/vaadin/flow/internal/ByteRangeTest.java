@@ -0,0 +1,79 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ByteRangeTest {
+
+    @Test
+    public void parse_firstAndLast() {
+        assertRange(2, 5, ByteRange.parse("bytes=2-5", 10).get());
+        assertRange(2, 9, ByteRange.parse("bytes=2-100", 10).get());
+    }
+
+    @Test
+    public void parse_openEnded() {
+        assertRange(4, 9, ByteRange.parse("bytes=4-", 10).get());
+    }
+
+    @Test
+    public void parse_suffix() {
+        assertRange(7, 9, ByteRange.parse("bytes=-3", 10).get());
+        assertRange(0, 9, ByteRange.parse("bytes=-30", 10).get());
+    }
+
+    @Test
+    public void parse_unsatisfiable() {
+        ByteRange range = ByteRange.parse("bytes=10-", 10).get();
+        Assert.assertFalse(range.isSatisfiable());
+        Assert.assertEquals("bytes */10", range.getContentRange());
+
+        Assert.assertFalse(
+                ByteRange.parse("bytes=-0", 10).get().isSatisfiable());
+    }
+
+    @Test
+    public void parse_unsupportedOrInvalid_empty() {
+        Assert.assertFalse(ByteRange.parse(null, 10).isPresent());
+        Assert.assertFalse(ByteRange.parse("bytes=0-1,3-4", 10).isPresent());
+        Assert.assertFalse(ByteRange.parse("items=0-1", 10).isPresent());
+        Assert.assertFalse(ByteRange.parse("bytes=5-2", 10).isPresent());
+        Assert.assertFalse(ByteRange.parse("bytes=a-b", 10).isPresent());
+        Assert.assertFalse(ByteRange.parse("bytes=0-1", -1).isPresent());
+    }
+
+    @Test
+    public void parse_ifRange() {
+        assertRange(2, 5, ByteRange.parse("bytes=2-5", "\"a\"", "\"a\"", 10)
+                .get());
+        assertRange(2, 5, ByteRange.parse("bytes=2-5", null, null, 10).get());
+        Assert.assertFalse(ByteRange.parse("bytes=2-5", "\"b\"", "\"a\"", 10)
+                .isPresent());
+        Assert.assertFalse(
+                ByteRange.parse("bytes=2-5", "\"a\"", null, 10).isPresent());
+    }
+
+    private static void assertRange(long first, long last, ByteRange range) {
+        Assert.assertTrue(range.isSatisfiable());
+        Assert.assertEquals(first, range.getFirst());
+        Assert.assertEquals(last, range.getLast());
+        Assert.assertEquals(last - first + 1, range.getLength());
+        Assert.assertEquals("bytes " + first + "-" + last + "/10",
+                range.getContentRange());
+    }
+}
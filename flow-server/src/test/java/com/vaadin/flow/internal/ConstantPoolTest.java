@@ -22,6 +22,7 @@ import com.vaadin.flow.internal.ConstantPool;
 import com.vaadin.flow.internal.ConstantPoolKey;
 
 import elemental.json.Json;
+import elemental.json.JsonArray;
 import elemental.json.JsonObject;
 
 public class ConstantPoolTest {
@@ -74,4 +75,106 @@ public class ConstantPoolTest {
         Assert.assertNotEquals(constantId, otherId);
         Assert.assertTrue(constantPool.hasNewConstants());
     }
+
+    @Test
+    public void sessionConstantPool_deliveryConfirmed_constantsMarkedDelivered() {
+        SessionConstantPool sessionPool = new SessionConstantPool();
+        constantPool.setSessionConstantPool(sessionPool, false);
+
+        String constantId = constantPool
+                .getConstantId(new ConstantPoolKey(Json.createObject()));
+        Assert.assertFalse(sessionPool.isDelivered(constantId));
+
+        constantPool.dumpConstants();
+        Assert.assertFalse(sessionPool.isDelivered(constantId));
+
+        constantPool.confirmDelivery(constantPool.getLastDeliveryId());
+        Assert.assertTrue(sessionPool.isDelivered(constantId));
+    }
+
+    @Test
+    public void sessionConstantPool_earlierDeliveryConfirmed_laterConstantsNotDelivered() {
+        SessionConstantPool sessionPool = new SessionConstantPool();
+        constantPool.setSessionConstantPool(sessionPool, false);
+
+        String firstId = constantPool
+                .getConstantId(new ConstantPoolKey(Json.createObject()));
+        constantPool.dumpConstants();
+        int firstDelivery = constantPool.getLastDeliveryId();
+
+        String secondId = constantPool
+                .getConstantId(new ConstantPoolKey(Json.createArray()));
+        constantPool.dumpConstants();
+        Assert.assertNotEquals(firstDelivery,
+                constantPool.getLastDeliveryId());
+
+        constantPool.confirmDelivery(firstDelivery);
+        Assert.assertTrue(sessionPool.isDelivered(firstId));
+        Assert.assertFalse(sessionPool.isDelivered(secondId));
+
+        constantPool.confirmDelivery(constantPool.getLastDeliveryId());
+        Assert.assertTrue(sessionPool.isDelivered(secondId));
+    }
+
+    @Test
+    public void sessionConstantPool_pendingDeliveriesDiscarded_confirmationIgnored() {
+        SessionConstantPool sessionPool = new SessionConstantPool();
+        constantPool.setSessionConstantPool(sessionPool, false);
+
+        String constantId = constantPool
+                .getConstantId(new ConstantPoolKey(Json.createObject()));
+        constantPool.dumpConstants();
+
+        constantPool.discardPendingDeliveries();
+        constantPool.confirmDelivery(constantPool.getLastDeliveryId());
+
+        Assert.assertFalse(sessionPool.isDelivered(constantId));
+    }
+
+    @Test
+    public void sessionConstantPool_clientCache_deliveredConstantsSentAsIds() {
+        SessionConstantPool sessionPool = new SessionConstantPool();
+        constantPool.setSessionConstantPool(sessionPool, false);
+        String deliveredId = constantPool
+                .getConstantId(new ConstantPoolKey(Json.createObject()));
+        constantPool.dumpConstants();
+        constantPool.confirmDelivery(constantPool.getLastDeliveryId());
+
+        ConstantPool otherPool = new ConstantPool();
+        otherPool.setSessionConstantPool(sessionPool, true);
+
+        Assert.assertEquals(deliveredId, otherPool
+                .getConstantId(new ConstantPoolKey(Json.createObject())));
+        String newId = otherPool
+                .getConstantId(new ConstantPoolKey(Json.createArray()));
+
+        Assert.assertTrue(otherPool.hasNewConstants());
+        Assert.assertTrue(otherPool.hasNewCachedConstants());
+
+        JsonObject constants = otherPool.dumpConstants();
+        Assert.assertArrayEquals(new String[] { newId }, constants.keys());
+
+        JsonArray cachedIds = otherPool.dumpCachedConstantIds();
+        Assert.assertEquals(1, cachedIds.length());
+        Assert.assertEquals(deliveredId, cachedIds.getString(0));
+
+        Assert.assertFalse(otherPool.hasNewConstants());
+        Assert.assertFalse(otherPool.hasNewCachedConstants());
+    }
+
+    @Test
+    public void sessionConstantPool_noClientCache_deliveredConstantsSentAgain() {
+        SessionConstantPool sessionPool = new SessionConstantPool();
+        constantPool.setSessionConstantPool(sessionPool, false);
+        constantPool.getConstantId(new ConstantPoolKey(Json.createObject()));
+        constantPool.dumpConstants();
+        constantPool.confirmDelivery(constantPool.getLastDeliveryId());
+
+        ConstantPool otherPool = new ConstantPool();
+        otherPool.setSessionConstantPool(sessionPool, false);
+        otherPool.getConstantId(new ConstantPoolKey(Json.createObject()));
+
+        Assert.assertTrue(otherPool.hasNewConstants());
+        Assert.assertFalse(otherPool.hasNewCachedConstants());
+    }
 }
@@ -18,12 +18,15 @@ package com.vaadin.flow.internal;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.zip.GZIPOutputStream;
@@ -38,10 +41,12 @@ import org.junit.After;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Matchers;
 import org.mockito.Mockito;
 
 import com.vaadin.flow.internal.ResponseWriter;
+import com.vaadin.flow.server.StaticResourceCache;
 import com.vaadin.flow.server.VaadinService;
 
 /**
@@ -247,6 +252,299 @@ public class ResponseWriterTest {
                 responseContentLength.get());
     }
 
+    @Test
+    public void writeDataBrotli() throws IOException {
+        Mockito.when(request.getHeader("Accept-Encoding"))
+                .thenReturn("gzip, deflate, br");
+        byte[] brotliContents = new byte[] { 1, 2, 3 };
+
+        URL fileJsURL = createFileURLWithDataAndLength("/static/file.js",
+                "File.js contents".getBytes(StandardCharsets.UTF_8));
+        URL fileJsGzURL = createFileURLWithDataAndLength("/static/file.js.gz",
+                gzip("File.js contents"));
+        URL fileJsBrURL = createFileURLWithDataAndLength("/static/file.js.br",
+                brotliContents);
+
+        Mockito.when(servletContext.getResource("/static/file.js.gz"))
+                .thenReturn(fileJsGzURL);
+        Mockito.when(servletContext.getResource("/static/file.js.br"))
+                .thenReturn(fileJsBrURL);
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        responseWriter.writeResponseContents("/static/file.js", fileJsURL,
+                request, response);
+
+        Assert.assertArrayEquals(brotliContents, out.getOutput());
+        Mockito.verify(response).setHeader("Content-Encoding", "br");
+        Mockito.verify(response).setHeader("Vary", "Accept-Encoding");
+    }
+
+    @Test
+    public void acceptsBrotliResource() {
+        Assert.assertTrue(acceptsBrotliResource("gzip, deflate, br"));
+        Assert.assertTrue(acceptsBrotliResource("br;q=0.5"));
+        Assert.assertFalse(acceptsBrotliResource("gzip, br;q=0"));
+        Assert.assertFalse(acceptsBrotliResource("gzip"));
+        Assert.assertFalse(acceptsBrotliResource(null));
+    }
+
+    private boolean acceptsBrotliResource(String acceptEncodingHeader) {
+        Mockito.when(request.getHeader("Accept-Encoding"))
+                .thenReturn(acceptEncodingHeader);
+        return responseWriter.acceptsBrotliResource(request);
+    }
+
+    @Test
+    public void writeData_eTagMatches_notModified() throws IOException {
+        URL fileJsURL = createFileURLWithDataAndLength("/static/file.js",
+                "File.js contents".getBytes(StandardCharsets.UTF_8), 1000L);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        String eTag = writeAndCaptureETag(fileJsURL);
+        Assert.assertTrue(eTag.startsWith("\"") && eTag.endsWith("\""));
+
+        Mockito.reset(response);
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        Mockito.when(request.getHeader("If-None-Match"))
+                .thenReturn("\"other\", " + eTag);
+        responseWriter.writeResponseContents("/static/file.js", fileJsURL,
+                request, response);
+
+        Mockito.verify(response)
+                .setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        Mockito.verify(response, Mockito.never()).getOutputStream();
+    }
+
+    @Test
+    public void writeData_differentContent_differentETag()
+            throws IOException {
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        String eTag1 = writeAndCaptureETag(createFileURLWithDataAndLength(
+                "/static/file.js", new byte[] { 1, 2 }, 1000L));
+        Mockito.reset(response);
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        String eTag2 = writeAndCaptureETag(createFileURLWithDataAndLength(
+                "/static/file.js", new byte[] { 1, 3 }, 2000L));
+
+        Assert.assertNotEquals(eTag1, eTag2);
+    }
+
+    @Test
+    public void writeData_noLastModified_noETagAndContentsReadOnce()
+            throws IOException {
+        AtomicInteger openCount = new AtomicInteger();
+        URL fileJsURL = createFileURLWithDataAndLength("/static/file.js",
+                "File.js contents".getBytes(StandardCharsets.UTF_8), 0L,
+                openCount);
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        responseWriter.writeResponseContents("/static/file.js", fileJsURL,
+                request, response);
+
+        Assert.assertEquals(1, openCount.get());
+        Mockito.verify(response, Mockito.never())
+                .setHeader(Matchers.eq("ETag"), Matchers.anyString());
+    }
+
+    @Test(timeout = 5000)
+    public void writeData_rangeFromTruncatedFile_stopsWriting()
+            throws IOException {
+        File file = File.createTempFile("range", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(),
+                "0123456789".getBytes(StandardCharsets.UTF_8));
+        // The length is read before the file is truncated to 10 bytes
+        URL fileURL = new URL("file", "", -1, file.getAbsolutePath(),
+                new URLStreamHandler() {
+                    @Override
+                    protected URLConnection openConnection(URL u)
+                            throws IOException {
+                        URLConnection connection = Mockito
+                                .mock(URLConnection.class);
+                        Mockito.when(connection.getInputStream()).thenReturn(
+                                new ByteArrayInputStream(new byte[0]));
+                        Mockito.when(connection.getContentLengthLong())
+                                .thenReturn(20L);
+                        return connection;
+                    }
+                });
+        Mockito.when(request.getHeader("Range")).thenReturn("bytes=5-14");
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        responseWriter.writeResponseContents("/file.txt", fileURL, request,
+                response);
+
+        Assert.assertEquals("56789",
+                new String(out.getOutput(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void writeData_range_partialContent() throws IOException {
+        byte[] contents = "0123456789".getBytes(StandardCharsets.UTF_8);
+        URL fileURL = createFileURLWithDataAndLength("/static/file.txt",
+                contents);
+        Mockito.when(request.getHeader("Range")).thenReturn("bytes=2-5");
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        responseWriter.writeResponseContents("/static/file.txt", fileURL,
+                request, response);
+
+        Assert.assertEquals("2345",
+                new String(out.getOutput(), StandardCharsets.UTF_8));
+        Assert.assertEquals(4, responseContentLength.get());
+        Mockito.verify(response)
+                .setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        Mockito.verify(response).setHeader("Content-Range", "bytes 2-5/10");
+    }
+
+    @Test
+    public void writeData_rangeFromFile_partialContent() throws IOException {
+        File file = File.createTempFile("range", ".txt");
+        file.deleteOnExit();
+        Files.write(file.toPath(),
+                "0123456789".getBytes(StandardCharsets.UTF_8));
+        Mockito.when(request.getHeader("Range")).thenReturn("bytes=-3");
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        responseWriter.writeResponseContents("/file.txt",
+                file.toURI().toURL(), request, response);
+
+        Assert.assertEquals("789",
+                new String(out.getOutput(), StandardCharsets.UTF_8));
+        Mockito.verify(response).setHeader("Content-Range", "bytes 7-9/10");
+    }
+
+    @Test
+    public void writeData_ifRangeDoesNotMatch_wholeResource()
+            throws IOException {
+        byte[] contents = "0123456789".getBytes(StandardCharsets.UTF_8);
+        URL fileURL = createFileURLWithDataAndLength("/static/file.txt",
+                contents);
+        Mockito.when(request.getHeader("Range")).thenReturn("bytes=2-5");
+        Mockito.when(request.getHeader("If-Range")).thenReturn("\"old\"");
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        responseWriter.writeResponseContents("/static/file.txt", fileURL,
+                request, response);
+
+        Assert.assertArrayEquals(contents, out.getOutput());
+        Mockito.verify(response, Mockito.never())
+                .setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+    }
+
+    @Test
+    public void writeData_unsatisfiableRange_rangeNotSatisfiable()
+            throws IOException {
+        URL fileURL = createFileURLWithDataAndLength("/static/file.txt",
+                "0123456789".getBytes(StandardCharsets.UTF_8));
+        Mockito.when(request.getHeader("Range")).thenReturn("bytes=10-");
+
+        responseWriter.writeResponseContents("/static/file.txt", fileURL,
+                request, response);
+
+        Mockito.verify(response).setHeader("Content-Range", "bytes */10");
+        Mockito.verify(response).sendError(
+                HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+    }
+
+    @Test
+    public void writeData_cached_resourceReadOnce() throws IOException {
+        ResponseWriter cachingWriter = new ResponseWriter(
+                new StaticResourceCache(1024));
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        String fileJsContents = "File.js contents";
+        byte[] fileJsGzippedContents = gzip(fileJsContents);
+        AtomicInteger openCount = new AtomicInteger();
+
+        URL fileJsURL = createFileURLWithDataAndLength("/static/file.js",
+                fileJsContents.getBytes(StandardCharsets.UTF_8), 1000L,
+                openCount);
+        URL fileJsGzURL = createFileURLWithDataAndLength("/static/file.js.gz",
+                fileJsGzippedContents, 1000L, openCount);
+        Mockito.when(servletContext.getResource("/static/file.js.gz"))
+                .thenReturn(fileJsGzURL);
+
+        for (int i = 0; i < 2; i++) {
+            CapturingServletOutputStream out = new CapturingServletOutputStream();
+            Mockito.when(response.getOutputStream()).thenReturn(out);
+            cachingWriter.writeResponseContents("/static/file.js", fileJsURL,
+                    request, response);
+            Assert.assertArrayEquals(fileJsGzippedContents, out.getOutput());
+        }
+
+        Assert.assertEquals(2, openCount.get());
+        Mockito.verify(servletContext, Mockito.times(1))
+                .getResource("/static/file.js.gz");
+        Mockito.verify(response, Mockito.times(2))
+                .setHeader("Content-Encoding", "gzip");
+    }
+
+    @Test
+    public void writeData_cachedRange_partialContent() throws IOException {
+        ResponseWriter cachingWriter = new ResponseWriter(
+                new StaticResourceCache(1024));
+        URL fileURL = createFileURLWithDataAndLength("/static/file.txt",
+                "0123456789".getBytes(StandardCharsets.UTF_8));
+        Mockito.when(request.getHeader("Range")).thenReturn("bytes=7-");
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+        cachingWriter.writeResponseContents("/static/file.txt", fileURL,
+                request, response);
+
+        Assert.assertEquals("789",
+                new String(out.getOutput(), StandardCharsets.UTF_8));
+        Mockito.verify(response).setHeader("Content-Range", "bytes 7-9/10");
+    }
+
+    @Test
+    public void writeData_variantsTooLargeForCacheTogether_notReadForCache()
+            throws IOException {
+        String fileJsContents = "File.js contents";
+        byte[] fileJsGzippedContents = gzip(fileJsContents);
+        // Each variant fits in the cache, but not both of them
+        ResponseWriter cachingWriter = new ResponseWriter(
+                new StaticResourceCache(fileJsGzippedContents.length));
+        Mockito.when(request.getHeader("Accept-Encoding")).thenReturn("gzip");
+        AtomicInteger identityBytesRead = new AtomicInteger();
+
+        URL fileJsURL = createFileURLCountingReads("/static/file.js",
+                fileJsContents.getBytes(StandardCharsets.UTF_8),
+                identityBytesRead);
+        URL fileJsGzURL = createFileURLWithDataAndLength("/static/file.js.gz",
+                fileJsGzippedContents, 1000L);
+        Mockito.when(servletContext.getResource("/static/file.js.gz"))
+                .thenReturn(fileJsGzURL);
+
+        for (int i = 0; i < 2; i++) {
+            CapturingServletOutputStream out = new CapturingServletOutputStream();
+            Mockito.when(response.getOutputStream()).thenReturn(out);
+            cachingWriter.writeResponseContents("/static/file.js", fileJsURL,
+                    request, response);
+            Assert.assertArrayEquals(fileJsGzippedContents, out.getOutput());
+        }
+
+        Assert.assertEquals(0, identityBytesRead.get());
+    }
+
+    private String writeAndCaptureETag(URL url) throws IOException {
+        responseWriter.writeResponseContents("/static/file.js", url, request,
+                response);
+        ArgumentCaptor<String> eTag = ArgumentCaptor.forClass(String.class);
+        Mockito.verify(response).setHeader(Matchers.eq("ETag"),
+                eTag.capture());
+        return eTag.getValue();
+    }
+
     private byte[] gzip(String input) throws IOException {
         ByteArrayOutputStream baos = new ByteArrayOutputStream();
         try (GZIPOutputStream stream = new GZIPOutputStream(baos)) {
@@ -262,9 +560,17 @@ public class ResponseWriterTest {
 
     private static URL createFileURLWithDataAndLength(String name, byte[] data,
                                                       long lastModificationTime) throws MalformedURLException {
+        return createFileURLWithDataAndLength(name, data, lastModificationTime,
+                new AtomicInteger());
+    }
+
+    private static URL createFileURLWithDataAndLength(String name, byte[] data,
+            long lastModificationTime, AtomicInteger openCount)
+            throws MalformedURLException {
         return new URL("file", "", -1, name, new URLStreamHandler() {
             @Override
             protected URLConnection openConnection(URL u) throws IOException {
+                openCount.incrementAndGet();
                 URLConnection connection = Mockito.mock(URLConnection.class);
                 Mockito.when(connection.getInputStream())
                         .thenReturn(new ByteArrayInputStream(data));
@@ -276,4 +582,37 @@ public class ResponseWriterTest {
             }
         });
     }
+
+    private static URL createFileURLCountingReads(String name, byte[] data,
+            AtomicInteger bytesRead) throws MalformedURLException {
+        return new URL("file", "", -1, name, new URLStreamHandler() {
+            @Override
+            protected URLConnection openConnection(URL u) throws IOException {
+                URLConnection connection = Mockito.mock(URLConnection.class);
+                Mockito.when(connection.getInputStream())
+                        .thenReturn(new ByteArrayInputStream(data) {
+                            @Override
+                            public synchronized int read(byte[] b, int off,
+                                    int len) {
+                                int count = super.read(b, off, len);
+                                bytesRead.addAndGet(Math.max(count, 0));
+                                return count;
+                            }
+
+                            @Override
+                            public synchronized int read() {
+                                int value = super.read();
+                                if (value != -1) {
+                                    bytesRead.incrementAndGet();
+                                }
+                                return value;
+                            }
+                        });
+                Mockito.when(connection.getContentLengthLong())
+                        .thenReturn((long) data.length);
+                Mockito.when(connection.getLastModified()).thenReturn(1000L);
+                return connection;
+            }
+        });
+    }
 }
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SerializationUtilTest {
+
+    @Test
+    public void varInt_roundTrip() throws IOException {
+        int[] values = { 0, 1, 127, 128, 16383, 16384, Integer.MAX_VALUE, -1,
+                Integer.MIN_VALUE };
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            for (int value : values) {
+                SerializationUtil.writeVarInt(out, value);
+            }
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (int value : values) {
+                Assert.assertEquals(value, SerializationUtil.readVarInt(in));
+            }
+        }
+    }
+
+    @Test
+    public void varInt_smallValues_compact() throws IOException {
+        Assert.assertEquals(1, getVarIntLength(0));
+        Assert.assertEquals(1, getVarIntLength(127));
+        Assert.assertEquals(2, getVarIntLength(128));
+        Assert.assertEquals(3, getVarIntLength(16384));
+        Assert.assertEquals(5, getVarIntLength(-1));
+    }
+
+    @Test
+    public void readInterned_stringInterned() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new String("foo"));
+            out.writeObject(Integer.valueOf(1));
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes.toByteArray()))) {
+            Assert.assertSame("foo", SerializationUtil.readInterned(in));
+            Assert.assertEquals(1, SerializationUtil.readInterned(in));
+        }
+    }
+
+    private static int getVarIntLength(int value) throws IOException {
+        ByteArrayOutputStream empty = new ByteArrayOutputStream();
+        new ObjectOutputStream(empty).close();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            SerializationUtil.writeVarInt(out, value);
+        }
+        // Primitive data is written in a block with a two byte header
+        return bytes.size() - empty.size() - 2;
+    }
+}
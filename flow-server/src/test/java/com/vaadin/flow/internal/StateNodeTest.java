@@ -46,6 +46,7 @@ import com.vaadin.flow.internal.nodefeature.ElementClassList;
 import com.vaadin.flow.internal.nodefeature.ElementData;
 import com.vaadin.flow.internal.nodefeature.ElementPropertyMap;
 import com.vaadin.flow.internal.nodefeature.NodeFeature;
+import com.vaadin.flow.internal.nodefeature.VirtualChildrenList;
 import com.vaadin.flow.shared.Registration;
 
 public class StateNodeTest {
@@ -556,6 +557,45 @@ public class StateNodeTest {
                 stateNode.isReportedFeature(ElementAttributeMap.class));
     }
 
+    @Test
+    public void copyConstructor_sameFeatures() {
+        StateNode stateNode = new StateNode(
+                Arrays.asList(ElementClassList.class),
+                VirtualChildrenList.class, ElementData.class);
+
+        StateNode copy = new StateNode(stateNode);
+
+        Assert.assertTrue(copy.hasFeature(ElementClassList.class));
+        Assert.assertTrue(copy.hasFeature(VirtualChildrenList.class));
+        Assert.assertTrue(copy.hasFeature(ElementData.class));
+        Assert.assertFalse(copy.hasFeature(ElementPropertyMap.class));
+
+        Assert.assertTrue(copy.isReportedFeature(ElementClassList.class));
+        Assert.assertFalse(copy.isReportedFeature(VirtualChildrenList.class));
+    }
+
+    @Test
+    public void collectChanges_changeTrackersClearedAfterCollecting() {
+        Element element = ElementFactory.createDiv();
+        StateNode node = element.getNode();
+
+        TestStateTree tree = new TestStateTree();
+        tree.getRootNode().getFeature(ElementChildrenList.class).add(0, node);
+        node.collectChanges(change -> {
+        });
+
+        element.setProperty("foo", "bar");
+        element.setAttribute("title", "baz");
+
+        List<NodeChange> changes = new ArrayList<>();
+        node.collectChanges(changes::add);
+        Assert.assertEquals(2, changes.size());
+
+        changes.clear();
+        node.collectChanges(changes::add);
+        Assert.assertEquals(0, changes.size());
+    }
+
     @Test
     public void collectChanges_initiallyActiveElement_sendOnlyDisalowFeatureChangesWhenInactive() {
         StateNode stateNode = createTestNode("Active node",
@@ -245,6 +245,43 @@ public class StateTreeTest {
         Assert.assertEquals("foo", nodeChange.getValue());
     }
 
+    @Test
+    public void prepareForResync_allAttachedNodesSentAgain() {
+        StateNode node1 = tree.getRootNode();
+        StateNode node2 = new StateNode(ElementData.class);
+        StateNode node3 = new StateNode(ElementData.class);
+
+        StateNodeTest.setParent(node2, node1);
+        StateNodeTest.setParent(node3, node1);
+        node2.getFeature(ElementData.class).setTag("foo");
+        tree.collectChanges(change -> {
+        });
+
+        StateNodeTest.setParent(node3, null);
+        tree.prepareForResync();
+
+        List<NodeChange> changes = new ArrayList<>();
+        tree.collectChanges(changes::add);
+
+        Assert.assertFalse("Detached node should not be reported",
+                changes.stream().anyMatch(
+                        change -> change.getNode() == node3));
+        Assert.assertTrue("Attached node should be attached again",
+                changes.stream()
+                        .anyMatch(change -> change instanceof NodeAttachChange
+                                && change.getNode() == node2));
+        Assert.assertTrue("Attached node should be sent with its values",
+                changes.stream().filter(MapPutChange.class::isInstance)
+                        .map(MapPutChange.class::cast)
+                        .anyMatch(change -> change.getNode() == node2
+                                && "foo".equals(change.getValue())));
+        Assert.assertTrue("Root node children should be sent again",
+                changes.stream().filter(ListAddChange.class::isInstance)
+                        .map(ListAddChange.class::cast)
+                        .anyMatch(change -> change.getNode() == node1
+                                && change.getNewItems().contains(node2)));
+    }
+
     private List<NodeChange> collectChangesExceptChildrenAddRemove() {
         List<NodeChange> changes = new ArrayList<>();
         tree.collectChanges(change -> {
@@ -280,6 +317,70 @@ public class StateTreeTest {
         Assert.assertNotNull(d1);
     }
 
+    @Test
+    public void serialize_stateAndIdsRestored() {
+        StateNode root = tree.getRootNode();
+        StateNode child = new StateNode(
+                Arrays.asList(ElementData.class, ElementAttributeMap.class),
+                ElementChildrenList.class);
+        root.getFeature(ElementChildrenList.class).add(0, child);
+        child.getFeature(ElementData.class).setTag(Tag.DIV);
+        child.getFeature(ElementAttributeMap.class).set(new String("title"),
+                "foo");
+        tree.collectChanges(change -> {
+        });
+
+        StateTree copy = SerializationUtils
+                .deserialize(SerializationUtils.serialize(tree));
+
+        StateNode copiedChild = copy.getNodeById(child.getId());
+        Assert.assertNotNull(copiedChild);
+        Assert.assertSame(copy.getRootNode(), copiedChild.getParent());
+        Assert.assertEquals(Tag.DIV,
+                copiedChild.getFeature(ElementData.class).getTag());
+        Assert.assertEquals("foo", copiedChild
+                .getFeature(ElementAttributeMap.class).get("title"));
+        Assert.assertTrue(
+                copiedChild.isReportedFeature(ElementAttributeMap.class));
+        Assert.assertFalse(
+                copiedChild.isReportedFeature(ElementChildrenList.class));
+        Assert.assertFalse(copiedChild.hasFeature(ElementPropertyMap.class));
+
+        // Keys are interned so that copies share the instances
+        Assert.assertSame("title", copiedChild
+                .getFeature(ElementAttributeMap.class).attributes()
+                .findFirst().get());
+
+        Assert.assertFalse(copy.isResyncRequired());
+        Assert.assertFalse(copy.isDirty());
+    }
+
+    @Test
+    public void serialize_pendingChanges_resyncRequired() {
+        StateNode child = new StateNode(ElementData.class);
+        tree.getRootNode().getFeature(ElementChildrenList.class).add(0,
+                child);
+        child.getFeature(ElementData.class).setTag(Tag.DIV);
+
+        StateTree copy = SerializationUtils
+                .deserialize(SerializationUtils.serialize(tree));
+        Assert.assertTrue(copy.isResyncRequired());
+
+        copy.prepareForResync();
+        Assert.assertFalse(copy.isResyncRequired());
+
+        List<NodeChange> changes = new ArrayList<>();
+        copy.collectChanges(changes::add);
+        Assert.assertTrue(changes.stream()
+                .anyMatch(change -> change instanceof NodeAttachChange
+                        && change.getNode().getId() == child.getId()));
+        Assert.assertTrue(changes.stream()
+                .anyMatch(change -> change instanceof MapPutChange
+                        && change.getNode().getId() == child.getId()
+                        && Tag.DIV.equals(
+                                ((MapPutChange) change).getValue())));
+    }
+
     @Test
     public void reattachedNodeRetainsId() throws InterruptedException {
         StateNode child = new StateNode(ElementChildrenList.class);
@@ -119,8 +119,12 @@ public class NodeListAddRemoveTest
         List<NodeChange> changes = collectChanges(nodeList);
 
         // remove is discarded, the fist add is discarded, others are adjusted
-        Assert.assertEquals(2, changes.size());
-        verifyAdded(changes, Arrays.asList("bar", "bar1"), index, index + 1);
+        // and merged into one change
+        Assert.assertEquals(1, changes.size());
+        Assert.assertTrue(changes.get(0) instanceof ListAddChange<?>);
+        ListAddChange<?> add = (ListAddChange<?>) changes.get(0);
+        Assert.assertEquals(index, add.getIndex());
+        Assert.assertEquals(Arrays.asList("bar", "bar1"), add.getNewItems());
     }
 
     @Test
@@ -157,22 +161,46 @@ public class NodeListAddRemoveTest
         nodeList.remove(index - 2);
 
         // As a result: "remove" change is discarded and the "add" are adjusted
+        // and merged into one change
         List<NodeChange> changes = collectChanges(nodeList);
-        Assert.assertEquals(2, changes.size());
+        Assert.assertEquals(1, changes.size());
 
         Assert.assertTrue(changes.get(0) instanceof ListAddChange<?>);
-        Assert.assertTrue(changes.get(1) instanceof ListAddChange<?>);
 
         ListAddChange<?> add = (ListAddChange<?>) changes.get(0);
         Assert.assertEquals(index - 2, add.getIndex());
-        Assert.assertEquals(2, add.getNewItems().size());
-        items.remove(0);
-        Assert.assertEquals(items, add.getNewItems());
+        Assert.assertEquals(
+                Arrays.asList(items.get(1), "bar", items.get(2)),
+                add.getNewItems());
+    }
 
-        add = (ListAddChange<?>) changes.get(1);
-        Assert.assertEquals(index - 1, add.getIndex());
-        Assert.assertEquals(1, add.getNewItems().size());
-        Assert.assertEquals("bar", add.getNewItems().get(0));
+    @Test
+    public void add_consecutiveAdds_mergedIntoOneChange() {
+        List<String> items = resetToRemoveAfterAddCase();
+        int index = items.size();
+
+        nodeList.add("foo");
+        nodeList.add("bar");
+        nodeList.add(index, "baz");
+
+        List<NodeChange> changes = collectChanges(nodeList);
+        Assert.assertEquals(1, changes.size());
+        ListAddChange<?> add = (ListAddChange<?>) changes.get(0);
+        Assert.assertEquals(index, add.getIndex());
+        Assert.assertEquals(Arrays.asList("baz", "foo", "bar"),
+                add.getNewItems());
+    }
+
+    @Test
+    public void add_nonAdjacentAdds_notMerged() {
+        List<String> items = resetToRemoveAfterAddCase();
+
+        nodeList.add("foo");
+        nodeList.add(0, "bar");
+
+        List<NodeChange> changes = collectChanges(nodeList);
+        Assert.assertEquals(2, changes.size());
+        verifyAdded(changes, Arrays.asList("foo", "bar"), items.size(), 0);
     }
 
     @Test
@@ -15,6 +15,7 @@
  */
 package com.vaadin.flow.router;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -23,6 +24,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Tag;
 import com.vaadin.flow.router.Location;
 import com.vaadin.flow.router.NavigationState;
 import com.vaadin.flow.router.RouteResolver;
@@ -103,6 +105,58 @@ public class DefaultRouteResolverTest extends RoutingTestBase {
         Assert.assertEquals(null, resolveNavigationState("greeting"));
     }
 
+    @Test
+    public void route_with_regex_characters_parameters_resolved()
+            throws InvalidRouteConfigurationException {
+        router.getRegistry().setNavigationTargets(
+                Collections.singleton(RegexCharactersNavigationTarget.class));
+
+        NavigationState state = resolveNavigationState("c++/(1)");
+        Assert.assertEquals(RegexCharactersNavigationTarget.class,
+                state.getNavigationTarget());
+        Assert.assertEquals("c++", state.getResolvedPath());
+        Assert.assertEquals(Collections.singletonList("(1)"),
+                state.getUrlParameters().get());
+    }
+
+    @Test
+    public void wildcard_parameter_longest_route_resolved()
+            throws InvalidRouteConfigurationException {
+        router.getRegistry()
+                .setNavigationTargets(Stream
+                        .of(FooNavigationTarget.class,
+                                WildcardNavigationTarget.class)
+                        .collect(Collectors.toSet()));
+
+        Assert.assertEquals(Arrays.asList("a", "b", "c"),
+                resolveNavigationState("foo/wild/a/b/c").getUrlParameters()
+                        .get());
+        Assert.assertEquals(Collections.emptyList(),
+                resolveNavigationState("foo/wild").getUrlParameters().get());
+        Assert.assertEquals(FooNavigationTarget.class,
+                resolveNavigationTarget("foo"));
+        Assert.assertNull(resolveNavigationState("foo/tame"));
+    }
+
+    @Route("c++")
+    @Tag(Tag.DIV)
+    public static class RegexCharactersNavigationTarget extends Component
+            implements HasUrlParameter<String> {
+        @Override
+        public void setParameter(BeforeEvent event, String parameter) {
+        }
+    }
+
+    @Route("foo/wild")
+    @Tag(Tag.DIV)
+    public static class WildcardNavigationTarget extends Component
+            implements HasUrlParameter<String> {
+        @Override
+        public void setParameter(BeforeEvent event,
+                @WildcardParameter String parameter) {
+        }
+    }
+
     private Class<? extends Component> resolveNavigationTarget(String path) {
         return resolveNavigationState(path).getNavigationTarget();
     }
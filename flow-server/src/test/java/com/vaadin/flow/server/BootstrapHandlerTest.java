@@ -1,5 +1,6 @@
 package com.vaadin.flow.server;
 
+import javax.servlet.http.Cookie;
 import javax.servlet.http.HttpServletRequest;
 
 import java.io.IOException;
@@ -38,6 +39,9 @@ import com.vaadin.flow.component.page.Inline;
 import com.vaadin.flow.component.page.Meta;
 import com.vaadin.flow.component.page.TargetElement;
 import com.vaadin.flow.component.page.Viewport;
+import com.vaadin.flow.internal.ConstantPool;
+import com.vaadin.flow.internal.ConstantPoolKey;
+import com.vaadin.flow.internal.SessionConstantPool;
 import com.vaadin.flow.internal.UsageStatistics;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.ParentLayout;
@@ -58,6 +62,8 @@ import com.vaadin.flow.theme.AbstractTheme;
 import com.vaadin.flow.theme.Theme;
 import com.vaadin.tests.util.MockDeploymentConfiguration;
 
+import elemental.json.Json;
+
 import static org.hamcrest.Matchers.is;
 
 import static org.junit.Assert.assertEquals;
@@ -1405,6 +1411,22 @@ public class BootstrapHandlerTest {
         Assert.assertTrue(head.outerHtml().contains(url));
     }
 
+    @Test
+    public void bootstrapPage_allPlaceholdersReplaced() {
+        Element head = initTestUI();
+
+        String html = head.outerHtml();
+        Assert.assertThat(html, CoreMatchers.not(CoreMatchers
+                .anyOf(CoreMatchers.containsString("{{APP_ID}}"),
+                        CoreMatchers.containsString("{{CONFIG_JSON}}"),
+                        CoreMatchers.containsString("{{INITIAL_UIDL}}"),
+                        CoreMatchers.containsString("{{GWT_STAT_EVENTS}}"))));
+        Assert.assertThat(html, CoreMatchers.containsString(
+                "window.Vaadin.Flow.initApplication(\"" + service
+                        .getMainDivId(session, createVaadinRequest())
+                        + "\", config);"));
+    }
+
     @Test
     public void es6NotSupported_webcomponentsPolyfillBasePresent_polyfillsLoaded() {
         mocks.setBrowserEs6(false);
@@ -1490,6 +1512,65 @@ public class BootstrapHandlerTest {
                 secondInit.getUI(), uiReference.get());
     }
 
+    @Test
+    public void sessionConstantPoolEnabled_cookieMatches_deliveredConstantsSentAsIds() {
+        SessionConstantPool sessionPool = new SessionConstantPool();
+        Mockito.when(session.getConstantPool()).thenReturn(sessionPool);
+        deploymentConfiguration.setApplicationOrSystemProperty(
+                Constants.SESSION_CONSTANT_POOL, "true");
+
+        ConstantPoolKey key = new ConstantPoolKey(Json.createObject());
+        sessionPool.markDelivered(Collections.singleton(key.getId()));
+
+        HttpServletRequest httpRequest = createRequest();
+        Mockito.when(httpRequest.getCookies()).thenReturn(new Cookie[] {
+                new Cookie(ApplicationConstants.CONSTANT_POOL_COOKIE,
+                        sessionPool.getId()) });
+
+        BootstrapContext context = new BootstrapHandler().createAndInitUI(
+                TestUI.class, new VaadinServletRequest(httpRequest, service),
+                Mockito.mock(VaadinResponse.class), session);
+
+        ConstantPool constantPool = context.getUI().getInternals()
+                .getConstantPool();
+        constantPool.getConstantId(key);
+        Assert.assertTrue(constantPool.hasNewCachedConstants());
+        Assert.assertFalse(constantPool.hasNewConstants());
+
+        Assert.assertEquals(sessionPool.getId(),
+                BootstrapHandler.getApplicationParameters(context)
+                        .getString(ApplicationConstants.CONSTANT_POOL_ID));
+    }
+
+    @Test
+    public void sessionConstantPoolEnabled_noCookie_allConstantsSent() {
+        SessionConstantPool sessionPool = new SessionConstantPool();
+        Mockito.when(session.getConstantPool()).thenReturn(sessionPool);
+        deploymentConfiguration.setApplicationOrSystemProperty(
+                Constants.SESSION_CONSTANT_POOL, "true");
+
+        ConstantPoolKey key = new ConstantPoolKey(Json.createObject());
+        sessionPool.markDelivered(Collections.singleton(key.getId()));
+
+        BootstrapContext context = new BootstrapHandler().createAndInitUI(
+                TestUI.class, createVaadinRequest(),
+                Mockito.mock(VaadinResponse.class), session);
+
+        ConstantPool constantPool = context.getUI().getInternals()
+                .getConstantPool();
+        constantPool.getConstantId(key);
+        Assert.assertFalse(constantPool.hasNewCachedConstants());
+        Assert.assertTrue(constantPool.hasNewConstants());
+    }
+
+    @Test
+    public void sessionConstantPoolDisabled_noConstantPoolId() {
+        initUI(testUI);
+
+        Assert.assertFalse(BootstrapHandler.getApplicationParameters(context)
+                .hasKey(ApplicationConstants.CONSTANT_POOL_ID));
+    }
+
     @Route("")
     @Tag(Tag.DIV)
     @Meta(name = "apple-mobile-web-app-capable", content = "yes")
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class InlineResourceCacheTest {
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private String load(String value) {
+        loadCount.incrementAndGet();
+        return value;
+    }
+
+    @Test
+    public void getContents_sameKey_loadedOnce() {
+        InlineResourceCache cache = new InlineResourceCache(10);
+
+        Assert.assertEquals("foo", cache.getContents("a", () -> load("foo")));
+        Assert.assertEquals("foo", cache.getContents("a", () -> load("bar")));
+
+        Assert.assertEquals(1, loadCount.get());
+        Assert.assertEquals(1, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(0.5, cache.getHitRate(), 0);
+    }
+
+    @Test
+    public void getContents_differentKeys_loadedSeparately() {
+        InlineResourceCache cache = new InlineResourceCache(10);
+
+        Assert.assertEquals("foo", cache.getContents("a", () -> load("foo")));
+        Assert.assertEquals("bar", cache.getContents("b", () -> load("bar")));
+
+        Assert.assertEquals(2, loadCount.get());
+        Assert.assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void getContents_maxEntriesExceeded_leastRecentlyUsedEvicted() {
+        InlineResourceCache cache = new InlineResourceCache(2);
+
+        cache.getContents("a", () -> load("a"));
+        cache.getContents("b", () -> load("b"));
+        // Makes "b" the least recently used entry
+        cache.getContents("a", () -> load("a"));
+        cache.getContents("c", () -> load("c"));
+
+        Assert.assertEquals(2, cache.size());
+        Assert.assertEquals(3, loadCount.get());
+
+        cache.getContents("a", () -> load("a"));
+        Assert.assertEquals(3, loadCount.get());
+
+        cache.getContents("b", () -> load("b"));
+        Assert.assertEquals(4, loadCount.get());
+    }
+
+    @Test
+    public void getContents_zeroMaxEntries_alwaysLoaded() {
+        InlineResourceCache cache = new InlineResourceCache(0);
+
+        cache.getContents("a", () -> load("foo"));
+        cache.getContents("a", () -> load("foo"));
+
+        Assert.assertEquals(2, loadCount.get());
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getHitRate(), 0);
+    }
+
+    @Test
+    public void clear_contentsLoadedAgain() {
+        InlineResourceCache cache = new InlineResourceCache(10);
+
+        cache.getContents("a", () -> load("foo"));
+        cache.clear();
+        cache.getContents("a", () -> load("foo"));
+
+        Assert.assertEquals(2, loadCount.get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void negativeMaxEntries_throws() {
+        new InlineResourceCache(-1);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+public class SessionSweeperTest {
+
+    private final VaadinService service = Mockito.mock(VaadinService.class);
+
+    private final SessionSweeper sweeper = new SessionSweeper(service, 1);
+
+    @After
+    public void tearDown() {
+        sweeper.shutdown();
+    }
+
+    private static VaadinSession createSession(Lock lock) {
+        VaadinSession session = Mockito.mock(VaadinSession.class);
+        Mockito.when(session.getState()).thenReturn(VaadinSessionState.OPEN);
+        Mockito.when(session.getLockInstance()).thenReturn(lock);
+        Mockito.doAnswer(invocation -> {
+            lock.unlock();
+            return null;
+        }).when(session).unlock();
+        return session;
+    }
+
+    @Test
+    public void sweep_unlockedSessions_cleanedUp() {
+        ReentrantLock lock1 = new ReentrantLock();
+        ReentrantLock lock2 = new ReentrantLock();
+        VaadinSession session1 = createSession(lock1);
+        VaadinSession session2 = createSession(lock2);
+        sweeper.register(session1);
+        sweeper.register(session2);
+        sweeper.register(session1);
+
+        sweeper.sweep();
+
+        Mockito.verify(service).cleanupSession(session1);
+        Mockito.verify(service).cleanupSession(session2);
+        Assert.assertFalse(lock1.isLocked());
+        Assert.assertFalse(lock2.isLocked());
+        Assert.assertEquals(2, sweeper.getSessionCount());
+        Assert.assertEquals(1, sweeper.getSweepCount());
+    }
+
+    @Test
+    public void sweep_lockedSession_skipped() {
+        Lock lock = Mockito.mock(Lock.class);
+        Mockito.when(lock.tryLock()).thenReturn(false);
+        VaadinSession session = createSession(lock);
+        sweeper.register(session);
+
+        sweeper.sweep();
+
+        Mockito.verify(service, Mockito.never()).cleanupSession(session);
+        Assert.assertEquals(1, sweeper.getSkippedCount());
+        Assert.assertEquals(1, sweeper.getSessionCount());
+    }
+
+    @Test
+    public void sweep_closedSession_unregistered() {
+        VaadinSession session = createSession(new ReentrantLock());
+        Mockito.when(session.getState()).thenReturn(VaadinSessionState.CLOSED);
+        sweeper.register(session);
+
+        sweeper.sweep();
+
+        Mockito.verify(service, Mockito.never()).cleanupSession(session);
+        Assert.assertEquals(0, sweeper.getSessionCount());
+    }
+
+    @Test
+    public void sweep_cleanupFails_lockReleasedAndOtherSessionsCleanedUp() {
+        ReentrantLock lock1 = new ReentrantLock();
+        VaadinSession session1 = createSession(lock1);
+        VaadinSession session2 = createSession(new ReentrantLock());
+        Mockito.doThrow(new IllegalStateException()).when(service)
+                .cleanupSession(session1);
+        sweeper.register(session1);
+        sweeper.register(session2);
+
+        sweeper.sweep();
+
+        Assert.assertFalse(lock1.isLocked());
+        Mockito.verify(service).cleanupSession(session2);
+    }
+
+    @Test
+    public void register_sessionsSweptInBackground()
+            throws InterruptedException {
+        sweeper.register(createSession(new ReentrantLock()));
+
+        long end = System.currentTimeMillis() + 5000;
+        while (sweeper.getSweepCount() == 0
+                && System.currentTimeMillis() < end) {
+            Thread.sleep(50);
+        }
+        Assert.assertTrue(sweeper.getSweepCount() > 0);
+    }
+
+    @Test
+    public void register_afterShutdown_ignored() {
+        sweeper.shutdown();
+
+        sweeper.register(createSession(new ReentrantLock()));
+
+        Assert.assertEquals(0, sweeper.getSessionCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void register_disabled_throws() {
+        SessionSweeper disabled = new SessionSweeper(service, 0);
+        Assert.assertFalse(disabled.isEnabled());
+        disabled.register(Mockito.mock(VaadinSession.class));
+    }
+}
@@ -472,4 +472,56 @@ public class StaticFileServerTest implements Serializable {
                 responseCode.get());
     }
 
+    @Test
+    public void serveStaticResource_ifNoneMatchDiffers_ifModifiedSinceIgnored()
+            throws IOException {
+        setupRequestURI("", "/some", "/file.js");
+        Mockito.when(request.getDateHeader("If-Modified-Since"))
+                .thenReturn(123L);
+        Mockito.when(request.getHeader("If-None-Match"))
+                .thenReturn("\"outdated\"");
+
+        byte[] fileData = "function() {eval('foo');};"
+                .getBytes(StandardCharsets.UTF_8);
+        Mockito.when(servletService.getStaticResource("/some/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/some/file.js",
+                        fileData, 123L));
+
+        CapturingServletOutputStream out = new CapturingServletOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(out);
+
+        Assert.assertTrue(fileServer.serveStaticResource(request, response));
+        Assert.assertArrayEquals(fileData, out.getOutput());
+        Assert.assertNotEquals("\"outdated\"", headers.get("ETag"));
+        Assert.assertEquals("bytes", headers.get("Accept-Ranges"));
+    }
+
+    @Test
+    public void serveStaticResource_cached_resourceNotResolvedAgain()
+            throws IOException {
+        Mockito.when(servletService.getStaticResourceCache())
+                .thenReturn(new StaticResourceCache(1024));
+        fileServer = new OverrideableStaticFileServer(servletService);
+        setupRequestURI("", "/some", "/file.js");
+        byte[] fileData = "function() {eval('foo');};"
+                .getBytes(StandardCharsets.UTF_8);
+        Mockito.when(servletService.getStaticResource("/some/file.js"))
+                .thenReturn(createFileURLWithDataAndLength("/some/file.js",
+                        fileData, 123000L));
+
+        for (int i = 0; i < 2; i++) {
+            CapturingServletOutputStream out = new CapturingServletOutputStream();
+            Mockito.when(response.getOutputStream()).thenReturn(out);
+            Assert.assertTrue(
+                    fileServer.serveStaticResource(request, response));
+            Assert.assertArrayEquals(fileData, out.getOutput());
+            Assert.assertEquals(Long.valueOf(123000L),
+                    dateHeaders.get("Last-Modified"));
+        }
+
+        Assert.assertTrue(fileServer.isStaticResourceRequest(request));
+        Mockito.verify(servletService, Mockito.times(1))
+                .getStaticResource("/some/file.js");
+    }
+
 }
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.vaadin.flow.server.StaticResourceCache.CachedContent;
+import com.vaadin.flow.server.StaticResourceCache.CachedResource;
+
+public class StaticResourceCacheTest {
+
+    private final AtomicInteger loadCount = new AtomicInteger();
+
+    private CachedResource load(int size) {
+        loadCount.incrementAndGet();
+        return new CachedResource(-1, Collections.singletonMap("identity",
+                new CachedContent(new byte[size], null)));
+    }
+
+    @Test
+    public void getResource_samePath_loadedOnce() {
+        StaticResourceCache cache = new StaticResourceCache(100);
+
+        CachedResource resource = cache.getResource("a", () -> load(10));
+        Assert.assertSame(resource, cache.getResource("a", () -> load(10)));
+        Assert.assertSame(resource, cache.getIfPresent("a"));
+
+        Assert.assertEquals(1, loadCount.get());
+        Assert.assertEquals(2, cache.getHitCount());
+        Assert.assertEquals(1, cache.getMissCount());
+        Assert.assertEquals(10, cache.getCachedBytes());
+    }
+
+    @Test
+    public void getResource_maxBytesExceeded_leastRecentlyUsedEvicted() {
+        StaticResourceCache cache = new StaticResourceCache(25);
+
+        cache.getResource("a", () -> load(10));
+        cache.getResource("b", () -> load(10));
+        // Make "b" the least recently used
+        cache.getResource("a", () -> load(10));
+        cache.getResource("c", () -> load(10));
+
+        Assert.assertTrue(cache.contains("a"));
+        Assert.assertFalse(cache.contains("b"));
+        Assert.assertTrue(cache.contains("c"));
+        Assert.assertEquals(20, cache.getCachedBytes());
+    }
+
+    @Test
+    public void getResource_resourceLargerThanCache_notStored() {
+        StaticResourceCache cache = new StaticResourceCache(25);
+
+        Assert.assertNotNull(cache.getResource("a", () -> load(30)));
+
+        Assert.assertFalse(cache.contains("a"));
+        Assert.assertEquals(0, cache.getCachedBytes());
+    }
+
+    @Test
+    public void getResource_disabled_nothingStored() {
+        StaticResourceCache cache = new StaticResourceCache(0);
+
+        cache.getResource("a", () -> load(10));
+        cache.getResource("a", () -> load(10));
+
+        Assert.assertFalse(cache.isEnabled());
+        Assert.assertEquals(2, loadCount.get());
+        Assert.assertEquals(0, cache.size());
+        Assert.assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void clear_resourcesRemoved() {
+        StaticResourceCache cache = new StaticResourceCache(100);
+        cache.getResource("a", () -> load(10));
+
+        cache.clear();
+
+        Assert.assertEquals(0, cache.size());
+        Assert.assertEquals(0, cache.getCachedBytes());
+    }
+}
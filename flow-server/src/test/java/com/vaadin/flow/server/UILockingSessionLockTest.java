@@ -0,0 +1,298 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.tests.util.MockDeploymentConfiguration;
+import com.vaadin.tests.util.MockUI;
+
+public class UILockingSessionLockTest {
+
+    private VaadinSession session;
+    private UI ui1;
+    private UI ui2;
+
+    @Before
+    public void setup() {
+        UILockingSessionLock lock = new UILockingSessionLock();
+        session = new VaadinSession(new MockVaadinServletService()) {
+            @Override
+            public Lock getLockInstance() {
+                return lock;
+            }
+        };
+        ui1 = new MockUI(session);
+        ui2 = new MockUI(session);
+        CurrentInstance.clearAll();
+    }
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void lockUI_uiLockingEnabled() {
+        Assert.assertTrue(session.isUILockingEnabled());
+
+        session.lockUI(ui1);
+        try {
+            Assert.assertTrue(session.hasLock(ui1));
+            Assert.assertFalse(session.hasLock(ui2));
+            Assert.assertFalse(session.hasLock());
+        } finally {
+            session.unlockUI(ui1);
+        }
+
+        Assert.assertFalse(session.hasLock(ui1));
+    }
+
+    @Test
+    public void lockUI_differentUIs_lockedConcurrently()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        session.lockUI(ui1);
+        try {
+            Future<Boolean> otherThread = runInOtherThread(() -> {
+                session.lockUI(ui2);
+                try {
+                    return session.hasLock(ui2);
+                } finally {
+                    session.unlockUI(ui2);
+                }
+            });
+            Assert.assertTrue(otherThread.get(5, TimeUnit.SECONDS));
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test
+    public void lockUI_sameUI_notAvailableForOtherThread()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        session.lockUI(ui1);
+        try {
+            Future<Boolean> otherThread = runInOtherThread(
+                    () -> ui1.getInternals().getLock().tryLock());
+            Assert.assertFalse(otherThread.get(5, TimeUnit.SECONDS));
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test
+    public void lockUI_sessionNotAvailableForOtherThread()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        session.lockUI(ui1);
+        try {
+            Future<Boolean> otherThread = runInOtherThread(
+                    () -> session.getLockInstance().tryLock());
+            Assert.assertFalse(otherThread.get(5, TimeUnit.SECONDS));
+        } finally {
+            session.unlockUI(ui1);
+        }
+
+        Assert.assertTrue(session.getLockInstance().tryLock());
+        session.getLockInstance().unlock();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void lockUI_lockSession_throws() {
+        session.lockUI(ui1);
+        try {
+            session.lock();
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test
+    public void lockSession_lockUI_allowed() {
+        session.lock();
+        try {
+            session.lockUI(ui1);
+            try {
+                Assert.assertTrue(session.hasLock(ui1));
+                Assert.assertTrue(session.hasLock(ui2));
+            } finally {
+                session.unlockUI(ui1);
+            }
+            Assert.assertTrue(session.hasLock());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    @Test
+    public void lockUI_sessionStateReadable() {
+        setDevelopmentModeConfiguration();
+
+        session.lockUI(ui1);
+        try {
+            session.checkHasSharedLock();
+            Assert.assertTrue(session.getUIs().isEmpty());
+            Assert.assertNull(session.getAttribute("foo"));
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test
+    public void lockUI_registerStreamResource_allowed() {
+        setDevelopmentModeConfiguration();
+
+        session.lockUI(ui1);
+        UI.setCurrent(ui1);
+        try {
+            StreamRegistration registration = session.getResourceRegistry()
+                    .registerResource(new StreamResource("foo.txt",
+                            () -> new ByteArrayInputStream(new byte[0])));
+            Assert.assertNotNull(registration.getResource());
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void lockUI_modifySessionState_throws() {
+        setDevelopmentModeConfiguration();
+
+        session.lockUI(ui1);
+        try {
+            session.setAttribute("foo", "bar");
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void lockUI_addUI_throws() {
+        setDevelopmentModeConfiguration();
+
+        session.lockUI(ui1);
+        try {
+            session.addUI(ui2);
+        } finally {
+            session.unlockUI(ui1);
+        }
+    }
+
+    @Test
+    public void access_runsWithUILockOnly() {
+        AtomicBoolean hasUILock = new AtomicBoolean();
+        AtomicBoolean hasSessionLock = new AtomicBoolean(true);
+
+        Future<Void> future = ui1.access(() -> {
+            hasUILock.set(session.hasLock(ui1));
+            hasSessionLock.set(session.hasLock());
+        });
+
+        Assert.assertTrue(future.isDone());
+        Assert.assertTrue(hasUILock.get());
+        Assert.assertFalse(hasSessionLock.get());
+    }
+
+    @Test
+    public void access_uiLockedByOtherThread_runWhenUnlocked()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        AtomicBoolean executed = new AtomicBoolean();
+
+        session.lockUI(ui1);
+        try {
+            Future<Future<Void>> otherThread = runInOtherThread(
+                    () -> ui1.access(() -> executed.set(true)));
+            Future<Void> access = otherThread.get(5, TimeUnit.SECONDS);
+
+            Assert.assertFalse(access.isDone());
+            Assert.assertFalse(executed.get());
+        } finally {
+            session.unlockUI(ui1);
+        }
+
+        Assert.assertTrue(executed.get());
+    }
+
+    @Test
+    public void requestCleanup_sessionAvailable_cleanedUpRightAway() {
+        session.requestCleanup();
+
+        // Without a wrapped session, the session is inactive and closed
+        Assert.assertNotEquals(VaadinSessionState.OPEN, getSessionState());
+    }
+
+    @Test
+    public void requestCleanup_uiLockedByOtherThread_cleanedUpWhenUnlocked()
+            throws InterruptedException, ExecutionException, TimeoutException {
+        session.lockUI(ui1);
+        try {
+            runInOtherThread(() -> {
+                session.requestCleanup();
+                return null;
+            }).get(5, TimeUnit.SECONDS);
+
+            Assert.assertEquals(VaadinSessionState.OPEN, session.getState());
+        } finally {
+            session.unlockUI(ui1);
+        }
+
+        Assert.assertNotEquals(VaadinSessionState.OPEN, getSessionState());
+    }
+
+    private VaadinSessionState getSessionState() {
+        session.lock();
+        try {
+            return session.getState();
+        } finally {
+            session.unlock();
+        }
+    }
+
+    private void setDevelopmentModeConfiguration() {
+        session.lock();
+        try {
+            session.setConfiguration(new MockDeploymentConfiguration());
+        } finally {
+            session.unlock();
+        }
+    }
+
+    private static <T> Future<T> runInOtherThread(Supplier<T> supplier) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        new Thread(() -> {
+            try {
+                future.complete(supplier.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        }).start();
+        return future;
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collections;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.tests.util.AlwaysLockedVaadinSession;
+import com.vaadin.tests.util.MockUI;
+
+public class VaadinSessionDeltaTest {
+
+    private VaadinService service = Mockito.mock(VaadinService.class);
+
+    private VaadinSession primary;
+
+    @Before
+    public void setUp() {
+        Mockito.when(service.getMainDivId(Mockito.any(), Mockito.any()))
+                .thenReturn("ROOT-1");
+        primary = new AlwaysLockedVaadinSession(service);
+    }
+
+    @After
+    public void tearDown() {
+        CurrentInstance.clearAll();
+    }
+
+    @Test
+    public void collectDelta_onlyModifiedUIsIncluded() {
+        addUI(primary, 10);
+        UI second = addUI(primary, 10);
+        VaadinSessionDelta initial = primary.collectDelta();
+        Assert.assertEquals(2, initial.getUIs().size());
+        Assert.assertTrue(initial.isSessionModified());
+
+        Assert.assertTrue(primary.collectDelta().isEmpty());
+
+        second.getElement().getChild(0).setText("changed");
+        VaadinSessionDelta delta = primary.collectDelta();
+        Assert.assertEquals(1, delta.getUIs().size());
+        Assert.assertSame(second, delta.getUIs().get(0));
+        Assert.assertFalse(delta.isSessionModified());
+    }
+
+    @Test
+    public void collectDelta_responseWritten_uiIncluded() {
+        UI ui = addUI(primary, 1);
+        primary.collectDelta();
+
+        ui.getInternals().incrementServerId();
+
+        Assert.assertEquals(1, primary.collectDelta().getUIs().size());
+    }
+
+    @Test
+    public void collectDelta_attributeSet_sessionModified() {
+        primary.collectDelta();
+
+        primary.setAttribute("foo", "bar");
+
+        VaadinSessionDelta delta = primary.collectDelta();
+        Assert.assertTrue(delta.isSessionModified());
+        Assert.assertTrue(delta.getUIs().isEmpty());
+    }
+
+    @Test
+    public void applyDelta_streamResourceRegistered_sessionModified()
+            throws Exception {
+        UI ui = addUI(primary, 1);
+        primary.collectDelta();
+        VaadinSession replica = deserialize(serialize(primary));
+        replica.lock();
+
+        UI.setCurrent(ui);
+        StreamRegistration registration = primary.getResourceRegistry()
+                .registerResource(new StreamResource("foo.txt",
+                        () -> new ByteArrayInputStream(new byte[0])));
+
+        VaadinSessionDelta delta = VaadinSessionDelta.readFrom(
+                new ByteArrayInputStream(writeDelta()), replica);
+        Assert.assertTrue(
+                "Registering a resource should require full replication",
+                delta.isSessionModified());
+
+        Assert.assertTrue(primary.collectDelta().isEmpty());
+        registration.unregister();
+        Assert.assertTrue(primary.collectDelta().isSessionModified());
+    }
+
+    @Test
+    public void applyDelta_requestTimestampAndDeliveredConstants_replicated()
+            throws Exception {
+        UI ui = addUI(primary, 1);
+        primary.collectDelta();
+        VaadinSession replica = deserialize(serialize(primary));
+        replica.lock();
+
+        primary.setLastRequestTimestamp(12345);
+        primary.getConstantPool()
+                .markDelivered(Collections.singleton("constant"));
+        endRequest(ui);
+
+        VaadinSessionDelta delta = VaadinSessionDelta.readFrom(
+                new ByteArrayInputStream(writeDelta()), replica);
+        Assert.assertFalse(delta.isSessionModified());
+        replica.applyDelta(delta);
+
+        Assert.assertEquals(12345, replica.getLastRequestTimestamp());
+        Assert.assertTrue(
+                replica.getConstantPool().isDelivered("constant"));
+    }
+
+    @Test
+    public void collectDelta_uiRemoved_idIncluded() {
+        UI ui = addUI(primary, 1);
+        primary.collectDelta();
+
+        UI.setCurrent(ui);
+        primary.removeUI(ui);
+
+        VaadinSessionDelta delta = primary.collectDelta();
+        Assert.assertEquals(1, delta.getRemovedUIIds().size());
+        Assert.assertTrue(delta.getRemovedUIIds().contains(ui.getUIId()));
+    }
+
+    @Test
+    public void applyDelta_twoNodes_replicaMatchesPrimaryWithSmallDeltas()
+            throws Exception {
+        UI[] uis = { addUI(primary, 200), addUI(primary, 200),
+                addUI(primary, 200) };
+        primary.collectDelta();
+
+        // Initial full replication
+        byte[] fullSession = serialize(primary);
+        VaadinSession replica = deserialize(fullSession);
+        replica.lock();
+        UI untouchedReplicaUI = replica.getUIById(uis[0].getUIId());
+
+        for (int request = 0; request < 3; request++) {
+            UI ui = uis[1 + request % 2];
+            ui.getElement().getChild(request).setText("request " + request);
+            ui.getElement().appendChild(new Element("span"));
+            endRequest(ui);
+
+            byte[] delta = replicate(replica);
+
+            Assert.assertTrue(
+                    "Delta of " + delta.length
+                            + " bytes should be much smaller than the session of "
+                            + fullSession.length + " bytes",
+                    delta.length < fullSession.length / 2);
+
+            UI replicaUI = replica.getUIById(ui.getUIId());
+            Assert.assertNotSame(ui, replicaUI);
+            Assert.assertSame(replica, replicaUI.getSession());
+            Assert.assertEquals("request " + request,
+                    replicaUI.getElement().getChild(request).getText());
+            Assert.assertEquals(ui.getElement().getChildCount(),
+                    replicaUI.getElement().getChildCount());
+        }
+
+        // UIs not included in any delta are kept as is
+        Assert.assertSame(untouchedReplicaUI,
+                replica.getUIById(uis[0].getUIId()));
+
+        // New and removed UIs
+        UI added = addUI(primary, 1);
+        UI.setCurrent(uis[1]);
+        primary.removeUI(uis[1]);
+        replicate(replica);
+
+        Assert.assertNotNull(replica.getUIById(added.getUIId()));
+        Assert.assertNull(replica.getUIById(uis[1].getUIId()));
+        Assert.assertEquals(primary.getNextUIid(), replica.getNextUIid());
+    }
+
+    private byte[] replicate(VaadinSession replica)
+            throws IOException, ClassNotFoundException {
+        byte[] delta = writeDelta();
+        replica.applyDelta(VaadinSessionDelta
+                .readFrom(new ByteArrayInputStream(delta), replica));
+        return delta;
+    }
+
+    private byte[] writeDelta() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        primary.collectDelta().writeTo(bytes);
+        return bytes.toByteArray();
+    }
+
+    private static void endRequest(UI ui) {
+        // Changes are collected when the response is written
+        ui.getInternals().getStateTree().collectChanges(change -> {
+        });
+        ui.getInternals().incrementServerId();
+    }
+
+    private UI addUI(VaadinSession session, int elements) {
+        UI ui = new MockUI(session);
+        ui.doInit(Mockito.mock(VaadinRequest.class), session.getNextUIid());
+        session.addUI(ui);
+        for (int i = 0; i < elements; i++) {
+            Element div = new Element("div");
+            div.setAttribute("class", "item");
+            div.setText("item " + i);
+            ui.getElement().appendChild(div);
+        }
+        endRequest(ui);
+        return ui;
+    }
+
+    private static byte[] serialize(VaadinSession session) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(session);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static VaadinSession deserialize(byte[] bytes)
+            throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(
+                new ByteArrayInputStream(bytes))) {
+            return (VaadinSession) in.readObject();
+        }
+    }
+}
@@ -19,13 +19,19 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
+import java.util.concurrent.CompletableFuture;
 
 import org.atmosphere.cpr.AtmosphereResource;
+import org.atmosphere.cpr.Broadcaster;
 import org.easymock.EasyMock;
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
+import org.mockito.Mockito;
 
 import com.vaadin.flow.component.UI;
+import com.vaadin.flow.server.Constants;
+import com.vaadin.flow.server.MockServletServiceSessionSetup;
 import com.vaadin.flow.server.communication.AtmospherePushConnection;
 import com.vaadin.flow.server.communication.AtmospherePushConnection.State;
 
@@ -55,4 +61,100 @@ public class AtmospherePushConnectionTest {
 
         Assert.assertEquals(State.DISCONNECTED, connection.getState());
     }
+
+    private MockServletServiceSessionSetup mocks;
+
+    @After
+    public void tearDown() {
+        if (mocks != null) {
+            mocks.cleanup();
+        }
+    }
+
+    private AtmospherePushConnection createConnectedConnection(
+            AtmosphereResource resource) throws Exception {
+        mocks = new MockServletServiceSessionSetup();
+        UI ui = new UI();
+        ui.getInternals().setSession(mocks.getSession());
+
+        AtmospherePushConnection connection = new AtmospherePushConnection(ui);
+        connection.connect(resource);
+        return connection;
+    }
+
+    private static AtmosphereResource createResource(Broadcaster broadcaster) {
+        AtmosphereResource resource = Mockito.mock(AtmosphereResource.class);
+        Mockito.when(resource.getBroadcaster()).thenReturn(broadcaster);
+        return resource;
+    }
+
+    @Test
+    public void push_messageSentWhenFlushed() throws Exception {
+        Broadcaster broadcaster = Mockito.mock(Broadcaster.class);
+        Mockito.when(broadcaster.broadcast(Mockito.anyString(),
+                Mockito.any(AtmosphereResource.class)))
+                .then(invocation -> CompletableFuture.completedFuture(null));
+        AtmosphereResource resource = createResource(broadcaster);
+        AtmospherePushConnection connection = createConnectedConnection(
+                resource);
+
+        connection.push();
+        Mockito.verify(broadcaster, Mockito.never()).broadcast(
+                Mockito.anyString(), Mockito.any(AtmosphereResource.class));
+
+        connection.flush();
+        Mockito.verify(broadcaster).broadcast(
+                Mockito.matches("^for\\(;;\\);\\[\\{.*\\}\\]$"),
+                Mockito.eq(resource));
+
+        // Nothing left to send
+        connection.flush();
+        Mockito.verify(broadcaster).broadcast(Mockito.anyString(),
+                Mockito.any(AtmosphereResource.class));
+    }
+
+    @Test
+    public void flush_clientNotKeepingUp_connectionClosed() throws Exception {
+        Broadcaster broadcaster = Mockito.mock(Broadcaster.class);
+        // Messages are never delivered
+        Mockito.when(broadcaster.broadcast(Mockito.anyString(),
+                Mockito.any(AtmosphereResource.class)))
+                .then(invocation -> new CompletableFuture<>());
+        AtmosphereResource resource = createResource(broadcaster);
+        AtmospherePushConnection connection = createConnectedConnection(
+                resource);
+        mocks.getDeploymentConfiguration().setApplicationOrSystemProperty(
+                Constants.PUSH_MAX_PENDING_MESSAGES, "2");
+
+        for (int i = 0; i < 3; i++) {
+            connection.push();
+            connection.flush();
+        }
+
+        Mockito.verify(broadcaster, Mockito.times(2)).broadcast(
+                Mockito.anyString(), Mockito.any(AtmosphereResource.class));
+        Mockito.verify(resource).close();
+    }
+
+    @Test
+    public void flush_deliveredMessagesNotCounted() throws Exception {
+        Broadcaster broadcaster = Mockito.mock(Broadcaster.class);
+        Mockito.when(broadcaster.broadcast(Mockito.anyString(),
+                Mockito.any(AtmosphereResource.class)))
+                .then(invocation -> CompletableFuture.completedFuture(null));
+        AtmosphereResource resource = createResource(broadcaster);
+        AtmospherePushConnection connection = createConnectedConnection(
+                resource);
+        mocks.getDeploymentConfiguration().setApplicationOrSystemProperty(
+                Constants.PUSH_MAX_PENDING_MESSAGES, "2");
+
+        for (int i = 0; i < 5; i++) {
+            connection.push();
+            connection.flush();
+        }
+
+        Mockito.verify(broadcaster, Mockito.times(5)).broadcast(
+                Mockito.anyString(), Mockito.any(AtmosphereResource.class));
+        Mockito.verify(resource, Mockito.never()).close();
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.PushConfiguration;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.UIDetachedException;
+import com.vaadin.flow.server.Command;
+import com.vaadin.flow.shared.communication.PushMode;
+
+public class PushSchedulerTest {
+
+    private final PushScheduler scheduler = new PushScheduler(10);
+
+    private UI ui;
+    private PushConfiguration pushConfiguration;
+
+    @Before
+    public void setUp() {
+        ui = Mockito.mock(UI.class);
+        pushConfiguration = Mockito.mock(PushConfiguration.class);
+        Mockito.when(ui.getPushConfiguration()).thenReturn(pushConfiguration);
+        Mockito.when(pushConfiguration.getPushMode())
+                .thenReturn(PushMode.AUTOMATIC);
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdown();
+    }
+
+    private Command awaitAccess(int times) {
+        ArgumentCaptor<Command> command = ArgumentCaptor
+                .forClass(Command.class);
+        Mockito.verify(ui, Mockito.timeout(5000).times(times))
+                .access(command.capture());
+        return command.getValue();
+    }
+
+    @Test
+    public void schedule_repeatedBeforePush_pushedOnce() {
+        scheduler.schedule(ui);
+        scheduler.schedule(ui);
+        scheduler.schedule(ui);
+
+        Command command = awaitAccess(1);
+        Mockito.verify(ui, Mockito.never()).push();
+        Assert.assertEquals(1, scheduler.getScheduledCount());
+
+        command.execute();
+
+        Mockito.verify(ui).push();
+        Assert.assertEquals(0, scheduler.getScheduledCount());
+        Assert.assertEquals(1, scheduler.getPushCount());
+        Assert.assertEquals(2, scheduler.getCoalescedCount());
+        Assert.assertTrue(scheduler.getMaxLatency() >= 10);
+        Assert.assertTrue(scheduler.getAverageLatency() >= 10);
+    }
+
+    @Test
+    public void schedule_afterPush_scheduledAgain() {
+        scheduler.schedule(ui);
+        awaitAccess(1).execute();
+
+        scheduler.schedule(ui);
+        awaitAccess(2).execute();
+
+        Mockito.verify(ui, Mockito.times(2)).push();
+        Assert.assertEquals(0, scheduler.getCoalescedCount());
+    }
+
+    @Test
+    public void schedule_pushModeChanged_notPushed() {
+        scheduler.schedule(ui);
+        Mockito.when(pushConfiguration.getPushMode())
+                .thenReturn(PushMode.MANUAL);
+
+        awaitAccess(1).execute();
+
+        Mockito.verify(ui, Mockito.never()).push();
+        Assert.assertEquals(0, scheduler.getScheduledCount());
+    }
+
+    @Test
+    public void schedule_detachedUi_forgotten() {
+        Mockito.when(ui.access(Mockito.any()))
+                .thenThrow(new UIDetachedException());
+
+        scheduler.schedule(ui);
+        awaitAccess(1);
+
+        // The UI is removed after access has thrown
+        long end = System.currentTimeMillis() + 5000;
+        while (scheduler.getScheduledCount() > 0
+                && System.currentTimeMillis() < end) {
+            Thread.yield();
+        }
+        Assert.assertEquals(0, scheduler.getScheduledCount());
+    }
+
+    @Test
+    public void schedule_afterShutdown_ignored() throws InterruptedException {
+        scheduler.shutdown();
+
+        scheduler.schedule(ui);
+
+        Assert.assertEquals(0, scheduler.getScheduledCount());
+        Thread.sleep(50);
+        Mockito.verify(ui, Mockito.never()).access(Mockito.any());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void schedule_disabled_throws() {
+        PushScheduler disabled = new PushScheduler(0);
+        Assert.assertFalse(disabled.isEnabled());
+        disabled.schedule(ui);
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.internal.CurrentInstance;
+import com.vaadin.flow.server.VaadinRequest;
+import com.vaadin.flow.server.VaadinSession;
+
+public class ServerRpcHandlerTest {
+
+    private final ServerRpcHandler handler = new ServerRpcHandler();
+
+    /**
+     * Reader returning at most a few chars at a time, like a network stream
+     * would.
+     */
+    private static class ChunkedReader extends StringReader {
+        private ChunkedReader(String s) {
+            super(s);
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) throws IOException {
+            return super.read(cbuf, off, Math.min(len, 7));
+        }
+    }
+
+    @Test
+    public void getMessage_smallMessage_readFully() throws IOException {
+        String message = "{\"csrfToken\":\"foo\",\"rpc\":[]}";
+
+        Assert.assertEquals(message, handler
+                .getMessage(new ChunkedReader(message), message.length()));
+        Assert.assertEquals(message,
+                handler.getMessage(new StringReader(message)));
+    }
+
+    @Test
+    public void getMessage_emptyMessage_emptyString() throws IOException {
+        Assert.assertEquals("", handler.getMessage(new StringReader(""), 0));
+    }
+
+    @Test
+    public void getMessage_largeMessage_readFully() throws IOException {
+        for (int length : new int[] { 8 * 1024 - 1, 8 * 1024, 8 * 1024 + 1,
+                100 * 1024 }) {
+            String message = createMessage(length);
+
+            Assert.assertEquals(message,
+                    handler.getMessage(new ChunkedReader(message), length));
+            Assert.assertEquals(message,
+                    handler.getMessage(new StringReader(message), -1));
+        }
+    }
+
+    @Test
+    public void getMessage_subsequentMessages_noLeftovers() throws IOException {
+        String large = createMessage(10 * 1024);
+        String small = "{}";
+
+        Assert.assertEquals(large, handler.getMessage(new StringReader(large)));
+        Assert.assertEquals(small, handler.getMessage(new StringReader(small)));
+    }
+
+    @Test
+    public void handleRpc_getMessageOverridden_overrideUsed()
+            throws Exception {
+        List<Reader> readers = new ArrayList<>();
+        ServerRpcHandler overridingHandler = new ServerRpcHandler() {
+            @Override
+            protected String getMessage(Reader reader) throws IOException {
+                readers.add(reader);
+                return "";
+            }
+        };
+        UI ui = Mockito.mock(UI.class);
+        Mockito.when(ui.getSession())
+                .thenReturn(Mockito.mock(VaadinSession.class));
+        Reader reader = new StringReader("{}");
+
+        overridingHandler.handleRpc(ui, reader,
+                Mockito.mock(VaadinRequest.class));
+
+        Assert.assertEquals(Collections.singletonList(reader), readers);
+    }
+
+    @Test
+    public void getMessage_currentRequest_contentLengthUsedAsHint()
+            throws IOException {
+        List<Integer> contentLengths = new ArrayList<>();
+        ServerRpcHandler hintHandler = new ServerRpcHandler() {
+            @Override
+            protected String getMessage(Reader reader, int contentLength)
+                    throws IOException {
+                contentLengths.add(contentLength);
+                return super.getMessage(reader, contentLength);
+            }
+        };
+        VaadinRequest request = Mockito.mock(VaadinRequest.class);
+        Mockito.when(request.getContentLength()).thenReturn(2);
+
+        CurrentInstance.set(VaadinRequest.class, request);
+        try {
+            Assert.assertEquals("{}",
+                    hintHandler.getMessage(new StringReader("{}")));
+        } finally {
+            CurrentInstance.clearAll();
+        }
+        Assert.assertEquals("{}",
+                hintHandler.getMessage(new StringReader("{}")));
+
+        Assert.assertEquals(Arrays.asList(2, -1), contentLengths);
+    }
+
+    private static String createMessage(int length) {
+        char[] chars = new char[length];
+        Arrays.fill(chars, 'a');
+        chars[0] = 'b';
+        chars[length - 1] = 'c';
+        return new String(chars);
+    }
+}
@@ -7,8 +7,11 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Optional;
 
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.MockitoAnnotations;
@@ -17,10 +20,12 @@ import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.internal.UIInternals;
 import com.vaadin.flow.internal.StateNode;
 import com.vaadin.flow.internal.StateTree;
+import com.vaadin.flow.server.Command;
 import com.vaadin.flow.server.MockServletConfig;
 import com.vaadin.flow.server.StreamReceiver;
 import com.vaadin.flow.server.StreamResourceRegistry;
 import com.vaadin.flow.server.StreamVariable;
+import com.vaadin.flow.server.StreamVariable.StreamingProgressEvent;
 import com.vaadin.flow.server.VaadinRequest;
 import com.vaadin.flow.server.VaadinResponse;
 import com.vaadin.flow.server.VaadinServlet;
@@ -245,4 +250,63 @@ public class StreamReceiverHandlerTest {
 
         verifyZeroInteractions(responseOutput);
     }
+
+    @Test
+    public void progressEvents_coalescedIntoSingleAccessTask()
+            throws IOException {
+        handler = new StreamReceiverHandler() {
+            @Override
+            protected int getUploadBufferSize() {
+                return 2;
+            }
+
+            @Override
+            protected int getProgressEventInterval() {
+                return 0;
+            }
+        };
+        when(streamVariable.listenProgress()).thenReturn(true);
+
+        handler.handleRequest(session, request, response, streamReceiver,
+                String.valueOf(uiId), expectedSecurityKey);
+
+        // Three chunks were read, but the access task had not run yet
+        ArgumentCaptor<Command> task = ArgumentCaptor.forClass(Command.class);
+        verify(ui).access(task.capture());
+
+        // The final progress is delivered before the end event
+        ArgumentCaptor<StreamingProgressEvent> progress = ArgumentCaptor
+                .forClass(StreamingProgressEvent.class);
+        InOrder inOrder = Mockito.inOrder(streamVariable);
+        inOrder.verify(streamVariable).onProgress(progress.capture());
+        inOrder.verify(streamVariable).streamingFinished(Mockito.any());
+        Assert.assertEquals(6, progress.getValue().getBytesReceived());
+
+        // The pending progress was superseded by the final progress
+        task.getValue().execute();
+        verify(streamVariable).onProgress(Mockito.any());
+    }
+
+    @Test
+    public void progressEvents_noUi_deliveredDirectly() throws IOException {
+        handler = new StreamReceiverHandler() {
+            @Override
+            protected int getUploadBufferSize() {
+                return 2;
+            }
+
+            @Override
+            protected int getProgressEventInterval() {
+                return 0;
+            }
+        };
+        when(streamVariable.listenProgress()).thenReturn(true);
+        when(session.getUIById(uiId)).thenReturn(null);
+
+        handler.handleRequest(session, request, response, streamReceiver,
+                String.valueOf(uiId), expectedSecurityKey);
+
+        // One event per chunk and the final event
+        verify(streamVariable, Mockito.times(4)).onProgress(Mockito.any());
+    }
 }
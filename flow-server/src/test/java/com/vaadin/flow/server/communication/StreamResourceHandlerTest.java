@@ -0,0 +1,193 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.communication;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.server.VaadinResponse;
+import com.vaadin.flow.server.VaadinServletRequest;
+import com.vaadin.flow.server.VaadinSession;
+
+public class StreamResourceHandlerTest {
+
+    private static final byte[] DATA = "0123456789"
+            .getBytes(StandardCharsets.UTF_8);
+
+    private final StreamResourceHandler handler = new StreamResourceHandler();
+
+    private final Map<String, String> requestHeaders = new HashMap<>();
+
+    private VaadinSession session;
+    private VaadinServletRequest request;
+    private VaadinResponse response;
+    private ByteArrayOutputStream output;
+
+    @Before
+    public void setUp() throws IOException {
+        session = Mockito.mock(VaadinSession.class);
+        request = Mockito.mock(VaadinServletRequest.class);
+        Mockito.when(request.getHeader(Mockito.anyString()))
+                .then(invocation -> requestHeaders
+                        .get(invocation.getArgumentAt(0, String.class)));
+        response = Mockito.mock(VaadinResponse.class);
+        output = new ByteArrayOutputStream();
+        Mockito.when(response.getOutputStream()).thenReturn(output);
+    }
+
+    private StreamResource createPipeResource() {
+        return new StreamResource("data.txt",
+                () -> new ByteArrayInputStream(DATA))
+                        .setContentType("text/plain");
+    }
+
+    private StreamResource createWriterResource() {
+        return new StreamResource("data.txt",
+                (stream, vaadinSession) -> stream.write(DATA))
+                        .setContentType("text/plain");
+    }
+
+    @Test
+    public void noLengthOrETag_wholeResourceWritten() throws IOException {
+        requestHeaders.put("Range", "bytes=2-5");
+
+        handler.handleRequest(session, request, response,
+                createPipeResource());
+
+        Assert.assertArrayEquals(DATA, output.toByteArray());
+        Mockito.verify(response, Mockito.never()).setStatus(Mockito.anyInt());
+        Mockito.verify(response, Mockito.never())
+                .setHeader(Mockito.eq("Accept-Ranges"), Mockito.anyString());
+    }
+
+    @Test
+    public void contentLength_lengthAndAcceptRangesSent() throws IOException {
+        handler.handleRequest(session, request, response,
+                createPipeResource().setContentLength(DATA.length));
+
+        Assert.assertArrayEquals(DATA, output.toByteArray());
+        Mockito.verify(response).setHeader("Content-Length", "10");
+        Mockito.verify(response).setHeader("Accept-Ranges", "bytes");
+    }
+
+    @Test
+    public void rangeRequest_inputStreamFactory_partialContent()
+            throws IOException {
+        requestHeaders.put("Range", "bytes=2-5");
+
+        handler.handleRequest(session, request, response,
+                createPipeResource().setContentLength(DATA.length));
+
+        Assert.assertEquals("2345",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+        Mockito.verify(response).setStatus(206);
+        Mockito.verify(response).setHeader("Content-Range", "bytes 2-5/10");
+        Mockito.verify(response).setHeader("Content-Length", "4");
+    }
+
+    @Test
+    public void rangeRequest_plainWriter_partialContent() throws IOException {
+        requestHeaders.put("Range", "bytes=-3");
+
+        handler.handleRequest(session, request, response,
+                createWriterResource().setContentLength(DATA.length));
+
+        Assert.assertEquals("789",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+        Mockito.verify(response).setStatus(206);
+        Mockito.verify(response).setHeader("Content-Range", "bytes 7-9/10");
+    }
+
+    @Test
+    public void rangeRequest_unsatisfiable_416() throws IOException {
+        requestHeaders.put("Range", "bytes=20-");
+
+        handler.handleRequest(session, request, response,
+                createPipeResource().setContentLength(DATA.length));
+
+        Assert.assertEquals(0, output.size());
+        Mockito.verify(response).setHeader("Content-Range", "bytes */10");
+        Mockito.verify(response).sendError(416, null);
+    }
+
+    @Test
+    public void rangeRequest_ifRangeDoesNotMatch_wholeResourceWritten()
+            throws IOException {
+        requestHeaders.put("Range", "bytes=2-5");
+        requestHeaders.put("If-Range", "\"old\"");
+
+        handler.handleRequest(session, request, response, createPipeResource()
+                .setContentLength(DATA.length).setETag("new"));
+
+        Assert.assertArrayEquals(DATA, output.toByteArray());
+        Mockito.verify(response, Mockito.never()).setStatus(206);
+    }
+
+    @Test
+    public void rangeRequest_ifRangeMatches_partialContent()
+            throws IOException {
+        requestHeaders.put("Range", "bytes=8-");
+        requestHeaders.put("If-Range", "\"v1\"");
+
+        handler.handleRequest(session, request, response, createPipeResource()
+                .setContentLength(DATA.length).setETag("v1"));
+
+        Assert.assertEquals("89",
+                new String(output.toByteArray(), StandardCharsets.UTF_8));
+        Mockito.verify(response).setStatus(206);
+    }
+
+    @Test
+    public void eTag_ifNoneMatchMatches_notModified() throws IOException {
+        requestHeaders.put("If-None-Match", "\"v0\", W/\"v1\"");
+
+        handler.handleRequest(session, request, response,
+                createPipeResource().setETag("v1"));
+
+        Assert.assertEquals(0, output.size());
+        Mockito.verify(response).setHeader("ETag", "\"v1\"");
+        Mockito.verify(response).setStatus(304);
+        Mockito.verify(response, Mockito.never()).getOutputStream();
+    }
+
+    @Test
+    public void eTag_ifNoneMatchDoesNotMatch_wholeResourceWritten()
+            throws IOException {
+        requestHeaders.put("If-None-Match", "\"v0\"");
+
+        handler.handleRequest(session, request, response,
+                createPipeResource().setETag("v1"));
+
+        Assert.assertArrayEquals(DATA, output.toByteArray());
+        Mockito.verify(response).setHeader("ETag", "\"v1\"");
+        Mockito.verify(response, Mockito.never()).setStatus(304);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void setETag_quoted_throws() {
+        createPipeResource().setETag("\"v1\"");
+    }
+}
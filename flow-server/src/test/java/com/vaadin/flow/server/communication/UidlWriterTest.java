@@ -16,6 +16,7 @@
 package com.vaadin.flow.server.communication;
 
 import javax.servlet.http.HttpServletRequest;
+import java.io.StringWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -44,16 +45,19 @@ import com.vaadin.flow.internal.JsonUtils;
 import com.vaadin.flow.router.ParentLayout;
 import com.vaadin.flow.router.Route;
 import com.vaadin.flow.router.RouterLayout;
+import com.vaadin.flow.server.Constants;
 import com.vaadin.flow.server.MockServletServiceSessionSetup;
 import com.vaadin.flow.server.VaadinServletRequest;
 import com.vaadin.flow.server.VaadinSession;
 import com.vaadin.flow.shared.ApplicationConstants;
+import com.vaadin.flow.shared.JsonConstants;
 import com.vaadin.flow.shared.ui.Dependency;
 import com.vaadin.flow.shared.ui.LoadMode;
 
 import elemental.json.Json;
 import elemental.json.JsonArray;
 import elemental.json.JsonObject;
+import elemental.json.JsonType;
 import elemental.json.JsonValue;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.hamcrest.Matchers.hasSize;
@@ -220,6 +224,43 @@ public class UidlWriterTest {
         assertFalse(response.hasKey(LoadMode.LAZY.name()));
     }
 
+    @Test
+    public void resynchronizationRequested_responseHasResyncAndAllNodes()
+            throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        UidlWriter uidlWriter = new UidlWriter();
+        addInitialComponentDependencies(ui, uidlWriter);
+
+        JsonObject response = uidlWriter.createUidl(ui, false);
+        assertFalse(response.hasKey(ApplicationConstants.RESYNCHRONIZE_ID));
+        assertFalse(response.hasKey("changes"));
+
+        ui.getInternals().requestResynchronization();
+        response = uidlWriter.createUidl(ui, false);
+        assertTrue(response.hasKey(ApplicationConstants.RESYNCHRONIZE_ID));
+        assertTrue(response.getArray("changes").length() > 0);
+
+        // Only the next response resynchronizes
+        response = uidlWriter.createUidl(ui, false);
+        assertFalse(response.hasKey(ApplicationConstants.RESYNCHRONIZE_ID));
+    }
+
+    @Test
+    public void compactChangeFormat_changesEncodedAsArrays() throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        mocks.getDeploymentConfiguration().setApplicationOrSystemProperty(
+                Constants.COMPACT_CHANGE_FORMAT, "true");
+        ui.add(new ActualComponent());
+
+        JsonArray changes = new UidlWriter().createUidl(ui, false)
+                .getArray("changes");
+
+        assertTrue(changes.length() > 0);
+        for (int i = 0; i < changes.length(); i++) {
+            assertEquals(JsonType.ARRAY, changes.get(i).getType());
+        }
+    }
+
     @Test
     public void testComponentInterfaceDependencies() throws Exception {
         UI ui = initializeUIForDependenciesTest(new TestUI());
@@ -350,6 +391,50 @@ public class UidlWriterTest {
         assertInlineDependencies(inlineDependencies, "/frontend/");
     }
 
+    @Test
+    public void writeUidl_sameContentsAsCreateUidl() throws Exception {
+        UI createdUI = initializeUIForDependenciesTest(new TestUI());
+        MockServletServiceSessionSetup createdMocks = mocks;
+        UI writtenUI = initializeUIForDependenciesTest(new TestUI());
+
+        for (UI ui : Arrays.asList(createdUI, writtenUI)) {
+            ui.add(new ComponentWithAllDependencyTypes(),
+                    new ChildComponent());
+            ui.getPage().executeJavaScript("console.log($0)", "foo");
+            ui.getElement().addEventListener("click", event -> {
+            }).addEventData("event.button");
+        }
+
+        JsonObject created = new UidlWriter().createUidl(createdUI, false);
+        createdMocks.cleanup();
+
+        StringWriter writer = new StringWriter();
+        new UidlWriter().writeUidl(writtenUI, false, writer);
+        JsonObject written = Json.parse(writer.toString());
+
+        assertTrue(written.hasKey("changes"));
+        assertTrue(written.hasKey("constants"));
+        assertTrue(written.hasKey(JsonConstants.UIDL_KEY_EXECUTE));
+        assertTrue(written.hasKey(LoadMode.INLINE.name()));
+        assertTrue("Streamed UIDL should have the same contents: " + written
+                + " vs " + created, JsonUtils.jsonEquals(created, written));
+    }
+
+    @Test
+    public void writeUidl_noPendingChanges_noEmptyArrays() throws Exception {
+        UI ui = initializeUIForDependenciesTest(new TestUI());
+        UidlWriter uidlWriter = new UidlWriter();
+        addInitialComponentDependencies(ui, uidlWriter);
+
+        StringWriter writer = new StringWriter();
+        uidlWriter.writeUidl(ui, false, writer);
+        JsonObject written = Json.parse(writer.toString());
+
+        assertFalse(written.hasKey("changes"));
+        assertFalse(written.hasKey(JsonConstants.UIDL_KEY_EXECUTE));
+        assertTrue(written.hasKey(ApplicationConstants.SERVER_SYNC_ID));
+    }
+
     @Test
     @Ignore("See https://github.com/vaadin/flow/issues/3822")
     public void parentViewDependenciesAreAddedFirst() throws Exception {
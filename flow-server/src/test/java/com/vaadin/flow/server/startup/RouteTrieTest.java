@@ -0,0 +1,113 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.startup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.router.BeforeEvent;
+import com.vaadin.flow.router.HasUrlParameter;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.router.WildcardParameter;
+import com.vaadin.flow.server.InvalidRouteConfigurationException;
+
+public class RouteTrieTest {
+
+    @Route("")
+    @Tag(Tag.DIV)
+    public static class NormalRoute extends Component {
+    }
+
+    @Route("")
+    @Tag(Tag.DIV)
+    public static class HasUrlRoute extends Component
+            implements HasUrlParameter<String> {
+        @Override
+        public void setParameter(BeforeEvent event, String parameter) {
+        }
+    }
+
+    @Route("")
+    @Tag(Tag.DIV)
+    public static class WildcardRoute extends Component
+            implements HasUrlParameter<String> {
+        @Override
+        public void setParameter(BeforeEvent event,
+                @WildcardParameter String parameter) {
+        }
+    }
+
+    private RouteTrie trie;
+
+    @Before
+    public void init() throws InvalidRouteConfigurationException {
+        Map<String, RouteTarget> routes = new HashMap<>();
+        routes.put("", new RouteTarget(NormalRoute.class));
+        routes.put("foo", new RouteTarget(WildcardRoute.class));
+        routes.put("foo/bar", new RouteTarget(NormalRoute.class));
+        routes.put("foo/bar/baz", new RouteTarget(HasUrlRoute.class));
+        trie = new RouteTrie(routes);
+    }
+
+    @Test
+    public void find_exactPath_longestRouteFound() {
+        assertMatch("foo/bar", Collections.emptyList(), NormalRoute.class,
+                trie.find(Arrays.asList("foo", "bar")));
+        assertMatch("foo/bar/baz", Collections.singletonList("1"),
+                HasUrlRoute.class,
+                trie.find(Arrays.asList("foo", "bar", "baz", "1")));
+    }
+
+    @Test
+    public void find_longerRouteDoesNotAcceptSegments_shorterRouteFound() {
+        assertMatch("foo", Arrays.asList("bar", "baz", "1", "2"),
+                WildcardRoute.class,
+                trie.find(Arrays.asList("foo", "bar", "baz", "1", "2")));
+        assertMatch("foo", Arrays.asList("bar", "x"), WildcardRoute.class,
+                trie.find(Arrays.asList("foo", "bar", "x")));
+    }
+
+    @Test
+    public void find_emptySegment_rootRouteFound() {
+        assertMatch("", Collections.emptyList(), NormalRoute.class,
+                trie.find(Collections.singletonList("")));
+    }
+
+    @Test
+    public void find_noMatchingRoute_empty() {
+        Assert.assertFalse(trie.find(Arrays.asList("bar")).isPresent());
+        Assert.assertFalse(trie.find(Collections.emptyList()).isPresent());
+    }
+
+    private static void assertMatch(String path, List<String> segments,
+            Class<? extends Component> target,
+            Optional<RouteTrie.Match> match) {
+        Assert.assertTrue(match.isPresent());
+        Assert.assertEquals(path, match.get().getPath());
+        Assert.assertEquals(segments, match.get().getSegments());
+        Assert.assertEquals(target, match.get().getTarget());
+    }
+}
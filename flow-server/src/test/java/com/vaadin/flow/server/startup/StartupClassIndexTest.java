@@ -0,0 +1,192 @@
+/*
+ * Copyright 2000-2018 Vaadin Ltd.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not
+ * use this file except in compliance with the License. You may obtain a copy of
+ * the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package com.vaadin.flow.server.startup;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.mockito.Mockito;
+
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.Tag;
+import com.vaadin.flow.router.Route;
+import com.vaadin.flow.router.RouteAlias;
+import com.vaadin.flow.router.TestRouteRegistry;
+
+public class StartupClassIndexTest {
+
+    @Route("foo")
+    @Tag(Tag.DIV)
+    public static class FooView extends Component {
+    }
+
+    @Route("bar")
+    @RouteAlias("baz")
+    @Tag(Tag.DIV)
+    public static class BarView extends Component {
+    }
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private ServletContext servletContext;
+    private RouteRegistry registry;
+
+    @Before
+    public void init() {
+        registry = new TestRouteRegistry();
+        servletContext = Mockito.mock(ServletContext.class);
+        Mockito.when(servletContext.getAttribute(RouteRegistry.class.getName()))
+                .thenReturn(registry);
+    }
+
+    @Test
+    public void getClasses_noIndex_containerClassesUsed() {
+        Set<Class<?>> classSet = Collections.singleton(FooView.class);
+
+        Assert.assertSame(classSet, StartupClassIndex.getClasses(
+                RouteRegistryInitializer.class, classSet, servletContext));
+        Assert.assertNull(StartupClassIndex.getClasses(
+                RouteRegistryInitializer.class, null, servletContext));
+    }
+
+    @Test
+    public void getClasses_indexedHandledTypes_classesLoaded()
+            throws IOException {
+        writeIndex(Route.class.getName() + "=" + FooView.class.getName() + ","
+                + BarView.class.getName() + "\n" + RouteAlias.class.getName()
+                + "=" + BarView.class.getName());
+
+        Set<Class<?>> classes = StartupClassIndex.getClasses(
+                RouteRegistryInitializer.class, null, servletContext);
+
+        Assert.assertEquals(
+                new HashSet<>(Arrays.asList(FooView.class, BarView.class)),
+                classes);
+    }
+
+    @Test
+    public void getClasses_handledTypeMissingFromIndex_containerClassesUsed()
+            throws IOException {
+        writeIndex(Route.class.getName() + "=" + FooView.class.getName());
+
+        Assert.assertNull(StartupClassIndex.getClasses(
+                RouteRegistryInitializer.class, null, servletContext));
+    }
+
+    @Test
+    public void getClasses_containerClassesAndIndex_classesCombined()
+            throws IOException {
+        // An index of an add-on jar does not list the application's classes
+        writeIndex(Route.class.getName() + "=" + FooView.class.getName()
+                + "\n" + RouteAlias.class.getName() + "=");
+
+        Set<Class<?>> classes = StartupClassIndex.getClasses(
+                RouteRegistryInitializer.class,
+                Collections.singleton(BarView.class), servletContext);
+
+        Assert.assertEquals(
+                new HashSet<>(Arrays.asList(FooView.class, BarView.class)),
+                classes);
+    }
+
+    @Test
+    public void getClasses_unknownClassInIndex_classIgnored()
+            throws IOException {
+        writeIndex(Route.class.getName() + "=com.example.Missing,"
+                + FooView.class.getName() + "\n" + RouteAlias.class.getName()
+                + "=");
+
+        Set<Class<?>> classes = StartupClassIndex.getClasses(
+                RouteRegistryInitializer.class, null, servletContext);
+
+        Assert.assertEquals(
+                new HashSet<>(Arrays.asList(FooView.class)),
+                classes);
+    }
+
+    @Test
+    public void getClasses_indexInSeveralLocations_indexesMerged()
+            throws IOException {
+        File library = temporaryFolder.newFolder();
+        FileUtils.write(new File(library, StartupClassIndex.INDEX_RESOURCE),
+                Route.class.getName() + "=" + BarView.class.getName() + "\n"
+                        + RouteAlias.class.getName() + "="
+                        + BarView.class.getName(),
+                StandardCharsets.UTF_8);
+        File application = temporaryFolder.newFolder();
+        FileUtils.write(
+                new File(application, StartupClassIndex.INDEX_RESOURCE),
+                Route.class.getName() + "=" + FooView.class.getName() + "\n"
+                        + RouteAlias.class.getName() + "=",
+                StandardCharsets.UTF_8);
+        Mockito.when(servletContext.getClassLoader())
+                .thenReturn(new URLClassLoader(
+                        new URL[] { application.toURI().toURL(),
+                                library.toURI().toURL() },
+                        StartupClassIndexTest.class.getClassLoader()));
+
+        Set<Class<?>> classes = StartupClassIndex.getClasses(
+                RouteRegistryInitializer.class, null, servletContext);
+
+        Assert.assertEquals(
+                new HashSet<>(Arrays.asList(FooView.class, BarView.class)),
+                classes);
+    }
+
+    @Test
+    public void routeRegistryInitializer_indexPresent_routesReadFromIndex()
+            throws IOException, ServletException {
+        writeIndex(Route.class.getName() + "=" + FooView.class.getName() + ","
+                + BarView.class.getName() + "\n" + RouteAlias.class.getName()
+                + "=" + BarView.class.getName());
+
+        new RouteRegistryInitializer().onStartup(null, servletContext);
+
+        Assert.assertEquals(FooView.class,
+                registry.getNavigationTarget("foo").get());
+        Assert.assertEquals(BarView.class,
+                registry.getNavigationTarget("bar").get());
+        Assert.assertEquals(BarView.class,
+                registry.getNavigationTarget("baz").get());
+    }
+
+    private void writeIndex(String content) throws IOException {
+        File root = temporaryFolder.getRoot();
+        FileUtils.write(new File(root, StartupClassIndex.INDEX_RESOURCE),
+                content, StandardCharsets.UTF_8);
+        ClassLoader classLoader = new URLClassLoader(
+                new URL[] { root.toURI().toURL() },
+                StartupClassIndexTest.class.getClassLoader());
+        Mockito.when(servletContext.getClassLoader()).thenReturn(classLoader);
+    }
+}
@@ -95,7 +95,10 @@ public abstract class ClassesSerializableTest {
                 "com\\.vaadin\\.flow\\.internal\\.JavaScriptSemantics",
                 "com\\.vaadin\\.flow\\.internal\\.nodefeature\\.NodeProperties",
                 "com\\.vaadin\\.flow\\.internal\\.AnnotationReader",
+                "com\\.vaadin\\.flow\\.internal\\.nodefeature\\.NodeFeatureRegistry\\$FeatureIdValue",
                 "com\\.vaadin\\.flow\\.server\\.communication\\.ServerRpcHandler\\$LazyInvocationHandlers",
+                "com\\.vaadin\\.flow\\.server\\.communication\\.StreamResourceHandler\\$RangeOutputStream",
+                "com\\.vaadin\\.flow\\.server\\.VaadinSessionDelta\\$Delta(In|Out)putStream",
                 "com\\.vaadin\\.flow\\.server\\.VaadinServletRequest",
                 "com\\.vaadin\\.flow\\.server\\.VaadinServletResponse",
                 "com\\.vaadin\\.flow\\.server\\.startup\\.AnnotationValidator",